@@ -1,7 +1,10 @@
 package com.laptophub.backend;
 
+import com.laptophub.backend.security.ApiRateLimitFilter;
+import com.laptophub.backend.security.BoundedHashingPasswordEncoder;
 import com.laptophub.backend.security.JwtAuthenticationFilter;
 import java.util.List;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
@@ -9,8 +12,6 @@ import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.web.cors.CorsConfiguration;
@@ -21,9 +22,11 @@ import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 public class SecurityConfig {
 
     private final JwtAuthenticationFilter jwtAuthenticationFilter;
+    private final ApiRateLimitFilter apiRateLimitFilter;
 
-    public SecurityConfig(JwtAuthenticationFilter jwtAuthenticationFilter) {
+    public SecurityConfig(JwtAuthenticationFilter jwtAuthenticationFilter, ApiRateLimitFilter apiRateLimitFilter) {
         this.jwtAuthenticationFilter = jwtAuthenticationFilter;
+        this.apiRateLimitFilter = apiRateLimitFilter;
     }
 
     @Bean
@@ -37,6 +40,7 @@ public class SecurityConfig {
                 .requestMatchers("/", "/health").permitAll()
                 .requestMatchers("/api/auth/**", "/api/users/register").permitAll()
                 .requestMatchers(HttpMethod.GET, "/api/products/**").permitAll()
+                .requestMatchers(HttpMethod.GET, "/api/images/**").permitAll()
                 .requestMatchers(HttpMethod.GET, "/api/reviews/product/*/user/*").authenticated()
                 .requestMatchers(HttpMethod.GET, "/api/reviews/product/*/average").permitAll()
                 .requestMatchers(HttpMethod.GET, "/api/reviews/product/*").permitAll()
@@ -44,6 +48,7 @@ public class SecurityConfig {
                 .requestMatchers(HttpMethod.PUT, "/api/products/*").hasRole("ADMIN")
                 .requestMatchers(HttpMethod.DELETE, "/api/products/*").hasRole("ADMIN")
                 .requestMatchers(HttpMethod.POST, "/api/products/*/images").hasRole("ADMIN")
+                .requestMatchers(HttpMethod.POST, "/api/products/*/images/batch").hasRole("ADMIN")
                 .requestMatchers(HttpMethod.PUT, "/api/products/images/*").hasRole("ADMIN")
                 .requestMatchers(HttpMethod.DELETE, "/api/products/images/*").hasRole("ADMIN")
                 .requestMatchers(HttpMethod.DELETE, "/api/products/*/images").hasRole("ADMIN")
@@ -53,6 +58,7 @@ public class SecurityConfig {
                 .requestMatchers("/api/orders/expire").hasRole("ADMIN")
                 .requestMatchers("/api/orders/**").authenticated()
                 .requestMatchers("/api/payments/**").hasRole("ADMIN")
+                .requestMatchers("/api/admin/**").hasRole("ADMIN")
                 .requestMatchers(HttpMethod.GET, "/api/users").hasRole("ADMIN")
                 .requestMatchers("/api/users/**").authenticated()
                 .requestMatchers(HttpMethod.POST, "/api/reviews").authenticated()
@@ -60,7 +66,8 @@ public class SecurityConfig {
                 .requestMatchers(HttpMethod.DELETE, "/api/reviews/**").authenticated()
                 .anyRequest().authenticated()
             )
-            .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class);
+            .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class)
+            .addFilterAfter(apiRateLimitFilter, JwtAuthenticationFilter.class);
         return http.build();
     }
 
@@ -79,9 +86,17 @@ public class SecurityConfig {
         return source;
     }
 
-    @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    /**
+     * BCrypt en un pool acotado: los hashes con costo menor a {@code strength}
+     * se actualizan en el siguiente login exitoso.
+     */
+    @Bean(destroyMethod = "shutdown")
+    public BoundedHashingPasswordEncoder passwordEncoder(
+            @Value("${security.password.bcrypt-strength:10}") int strength,
+            @Value("${security.password.hash-threads:0}") int threads,
+            @Value("${security.password.hash-queue-capacity:64}") int queueCapacity,
+            @Value("${security.password.hash-timeout-ms:5000}") long timeoutMillis) {
+        return new BoundedHashingPasswordEncoder(strength, threads, queueCapacity, timeoutMillis);
     }
 
     @Bean
@@ -0,0 +1,17 @@
+package com.laptophub.backend.config;
+
+import com.cloudinary.Cloudinary;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConditionalOnProperty(name = "images.storage", havingValue = "cloudinary", matchIfMissing = true)
+public class CloudinaryConfig {
+
+    @Bean
+    public Cloudinary cloudinary(@Value("${cloudinary.url}") String cloudinaryUrl) {
+        return new Cloudinary(cloudinaryUrl);
+    }
+}
@@ -0,0 +1,41 @@
+package com.laptophub.backend.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Políticas de rate limiting de la API (prefijo security.rate-limit).
+ * Las políticas se evalúan en orden y se aplica la primera que coincide.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "security.rate-limit")
+public class RateLimitProperties {
+
+    private boolean enabled = true;
+
+    // Tope de claves (usuarios o IPs) en memoria por política
+    private int maxKeysPerPolicy = 100_000;
+
+    // Requests concurrentes admitidos en /api/**; el resto recibe 429 al instante
+    private int maxInFlight = 200;
+
+    private List<Policy> policies = new ArrayList<>();
+
+    @Data
+    public static class Policy {
+        private String name;
+        // Patrón de ruta, por ejemplo /api/orders/**
+        private String pattern;
+        // Métodos HTTP a los que aplica; vacío = todos
+        private List<String> methods = new ArrayList<>();
+        private int capacity;
+        // Tiempo en que se recarga una ficha
+        private Duration refillPeriod;
+    }
+}
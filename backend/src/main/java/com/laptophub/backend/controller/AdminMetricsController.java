@@ -0,0 +1,28 @@
+package com.laptophub.backend.controller;
+
+import com.laptophub.backend.metrics.MetricsSource;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+@RestController
+@RequestMapping("/api/admin/metrics")
+@RequiredArgsConstructor
+public class AdminMetricsController {
+
+    private final List<MetricsSource> sources;
+
+    @GetMapping
+    public Map<String, Map<String, Object>> findAll() {
+        Map<String, Map<String, Object>> metrics = new TreeMap<>();
+        for (MetricsSource source : sources) {
+            metrics.put(source.metricsName(), source.metrics());
+        }
+        return metrics;
+    }
+}
@@ -4,8 +4,8 @@ import com.laptophub.backend.dto.AuthRequestDTO;
 import com.laptophub.backend.dto.AuthResponseDTO;
 import com.laptophub.backend.exception.TooManyRequestsException;
 import com.laptophub.backend.exception.ValidationException;
-import com.laptophub.backend.model.User;
-import com.laptophub.backend.repository.UserRepository;
+import com.laptophub.backend.security.AuthenticatedUser;
+import com.laptophub.backend.security.ClientIpResolver;
 import com.laptophub.backend.security.JwtService;
 import com.laptophub.backend.security.LoginRateLimiterService;
 import jakarta.servlet.http.HttpServletRequest;
@@ -13,8 +13,7 @@ import jakarta.validation.Valid;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
@@ -27,31 +26,29 @@ import java.util.Map;
 public class AuthController {
 
     private final AuthenticationManager authenticationManager;
-    private final UserDetailsService userDetailsService;
     private final JwtService jwtService;
-    private final UserRepository userRepository;
     private final LoginRateLimiterService rateLimiterService;
+    private final ClientIpResolver clientIpResolver;
 
     public AuthController(
             AuthenticationManager authenticationManager,
-            UserDetailsService userDetailsService,
             JwtService jwtService,
-            UserRepository userRepository,
-            LoginRateLimiterService rateLimiterService
+            LoginRateLimiterService rateLimiterService,
+            ClientIpResolver clientIpResolver
     ) {
         this.authenticationManager = authenticationManager;
-        this.userDetailsService = userDetailsService;
         this.jwtService = jwtService;
-        this.userRepository = userRepository;
         this.rateLimiterService = rateLimiterService;
+        this.clientIpResolver = clientIpResolver;
     }
 
     @PostMapping("/login")
     public AuthResponseDTO login(@Valid @RequestBody AuthRequestDTO request, HttpServletRequest httpRequest) {
-        String clientIp = getClientIp(httpRequest);
+        String clientIp = clientIpResolver.resolve(httpRequest);
 
+        Authentication authentication;
         try {
-            authenticationManager.authenticate(
+            authentication = authenticationManager.authenticate(
                     new UsernamePasswordAuthenticationToken(request.getEmail(), request.getPassword())
             );
         } catch (BadCredentialsException ex) {
@@ -64,34 +61,15 @@ public class AuthController {
             throw new ValidationException("Credenciales invalidas");
         }
 
-        UserDetails userDetails = userDetailsService.loadUserByUsername(request.getEmail());
-        User user = userRepository.findByEmail(request.getEmail())
-                .orElseThrow(() -> new ValidationException("Usuario no encontrado"));
-
-        String token = jwtService.generateToken(userDetails, Map.of("role", user.getRole().name()));
+        // UserAuthenticationProvider ya leyó el usuario: id, email y rol vienen en el principal
+        AuthenticatedUser user = (AuthenticatedUser) authentication.getPrincipal();
+        String token = jwtService.generateToken(user, Map.of("role", user.role().name()));
 
         return AuthResponseDTO.builder()
                 .token(token)
-                .userId(user.getId())
-                .email(user.getEmail())
-                .role(user.getRole())
+                .userId(user.id())
+                .email(user.email())
+                .role(user.role())
                 .build();
     }
-
-    /**
-     * Obtiene la IP del cliente, manejando proxies y load balancers
-     */
-    private String getClientIp(HttpServletRequest request) {
-        String xForwardedFor = request.getHeader("X-Forwarded-For");
-        if (xForwardedFor != null && !xForwardedFor.isEmpty()) {
-            return xForwardedFor.split(",")[0].trim();
-        }
-        
-        String xRealIp = request.getHeader("X-Real-IP");
-        if (xRealIp != null && !xRealIp.isEmpty()) {
-            return xRealIp;
-        }
-        
-        return request.getRemoteAddr();
-    }
 }
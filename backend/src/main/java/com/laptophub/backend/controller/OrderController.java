@@ -1,7 +1,9 @@
 package com.laptophub.backend.controller;
 
 import com.laptophub.backend.dto.CreateOrderDTO;
+import com.laptophub.backend.dto.CursorPageDTO;
 import com.laptophub.backend.dto.OrderResponseDTO;
+import com.laptophub.backend.dto.PaymentResponseDTO;
 import com.laptophub.backend.model.OrderStatus;
 import com.laptophub.backend.service.OrderService;
 import jakarta.validation.Valid;
@@ -33,6 +35,14 @@ public class OrderController {
         return orderService.findAllDTO(pageable);
     }
 
+    @GetMapping(params = "after")
+    public CursorPageDTO<OrderResponseDTO> findAllAfter(
+            @RequestParam(defaultValue = "") String after,
+            @NonNull Pageable pageable
+    ) {
+        return orderService.findAllAfterDTO(after, pageable);
+    }
+
     @GetMapping("/{orderId}")
     public OrderResponseDTO findById(@PathVariable Long orderId) {
         return orderService.findByIdDTO(orderId);
@@ -43,11 +53,29 @@ public class OrderController {
         return orderService.findByUserIdDTO(userId, pageable);
     }
 
+    @GetMapping(value = "/user/{userId}", params = "after")
+    public CursorPageDTO<OrderResponseDTO> findByUserAfter(
+            @PathVariable UUID userId,
+            @RequestParam(defaultValue = "") String after,
+            @NonNull Pageable pageable
+    ) {
+        return orderService.findByUserIdAfterDTO(userId, after, pageable);
+    }
+
     @GetMapping("/status/{estado}")
     public Page<OrderResponseDTO> findByStatus(@PathVariable OrderStatus estado, @NonNull Pageable pageable) {
         return orderService.findByStatusDTO(estado, pageable);
     }
 
+    @GetMapping(value = "/status/{estado}", params = "after")
+    public CursorPageDTO<OrderResponseDTO> findByStatusAfter(
+            @PathVariable OrderStatus estado,
+            @RequestParam(defaultValue = "") String after,
+            @NonNull Pageable pageable
+    ) {
+        return orderService.findByStatusAfterDTO(estado, after, pageable);
+    }
+
     @PutMapping("/{orderId}/status/{estado}")
     public OrderResponseDTO updateStatus(
             @PathVariable Long orderId,
@@ -56,6 +84,16 @@ public class OrderController {
         return orderService.updateOrderStatusDTO(orderId, estado);
     }
 
+    @GetMapping("/{orderId}/payment")
+    public PaymentResponseDTO findPayment(@PathVariable Long orderId) {
+        return orderService.findPaymentDTO(orderId);
+    }
+
+    @PostMapping("/{orderId}/payment/refresh")
+    public OrderResponseDTO refreshPayment(@PathVariable Long orderId) {
+        return orderService.refreshPaymentDTO(orderId);
+    }
+
     @PostMapping("/{orderId}/cancel")
     public OrderResponseDTO cancel(@PathVariable Long orderId) {
         return orderService.cancelOrderDTO(orderId);
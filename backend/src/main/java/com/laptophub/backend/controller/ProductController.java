@@ -1,8 +1,11 @@
 package com.laptophub.backend.controller;
 
+import com.laptophub.backend.dto.CursorPageDTO;
 import com.laptophub.backend.dto.ProductCreateDTO;
+import com.laptophub.backend.dto.ProductFilterResponseDTO;
 import com.laptophub.backend.dto.ProductListDTO;
 import com.laptophub.backend.dto.ProductResponseDTO;
+import com.laptophub.backend.search.ProductFacetIndex;
 import com.laptophub.backend.service.ProductService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
@@ -11,6 +14,13 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.lang.NonNull;
 import org.springframework.web.bind.annotation.*;
 
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
 @RestController
 @RequestMapping("/api/products")
 @RequiredArgsConstructor
@@ -23,13 +33,21 @@ public class ProductController {
         return productService.findAll(pageable);
     }
 
+    @GetMapping(params = "after")
+    public CursorPageDTO<ProductListDTO> findAllAfter(
+            @RequestParam(defaultValue = "") String after,
+            @NonNull Pageable pageable
+    ) {
+        return productService.findAllAfter(after, pageable);
+    }
+
     @GetMapping("/{id}")
     public ProductResponseDTO findById(@PathVariable Long id) {
         return productService.findByIdDTO(id);
     }
 
     @GetMapping("/search")
-    public Page<ProductListDTO> searchByName(@RequestParam String nombre, @NonNull Pageable pageable) {
+    public Page<ProductListDTO> searchByName(@RequestParam(required = false) String nombre, @NonNull Pageable pageable) {
         return productService.searchByName(nombre, pageable);
     }
 
@@ -38,6 +56,26 @@ public class ProductController {
         return productService.findByBrand(marca, pageable);
     }
 
+    @GetMapping("/filter")
+    public ProductFilterResponseDTO filter(
+            @RequestParam(required = false) List<String> marca,
+            @RequestParam(required = false) List<Integer> ram,
+            @RequestParam(required = false) List<Integer> almacenamiento,
+            @RequestParam(required = false) List<String> gpu,
+            @RequestParam(required = false) List<String> procesador,
+            @RequestParam(required = false) BigDecimal precioMin,
+            @RequestParam(required = false) BigDecimal precioMax,
+            @NonNull Pageable pageable
+    ) {
+        Map<String, Set<String>> attributes = new HashMap<>();
+        putValues(attributes, ProductFacetIndex.MARCA, marca);
+        putValues(attributes, ProductFacetIndex.RAM, ram);
+        putValues(attributes, ProductFacetIndex.ALMACENAMIENTO, almacenamiento);
+        putValues(attributes, ProductFacetIndex.GPU, gpu);
+        putValues(attributes, ProductFacetIndex.PROCESADOR, procesador);
+        return productService.filter(new ProductFacetIndex.Filter(attributes, precioMin, precioMax), pageable);
+    }
+
     @PostMapping
     public ProductResponseDTO create(@Valid @RequestBody ProductCreateDTO dto) {
         return productService.createProduct(dto);
@@ -52,4 +90,13 @@ public class ProductController {
     public void delete(@PathVariable Long id) {
         productService.deleteProduct(id);
     }
+
+    private void putValues(Map<String, Set<String>> attributes, String attribute, List<?> values) {
+        if (values == null || values.isEmpty()) {
+            return;
+        }
+        Set<String> normalized = new LinkedHashSet<>();
+        values.forEach(value -> normalized.add(value.toString()));
+        attributes.put(attribute, normalized);
+    }
 }
\ No newline at end of file
@@ -1,12 +1,13 @@
 package com.laptophub.backend.controller;
 
+import com.laptophub.backend.dto.DTOMapper;
+import com.laptophub.backend.dto.ProductImageBatchResponseDTO;
 import com.laptophub.backend.dto.ProductImageDTO;
 import com.laptophub.backend.exception.ResourceNotFoundException;
-import com.laptophub.backend.model.Product;
 import com.laptophub.backend.model.ProductImage;
 import com.laptophub.backend.repository.ProductImageRepository;
-import com.laptophub.backend.repository.ProductRepository;
-import com.laptophub.backend.service.CloudinaryService;
+import com.laptophub.backend.service.ImageDeletionService;
+import com.laptophub.backend.service.ProductImageService;
 import jakarta.validation.constraints.NotNull;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
@@ -26,10 +27,10 @@ public class ProductImageController {
     private ProductImageRepository productImageRepository;
 
     @Autowired
-    private ProductRepository productRepository;
+    private ProductImageService productImageService;
 
     @Autowired
-    private CloudinaryService cloudinaryService;
+    private ImageDeletionService imageDeletionService;
 
     /**
      * Agregar imagen a un producto
@@ -43,22 +44,25 @@ public class ProductImageController {
             @RequestParam @NotNull Integer orden,
             @RequestParam(required = false) String descripcion) throws IOException {
         
-        Product product = productRepository.findById(productId)
-            .orElseThrow(() -> new ResourceNotFoundException("Producto no encontrado con id: " + productId));
-        
-        String imageUrl = cloudinaryService.uploadImage(file, "laptophub/products");
-        
-        ProductImage image = ProductImage.builder()
-                .url(imageUrl)
-                .orden(orden)
-                .descripcion(descripcion)
-                .product(product)
-                .build();
-        
-        ProductImage saved = productImageRepository.save(image);
+        ProductImage saved = productImageService.addImage(productId, file, orden, descripcion);
         return ResponseEntity.ok(mapToDTO(saved));
     }
 
+    /**
+     * Agregar varias imágenes a un producto en una sola petición
+     * POST /api/products/{productId}/images/batch
+     * Los archivos se suben en paralelo; ordenes (y descripciones, si se envían)
+     * van en la misma posición que su archivo
+     */
+    @PostMapping("/{productId}/images/batch")
+    public ResponseEntity<ProductImageBatchResponseDTO> addImagesBatch(
+            @PathVariable Long productId,
+            @RequestParam("files") List<MultipartFile> files,
+            @RequestParam("ordenes") List<Integer> ordenes,
+            @RequestParam(value = "descripciones", required = false) List<String> descripciones) {
+        return ResponseEntity.ok(productImageService.uploadBatch(productId, files, ordenes, descripciones));
+    }
+
     /**
      * Obtener todas las imágenes de un producto
      * GET /api/products/{productId}/images
@@ -97,7 +101,10 @@ public class ProductImageController {
         ProductImage image = productImageRepository.findById(imageId)
             .orElseThrow(() -> new ResourceNotFoundException("Imagen no encontrada con id: " + imageId));
         
-        if (url != null) image.setUrl(url);
+        if (url != null) {
+            image.setUrl(url);
+            image.setContentHash(null);
+        }
         if (orden != null) image.setOrden(orden);
         if (descripcion != null) image.setDescripcion(descripcion);
         
@@ -112,14 +119,14 @@ public class ProductImageController {
     @DeleteMapping("/images/{imageId}")
     @SuppressWarnings("null")
     @Transactional
-    public ResponseEntity<Void> deleteImage(@PathVariable Long imageId) throws IOException {
+    public ResponseEntity<Void> deleteImage(@PathVariable Long imageId) {
         ProductImage image = productImageRepository.findById(imageId)
                 .orElse(null);
         if (image == null) {
             return ResponseEntity.notFound().build();
         }
 
-        cloudinaryService.deleteImage(image.getUrl());
+        imageDeletionService.enqueue(List.of(image));
         productImageRepository.deleteById(imageId);
         return ResponseEntity.ok().build();
     }
@@ -130,22 +137,15 @@ public class ProductImageController {
      */
     @DeleteMapping("/{productId}/images")
     @Transactional
-    public ResponseEntity<Void> deleteAllImagesByProduct(@PathVariable Long productId) throws IOException {
+    public ResponseEntity<Void> deleteAllImagesByProduct(@PathVariable Long productId) {
         List<ProductImage> images = productImageRepository.findByProductIdOrderByOrdenAsc(productId);
-        for (ProductImage image : images) {
-            cloudinaryService.deleteImage(image.getUrl());
-        }
+        imageDeletionService.enqueue(images);
 
         productImageRepository.deleteByProductId(productId);
         return ResponseEntity.ok().build();
     }
     
     private ProductImageDTO mapToDTO(ProductImage image) {
-        return ProductImageDTO.builder()
-                .id(image.getId())
-                .url(image.getUrl())
-                .orden(image.getOrden())
-                .descripcion(image.getDescripcion())
-                .build();
+        return DTOMapper.toProductImageDTO(image);
     }
 }
@@ -1,6 +1,7 @@
 package com.laptophub.backend.controller;
 
 import com.laptophub.backend.dto.CreateReviewDTO;
+import com.laptophub.backend.dto.CursorPageDTO;
 import com.laptophub.backend.dto.ReviewResponseDTO;
 import com.laptophub.backend.dto.UpdateReviewDTO;
 import com.laptophub.backend.service.ReviewService;
@@ -30,6 +31,15 @@ public class ReviewController {
         return reviewService.getReviewsByProduct(productId, pageable);
     }
 
+    @GetMapping(value = "/product/{productId}", params = "after")
+    public CursorPageDTO<ReviewResponseDTO> getByProductAfter(
+            @PathVariable Long productId,
+            @RequestParam(defaultValue = "") String after,
+            @NonNull Pageable pageable
+    ) {
+        return reviewService.getReviewsByProductAfter(productId, after, pageable);
+    }
+
     @GetMapping("/product/{productId}/user/{userId}")
     public ReviewResponseDTO getUserReview(
             @PathVariable Long productId,
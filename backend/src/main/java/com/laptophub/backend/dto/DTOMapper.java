@@ -23,6 +23,18 @@ public class DTOMapper {
                 .build();
     }
 
+    public static UserResponseDTO toUserResponse(UserSnapshot user) {
+        return UserResponseDTO.builder()
+                .id(user.id())
+                .email(user.email())
+                .nombre(user.nombre())
+                .apellido(user.apellido())
+                .telefono(user.telefono())
+                .direccion(user.direccion())
+                .createdAt(user.createdAt())
+                .build();
+    }
+
     public static User toUser(UserRegisterDTO dto) {
         return User.builder()
                 .email(dto.getEmail())
@@ -41,6 +53,7 @@ public class DTOMapper {
                 .url(image.getUrl())
                 .orden(image.getOrden())
                 .descripcion(image.getDescripcion())
+                .variantes(image.getVariantes())
                 .build();
     }
 
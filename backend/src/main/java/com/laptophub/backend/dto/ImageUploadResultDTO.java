@@ -0,0 +1,21 @@
+package com.laptophub.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Resultado de un archivo dentro de una subida en lote: la imagen creada o el motivo del fallo.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImageUploadResultDTO {
+    private int index;
+    private String fileName;
+    private boolean success;
+    private ProductImageDTO image;
+    private String error;
+}
@@ -0,0 +1,45 @@
+package com.laptophub.backend.dto;
+
+/**
+ * URLs de una imagen de producto en los tamaños que usa el frontend.
+ *
+ * - thumb: miniaturas de listados y carrito (200px)
+ * - card: tarjetas del catálogo (600px)
+ * - zoom: vista de detalle (1600px)
+ *
+ * Para imágenes de Cloudinary cada variante es una transformación en la URL
+ * (c_limit: nunca se agranda; q_auto y f_auto: calidad y formato según el navegador).
+ * Otras URLs (almacenamiento local) usan la original en las tres variantes.
+ *
+ * Las variantes dependen solo de la URL: ProductImage las calcula una vez por instancia
+ * (ver ProductImage.getVariantes).
+ */
+public record ImageVariants(String thumb, String card, String zoom) {
+
+    public static final int THUMB_WIDTH = 200;
+    public static final int CARD_WIDTH = 600;
+    public static final int ZOOM_WIDTH = 1600;
+
+    private static final String CLOUDINARY_HOST = "://res.cloudinary.com/";
+    private static final String UPLOAD_SEGMENT = "/image/upload/";
+
+    public static ImageVariants of(String url) {
+        if (url == null) {
+            return null;
+        }
+        int upload = url.contains(CLOUDINARY_HOST) ? url.indexOf(UPLOAD_SEGMENT) : -1;
+        if (upload < 0) {
+            return new ImageVariants(url, url, url);
+        }
+        String prefix = url.substring(0, upload + UPLOAD_SEGMENT.length());
+        String rest = url.substring(upload + UPLOAD_SEGMENT.length());
+        return new ImageVariants(
+                prefix + transformation(THUMB_WIDTH) + rest,
+                prefix + transformation(CARD_WIDTH) + rest,
+                prefix + transformation(ZOOM_WIDTH) + rest);
+    }
+
+    private static String transformation(int width) {
+        return "c_limit,w_" + width + ",q_auto,f_auto/";
+    }
+}
@@ -0,0 +1,19 @@
+package com.laptophub.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Page;
+
+import java.util.Map;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductFilterResponseDTO {
+    private Page<ProductListDTO> productos;
+    // atributo -> valor -> cantidad de productos que coinciden con el resto de filtros
+    private Map<String, Map<String, Integer>> facets;
+}
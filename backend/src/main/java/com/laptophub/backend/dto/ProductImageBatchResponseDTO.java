@@ -0,0 +1,19 @@
+package com.laptophub.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductImageBatchResponseDTO {
+    private Long productId;
+    private int uploaded;
+    private int failed;
+    private List<ImageUploadResultDTO> results;
+}
@@ -14,4 +14,9 @@ public class ProductImageDTO {
     private String url;
     private Integer orden;
     private String descripcion;
+
+    /**
+     * URLs redimensionadas de la imagen (ver ImageVariants).
+     */
+    private ImageVariants variantes;
 }
@@ -1,5 +1,6 @@
 package com.laptophub.backend.dto;
 
+import com.laptophub.backend.model.Product;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -19,4 +20,26 @@ public class ProductListDTO {
     private String marca;
     private ProductImageDTO imagenPrincipal;
     private Double promedioRating;
+
+    /**
+     * Constructor usado por las proyecciones JPQL de ProductRepository:
+     * recibe las columnas planas de producto, imagen principal y agregados de rating.
+     */
+    public ProductListDTO(Long id, String nombre, BigDecimal precio, Integer stock, String marca,
+                          Long imagenId, String imagenUrl, Integer imagenOrden, String imagenDescripcion,
+                          Integer reviewCount, Long ratingSum) {
+        this.id = id;
+        this.nombre = nombre;
+        this.precio = precio;
+        this.stock = stock;
+        this.marca = marca;
+        this.imagenPrincipal = imagenId == null ? null : ProductImageDTO.builder()
+                .id(imagenId)
+                .url(imagenUrl)
+                .orden(imagenOrden)
+                .descripcion(imagenDescripcion)
+                .variantes(ImageVariants.of(imagenUrl))
+                .build();
+        this.promedioRating = Product.averageRating(reviewCount, ratingSum);
+    }
 }
@@ -0,0 +1,35 @@
+package com.laptophub.backend.dto;
+
+import com.laptophub.backend.model.Role;
+import com.laptophub.backend.model.User;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Copia inmutable de los datos públicos de un usuario (sin hash de contraseña),
+ * apta para compartirse desde UserCache entre hilos y transacciones.
+ */
+public record UserSnapshot(
+        UUID id,
+        String email,
+        String nombre,
+        String apellido,
+        String telefono,
+        String direccion,
+        LocalDateTime createdAt,
+        Role role
+) {
+
+    public static UserSnapshot from(User user) {
+        return new UserSnapshot(
+                user.getId(),
+                user.getEmail(),
+                user.getNombre(),
+                user.getApellido(),
+                user.getTelefono(),
+                user.getDireccion(),
+                user.getCreatedAt(),
+                user.getRole());
+    }
+}
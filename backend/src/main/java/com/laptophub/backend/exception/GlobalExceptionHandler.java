@@ -6,6 +6,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.multipart.MaxUploadSizeExceededException;
 
 import java.time.LocalDateTime;
 import java.util.stream.Collectors;
@@ -113,4 +114,32 @@ public class GlobalExceptionHandler {
                 .path(request.getRequestURI())
                 .build());
     }
+
+    @ExceptionHandler(ServiceUnavailableException.class)
+    public ResponseEntity<ApiResponse<?>> handleServiceUnavailable(
+            ServiceUnavailableException e,
+            HttpServletRequest request) {
+        return ResponseEntity.status(503)
+            .body(ApiResponse.builder()
+                .success(false)
+                .message(e.getMessage())
+                .data(null)
+                .timestamp(LocalDateTime.now())
+                .path(request.getRequestURI())
+                .build());
+    }
+
+    @ExceptionHandler(MaxUploadSizeExceededException.class)
+    public ResponseEntity<ApiResponse<?>> handleMaxUploadSizeExceeded(
+            MaxUploadSizeExceededException e,
+            HttpServletRequest request) {
+        return ResponseEntity.status(413)
+            .body(ApiResponse.builder()
+                .success(false)
+                .message("El archivo supera el tamaño máximo permitido")
+                .data(null)
+                .timestamp(LocalDateTime.now())
+                .path(request.getRequestURI())
+                .build());
+    }
 }
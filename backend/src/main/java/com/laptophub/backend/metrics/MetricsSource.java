@@ -0,0 +1,19 @@
+package com.laptophub.backend.metrics;
+
+import java.util.Map;
+
+/**
+ * Componente que publica métricas operativas en GET /api/admin/metrics.
+ */
+public interface MetricsSource {
+
+    /**
+     * Nombre del grupo de métricas (clave en la respuesta).
+     */
+    String metricsName();
+
+    /**
+     * Valores actuales; se calculan en cada consulta.
+     */
+    Map<String, Object> metrics();
+}
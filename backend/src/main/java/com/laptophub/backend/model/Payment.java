@@ -29,6 +29,11 @@ public class Payment {
     @Column(name = "stripe_payment_id", length = 255)
     private String stripePaymentId;
     
+    // Se guarda al crear el PaymentIntent para no consultar a Stripe en cada listado
+    @JsonIgnore
+    @Column(name = "stripe_client_secret", length = 255)
+    private String stripeClientSecret;
+    
     @Column(nullable = false)
     private BigDecimal monto;
     
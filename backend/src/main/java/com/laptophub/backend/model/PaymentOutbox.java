@@ -0,0 +1,59 @@
+package com.laptophub.backend.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+
+import java.time.LocalDateTime;
+
+/**
+ * Pago pendiente de crear en Stripe. Se inserta en la misma transacción del checkout
+ * y PaymentOutboxDispatcher lo procesa después, fuera de los locks de stock.
+ */
+@Entity
+@Table(name = "payment_outbox")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PaymentOutbox {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @OneToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "payment_id", nullable = false, unique = true)
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    private Payment payment;
+    
+    // Clave única por pago para Stripe: los ids de pago se repiten entre bases (tests con create-drop)
+    @Column(name = "idempotency_key", nullable = false, updatable = false, length = 64)
+    private String idempotencyKey;
+    
+    @Column(nullable = false)
+    @Builder.Default
+    private Integer intentos = 0;
+    
+    // Próximo momento en que el registro puede reclamarse; al reclamarlo se corre como lease
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt;
+    
+    @Column(name = "last_error", length = 500)
+    private String lastError;
+    
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+    
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+        if (nextAttemptAt == null) {
+            nextAttemptAt = createdAt;
+        }
+    }
+}
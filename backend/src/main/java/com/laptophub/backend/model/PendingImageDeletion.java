@@ -0,0 +1,55 @@
+package com.laptophub.backend.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Imagen pendiente de borrar del almacenamiento. Se inserta en la misma transacción que
+ * elimina la imagen o el producto, e ImageDeletionWorker la borra después en lotes.
+ */
+@Entity
+@Table(name = "pending_image_deletions")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PendingImageDeletion {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "public_id", nullable = false, length = 500)
+    private String publicId;
+
+    // URL de la imagen borrada: si alguna ProductImage la vuelve a usar, no se borra
+    @Column(nullable = false, length = 500)
+    private String url;
+
+    @Column(nullable = false)
+    @Builder.Default
+    private Integer intentos = 0;
+
+    // Próximo momento en que el registro puede reclamarse; al reclamarlo se corre como lease
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    @Column(name = "last_error", length = 500)
+    private String lastError;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+        if (nextAttemptAt == null) {
+            nextAttemptAt = createdAt;
+        }
+    }
+}
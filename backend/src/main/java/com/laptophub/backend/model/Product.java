@@ -1,18 +1,30 @@
 package com.laptophub.backend.model;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.laptophub.backend.search.ProductIndexListener;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 
+/**
+ * En caché de segundo nivel (región catalog.product, ver ehcache.xml). Los cambios de
+ * stock hechos por JDBC en el checkout se descartan del caché en CatalogCache.
+ * Las escrituras por JPA actualizan los índices en memoria (ProductIndexListener).
+ */
 @Entity
 @Table(name = "products")
+@EntityListeners(ProductIndexListener.class)
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "catalog.product")
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -48,8 +60,22 @@ public class Product {
     private String gpu;
     
     private java.math.BigDecimal peso;
+
+    /**
+     * Agregados de reseñas mantenidos por ReviewService para no recalcular
+     * el promedio leyendo todas las reseñas en cada listado.
+     */
+    @Column(name = "review_count", nullable = false, columnDefinition = "integer default 0")
+    @Builder.Default
+    private Integer reviewCount = 0;
+
+    @Column(name = "rating_sum", nullable = false, columnDefinition = "bigint default 0")
+    @Builder.Default
+    private Long ratingSum = 0L;
+
     @JsonIgnore
     @OneToMany(mappedBy = "product", cascade = CascadeType.ALL, orphanRemoval = true)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "catalog.product.imagenes")
     @Builder.Default
     private List<ProductImage> imagenes = new ArrayList<>();
     
@@ -72,4 +98,18 @@ public class Product {
     protected void onCreate() {
         createdAt = LocalDateTime.now();
     }
+
+    /**
+     * Promedio de rating calculado a partir de los agregados persistidos.
+     */
+    public Double getAverageRating() {
+        return averageRating(reviewCount, ratingSum);
+    }
+
+    public static Double averageRating(Integer reviewCount, Long ratingSum) {
+        if (reviewCount == null || reviewCount == 0 || ratingSum == null) {
+            return 0.0;
+        }
+        return ratingSum.doubleValue() / reviewCount;
+    }
 }
@@ -1,15 +1,25 @@
 package com.laptophub.backend.model;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.laptophub.backend.dto.ImageVariants;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * Entidad que representa una imagen de producto
  * Permite múltiples imágenes por producto con orden y descripción
+ * En caché de segundo nivel (región catalog.productImage)
  */
 @Entity
-@Table(name = "product_images")
+@Table(name = "product_images", indexes = {
+    @Index(name = "idx_product_images_content_hash", columnList = "content_hash")
+})
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "catalog.productImage")
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -29,8 +39,41 @@ public class ProductImage {
     @Column(length = 200)
     private String descripcion; // Opcional: "Vista frontal", "Puertos laterales", etc.
 
+    @Column(name = "content_hash", length = 64)
+    private String contentHash; // SHA-256 del archivo original; null si la url se asignó a mano
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "product_id", nullable = false)
     @JsonIgnore
     private Product product;
+
+    /**
+     * Variantes calculadas de la URL vigente. Inicializado y final para quedar fuera del
+     * builder y del constructor; nunca se persiste.
+     */
+    @Transient
+    @JsonIgnore
+    @Getter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private final AtomicReference<UrlVariants> variantes = new AtomicReference<>();
+
+    private record UrlVariants(String url, ImageVariants variantes) {
+    }
+
+    /**
+     * Variantes de tamaño de la imagen (ver ImageVariants): se calculan una vez por
+     * instancia y se recalculan solo si cambió la URL.
+     */
+    public ImageVariants getVariantes() {
+        UrlVariants current = variantes.get();
+        if (current == null || !current.url().equals(url)) {
+            if (url == null) {
+                return null;
+            }
+            current = new UrlVariants(url, ImageVariants.of(url));
+            variantes.set(current);
+        }
+        return current.variantes();
+    }
 }
@@ -0,0 +1,122 @@
+package com.laptophub.backend.repository;
+
+import com.laptophub.backend.metrics.MetricsSource;
+import com.laptophub.backend.model.Product;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Caché de segundo nivel de Hibernate para el catálogo (regiones en ehcache.xml).
+ *
+ * - Las escrituras por JDBC (stock en el checkout, inserts de imágenes en lote) no pasan
+ *   por Hibernate: los repositorios que las hacen descartan aquí las entradas afectadas
+ * - Se descarta al momento y otra vez al terminar la transacción, porque otra transacción
+ *   puede volver a cachear la fila vieja antes del commit
+ * - Publica hits, misses y tamaño por región en /api/admin/metrics
+ */
+@Component
+public class CatalogCache implements MetricsSource {
+
+    public static final String PRODUCT_REGION = "catalog.product";
+    public static final String PRODUCT_IMAGES_REGION = "catalog.product.imagenes";
+    public static final String PRODUCT_IMAGE_REGION = "catalog.productImage";
+    public static final String IMAGES_BY_PRODUCT_QUERY_REGION = "catalog.productImagesByProduct";
+
+    private static final String IMAGENES_ROLE = Product.class.getName() + ".imagenes";
+    private static final List<String> REGIONS = List.of(
+            PRODUCT_REGION, PRODUCT_IMAGES_REGION, PRODUCT_IMAGE_REGION, IMAGES_BY_PRODUCT_QUERY_REGION);
+
+    private final SessionFactory sessionFactory;
+    private final AtomicLong evictions = new AtomicLong();
+
+    public CatalogCache(EntityManagerFactory entityManagerFactory) {
+        this.sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+    }
+
+    /**
+     * Descarta los productos indicados (por ejemplo, tras cambiar su stock por JDBC).
+     */
+    public void evictProducts(Collection<Long> productIds) {
+        if (productIds.isEmpty()) {
+            return;
+        }
+        List<Long> ids = List.copyOf(productIds);
+        runNowAndAfterCompletion(() -> {
+            Cache cache = sessionFactory.getCache();
+            ids.forEach(id -> cache.evictEntityData(Product.class, id));
+            evictions.addAndGet(ids.size());
+        });
+    }
+
+    /**
+     * Descarta la colección de imágenes de un producto y las consultas cacheadas de
+     * imágenes por producto (tras insertar imágenes por JDBC).
+     */
+    public void evictImagesOf(Long productId) {
+        runNowAndAfterCompletion(() -> {
+            Cache cache = sessionFactory.getCache();
+            cache.evictCollectionData(IMAGENES_ROLE, productId);
+            cache.evictQueryRegion(IMAGES_BY_PRODUCT_QUERY_REGION);
+            evictions.incrementAndGet();
+        });
+    }
+
+    private void runNowAndAfterCompletion(Runnable eviction) {
+        eviction.run();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    eviction.run();
+                }
+            });
+        }
+    }
+
+    @Override
+    public String metricsName() {
+        return "catalogCache";
+    }
+
+    @Override
+    public Map<String, Object> metrics() {
+        Statistics statistics = sessionFactory.getStatistics();
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("statisticsEnabled", statistics.isStatisticsEnabled());
+        metrics.put("hits", statistics.getSecondLevelCacheHitCount());
+        metrics.put("misses", statistics.getSecondLevelCacheMissCount());
+        metrics.put("puts", statistics.getSecondLevelCachePutCount());
+        metrics.put("queryCacheHits", statistics.getQueryCacheHitCount());
+        metrics.put("queryCacheMisses", statistics.getQueryCacheMissCount());
+        metrics.put("queryCachePuts", statistics.getQueryCachePutCount());
+        metrics.put("jdbcEvictions", evictions.get());
+
+        Map<String, Object> regions = new LinkedHashMap<>();
+        for (String region : REGIONS) {
+            CacheRegionStatistics regionStatistics = statistics.getCacheRegionStatistics(region);
+            if (regionStatistics == null) {
+                continue;
+            }
+            Map<String, Object> values = new LinkedHashMap<>();
+            values.put("hits", regionStatistics.getHitCount());
+            values.put("misses", regionStatistics.getMissCount());
+            values.put("puts", regionStatistics.getPutCount());
+            values.put("size", regionStatistics.getElementCountInMemory());
+            regions.put(region, values);
+        }
+        metrics.put("regions", regions);
+        return metrics;
+    }
+}
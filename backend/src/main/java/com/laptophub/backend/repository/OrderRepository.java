@@ -7,10 +7,16 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.lang.NonNull;
 import org.springframework.stereotype.Repository;
 
+import jakarta.persistence.LockModeType;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -20,17 +26,87 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
     @Override
     @NonNull Optional<Order> findById(@NonNull Long id);
     
-    @EntityGraph(attributePaths = {"orderItems", "orderItems.product", "payment"})
-    Page<Order> findByUser(User user, Pageable pageable);
+    /**
+     * Primera fase de la paginación: solo ids, para que LIMIT/OFFSET se apliquen en SQL.
+     * Combinar el EntityGraph de orderItems con Pageable hace que Hibernate pagine en memoria.
+     */
+    @Query("SELECT o.id FROM Order o WHERE o.user = :user")
+    Page<Long> findIdsByUser(@Param("user") User user, Pageable pageable);
     
     @EntityGraph(attributePaths = {"orderItems", "orderItems.product", "payment"})
     List<Order> findByUser(User user);
     
-    @EntityGraph(attributePaths = {"orderItems", "orderItems.product", "payment"})
-    Page<Order> findByEstado(OrderStatus estado, Pageable pageable);
+    @Query("SELECT o.id FROM Order o WHERE o.estado = :estado")
+    Page<Long> findIdsByEstado(@Param("estado") OrderStatus estado, Pageable pageable);
     
     @EntityGraph(attributePaths = {"orderItems", "orderItems.product", "payment"})
     List<Order> findByEstado(OrderStatus estado);
     
+    @Query("SELECT o.id FROM Order o")
+    Page<Long> findIds(Pageable pageable);
+    
+    /**
+     * Segunda fase: carga las órdenes de la página con sus items y pago en una sola query.
+     */
+    @EntityGraph(attributePaths = {"orderItems", "orderItems.product", "payment"})
+    List<Order> findByIdIn(Collection<Long> ids);
+    
     List<Order> findByEstadoAndExpiresAtBefore(OrderStatus estado, LocalDateTime expiresAt);
+    
+    /**
+     * Plazos de las órdenes en un estado, en orden de id a partir de afterId (keyset),
+     * leyendo solo id y plazo sin cargar entidades.
+     */
+    @Query("SELECT o.id AS id, o.expiresAt AS expiresAt FROM Order o " +
+           "WHERE o.estado = :estado AND o.expiresAt IS NOT NULL AND o.id > :afterId ORDER BY o.id")
+    List<OrderDeadline> findDeadlinesByEstado(@Param("estado") OrderStatus estado,
+                                              @Param("afterId") Long afterId,
+                                              Pageable pageable);
+    
+    interface OrderDeadline {
+        Long getId();
+        LocalDateTime getExpiresAt();
+    }
+    
+    /**
+     * Bloquea un lote de órdenes vencidas en PENDIENTE_PAGO saltando las que otro
+     * nodo ya tiene tomadas. Excluye las órdenes cuyo pago ya se completó.
+     */
+    @Query(value = "SELECT o.id FROM orders o " +
+                   "WHERE o.estado = 'PENDIENTE_PAGO' AND o.expires_at <= :now " +
+                   "AND NOT EXISTS (SELECT 1 FROM payments p WHERE p.order_id = o.id AND p.estado = 'COMPLETADO') " +
+                   "ORDER BY o.expires_at LIMIT :limit FOR UPDATE OF o SKIP LOCKED",
+           nativeQuery = true)
+    List<Long> lockExpiredIds(@Param("now") LocalDateTime now, @Param("limit") int limit);
+    
+    /**
+     * Igual que lockExpiredIds pero restringido a las órdenes indicadas (timers vencidos).
+     */
+    @Query(value = "SELECT o.id FROM orders o " +
+                   "WHERE o.id IN (:ids) AND o.estado = 'PENDIENTE_PAGO' AND o.expires_at <= :now " +
+                   "AND NOT EXISTS (SELECT 1 FROM payments p WHERE p.order_id = o.id AND p.estado = 'COMPLETADO') " +
+                   "ORDER BY o.id FOR UPDATE OF o SKIP LOCKED",
+           nativeQuery = true)
+    List<Long> lockExpiredIdsIn(@Param("ids") Collection<Long> ids, @Param("now") LocalDateTime now);
+    
+    @Query("SELECT MIN(o.expiresAt) FROM Order o WHERE o.estado = :estado AND o.expiresAt <= :now")
+    LocalDateTime findOldestExpiresAt(@Param("estado") OrderStatus estado, @Param("now") LocalDateTime now);
+    
+    @Modifying
+    @Query("UPDATE Order o SET o.estado = :estado WHERE o.id IN :ids")
+    int updateEstado(@Param("ids") Collection<Long> ids, @Param("estado") OrderStatus estado);
+    
+    /**
+     * Bloquea la orden para que cancelación y expiración no restauren stock dos veces.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT o FROM Order o WHERE o.id = :id")
+    Optional<Order> findByIdForUpdate(@Param("id") Long id);
+    
+    /**
+     * Estado actual de la orden leído de la BD con la fila bloqueada: la entidad ya
+     * cargada en la sesión puede estar vieja si otra transacción la expiró o canceló.
+     */
+    @Query(value = "SELECT estado FROM orders WHERE id = :id FOR UPDATE", nativeQuery = true)
+    Optional<String> lockEstado(@Param("id") Long id);
 }
@@ -0,0 +1,35 @@
+package com.laptophub.backend.repository;
+
+import com.laptophub.backend.model.PaymentOutbox;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface PaymentOutboxRepository extends JpaRepository<PaymentOutbox, Long> {
+    
+    /**
+     * Bloquea los registros vencidos saltando los que otra instancia ya tiene tomados.
+     */
+    @Query(value = "SELECT * FROM payment_outbox WHERE next_attempt_at <= :now " +
+                   "ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED",
+           nativeQuery = true)
+    List<PaymentOutbox> lockDue(@Param("now") LocalDateTime now, @Param("limit") int limit);
+
+    boolean existsByPaymentId(Long paymentId);
+
+    @Modifying
+    @Query("DELETE FROM PaymentOutbox o WHERE o.payment.id = :paymentId")
+    int deleteByPaymentId(@Param("paymentId") Long paymentId);
+
+    @Modifying
+    @Query("DELETE FROM PaymentOutbox o WHERE o.payment.id IN " +
+           "(SELECT p.id FROM Payment p WHERE p.order.id IN :orderIds)")
+    int deleteByOrderIds(@Param("orderIds") Collection<Long> orderIds);
+}
@@ -1,12 +1,35 @@
 package com.laptophub.backend.repository;
 
 import com.laptophub.backend.model.Payment;
+import com.laptophub.backend.model.PaymentStatus;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface PaymentRepository extends JpaRepository<Payment, Long> {
     Optional<Payment> findByStripePaymentId(String stripePaymentId);
+    
+    /**
+     * PaymentIntents de los pagos no completados de las órdenes indicadas.
+     */
+    @Query("SELECT p.stripePaymentId FROM Payment p WHERE p.order.id IN :orderIds " +
+           "AND p.estado <> :completado AND p.stripePaymentId IS NOT NULL")
+    List<String> findStripePaymentIdsByOrderIds(@Param("orderIds") Collection<Long> orderIds,
+                                                @Param("completado") PaymentStatus completado);
+    
+    /**
+     * Marca como fallidos los pagos no completados de las órdenes indicadas.
+     */
+    @Modifying
+    @Query("UPDATE Payment p SET p.estado = :estado WHERE p.order.id IN :orderIds AND p.estado <> :completado")
+    int updateEstadoByOrderIds(@Param("orderIds") Collection<Long> orderIds,
+                               @Param("estado") PaymentStatus estado,
+                               @Param("completado") PaymentStatus completado);
 }
@@ -0,0 +1,22 @@
+package com.laptophub.backend.repository;
+
+import com.laptophub.backend.model.PendingImageDeletion;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface PendingImageDeletionRepository extends JpaRepository<PendingImageDeletion, Long> {
+
+    /**
+     * Bloquea los registros vencidos saltando los que otra instancia ya tiene tomados.
+     */
+    @Query(value = "SELECT * FROM pending_image_deletions WHERE next_attempt_at <= :now " +
+                   "ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED",
+           nativeQuery = true)
+    List<PendingImageDeletion> lockDue(@Param("now") LocalDateTime now, @Param("limit") int limit);
+}
@@ -1,21 +1,57 @@
 package com.laptophub.backend.repository;
 
 import com.laptophub.backend.model.ProductImage;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
-public interface ProductImageRepository extends JpaRepository<ProductImage, Long> {
+public interface ProductImageRepository extends JpaRepository<ProductImage, Long>, ProductImageRepositoryCustom {
     
     /**
      * Encuentra todas las imágenes de un producto ordenadas por su orden
+     * (en caché de queries; los inserts por JDBC la invalidan vía CatalogCache)
      */
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+        @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = CatalogCache.IMAGES_BY_PRODUCT_QUERY_REGION)
+    })
     List<ProductImage> findByProductIdOrderByOrdenAsc(Long productId);
     
     /**
      * Elimina todas las imágenes de un producto
      */
     void deleteByProductId(Long productId);
+
+    /**
+     * Imagen ya subida con el mismo contenido (índice por content_hash)
+     */
+    Optional<ProductImage> findFirstByContentHashOrderByIdAsc(String contentHash);
+
+    /**
+     * URLs de la lista que siguen en uso por imágenes fuera de {@code excludedIds}
+     */
+    @Query("SELECT DISTINCT i.url FROM ProductImage i WHERE i.url IN :urls AND i.id NOT IN :excludedIds")
+    List<String> findUrlsReferencedOutside(@Param("urls") Collection<String> urls,
+                                           @Param("excludedIds") Collection<Long> excludedIds);
+
+    @Query("SELECT DISTINCT i.url FROM ProductImage i WHERE i.url IN :urls")
+    List<String> findUrlsReferenced(@Param("urls") Collection<String> urls);
+
+    /**
+     * Bloquea (FOR SHARE) las filas que usan alguna de las URLs y devuelve sus URLs.
+     * Se llama en la transacción que registra imágenes con URLs reutilizadas por hash:
+     * mientras dura, nadie puede borrar esas filas, y si se borraron antes la URL no
+     * aparece (su borrado ya pudo encolarse).
+     */
+    @Query(value = "SELECT url FROM product_images WHERE url IN (:urls) FOR SHARE", nativeQuery = true)
+    List<String> lockUrlsInUse(@Param("urls") Collection<String> urls);
 }
@@ -0,0 +1,20 @@
+package com.laptophub.backend.repository;
+
+import com.laptophub.backend.model.ProductImage;
+
+import java.util.List;
+
+/**
+ * Inserción de imágenes de producto por JDBC en lote.
+ */
+public interface ProductImageRepositoryCustom {
+
+    /**
+     * Inserta todas las imágenes de un producto en un único batch y asigna a cada
+     * una el id generado, en el mismo orden de la lista.
+     *
+     * @param productId producto al que pertenecen (se ignora {@code image.getProduct()})
+     * @param images imágenes con url, orden, descripción y hash de contenido
+     */
+    void insertAll(Long productId, List<ProductImage> images);
+}
@@ -0,0 +1,71 @@
+package com.laptophub.backend.repository;
+
+import com.laptophub.backend.model.ProductImage;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.List;
+import java.util.Map;
+
+public class ProductImageRepositoryCustomImpl implements ProductImageRepositoryCustom {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO product_images (url, orden, descripcion, content_hash, product_id) VALUES (?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final CatalogCache catalogCache;
+
+    public ProductImageRepositoryCustomImpl(JdbcTemplate jdbcTemplate, CatalogCache catalogCache) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.catalogCache = catalogCache;
+    }
+
+    @Override
+    @Transactional
+    public void insertAll(Long productId, List<ProductImage> images) {
+        if (images.isEmpty()) {
+            return;
+        }
+
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(
+                con -> con.prepareStatement(INSERT_SQL, new String[] {"id"}),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        ProductImage image = images.get(i);
+                        ps.setString(1, image.getUrl());
+                        ps.setInt(2, image.getOrden());
+                        if (image.getDescripcion() != null) {
+                            ps.setString(3, image.getDescripcion());
+                        } else {
+                            ps.setNull(3, Types.VARCHAR);
+                        }
+                        if (image.getContentHash() != null) {
+                            ps.setString(4, image.getContentHash());
+                        } else {
+                            ps.setNull(4, Types.VARCHAR);
+                        }
+                        ps.setLong(5, productId);
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return images.size();
+                    }
+                },
+                keyHolder);
+
+        List<Map<String, Object>> keys = keyHolder.getKeyList();
+        for (int i = 0; i < images.size(); i++) {
+            images.get(i).setId(((Number) keys.get(i).get("id")).longValue());
+        }
+        catalogCache.evictImagesOf(productId);
+    }
+}
@@ -1,26 +1,97 @@
 package com.laptophub.backend.repository;
 
+import com.laptophub.backend.dto.ProductListDTO;
 import com.laptophub.backend.model.Product;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
-import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
-import jakarta.persistence.LockModeType;
-import java.util.Optional;
+import jakarta.persistence.QueryHint;
+import java.util.Collection;
+import java.util.List;
 
 @Repository
-public interface ProductRepository extends JpaRepository<Product, Long> {
-    Page<Product> findByNombreContainingIgnoreCase(String nombre, Pageable pageable);
-    Page<Product> findByMarca(String marca, Pageable pageable);
-    
+public interface ProductRepository extends JpaRepository<Product, Long>, ProductRepositoryCustom {
+
+    /**
+     * Proyección de listado: producto, imagen principal (menor orden) y rating
+     * resueltos en una sola sentencia SQL por página.
+     */
+    String LIST_ITEM_SELECT = "SELECT new com.laptophub.backend.dto.ProductListDTO(" +
+            "p.id, p.nombre, p.precio, p.stock, p.marca, " +
+            "i.id, i.url, i.orden, i.descripcion, p.reviewCount, p.ratingSum) " +
+            "FROM Product p LEFT JOIN ProductImage i ON i.id = (" +
+            "SELECT MIN(pi.id) FROM ProductImage pi WHERE pi.product = p AND pi.orden = (" +
+            "SELECT MIN(pi2.orden) FROM ProductImage pi2 WHERE pi2.product = p)) ";
+
+    @Query(value = LIST_ITEM_SELECT,
+           countQuery = "SELECT COUNT(p) FROM Product p")
+    Page<ProductListDTO> findListItems(Pageable pageable);
+
+    @Query(value = LIST_ITEM_SELECT + "WHERE LOWER(p.nombre) LIKE LOWER(CONCAT('%', :nombre, '%'))",
+           countQuery = "SELECT COUNT(p) FROM Product p WHERE LOWER(p.nombre) LIKE LOWER(CONCAT('%', :nombre, '%'))")
+    Page<ProductListDTO> findListItemsByNombre(@Param("nombre") String nombre, Pageable pageable);
+
+    @Query(value = LIST_ITEM_SELECT + "WHERE p.marca = :marca",
+           countQuery = "SELECT COUNT(p) FROM Product p WHERE p.marca = :marca")
+    Page<ProductListDTO> findListItemsByMarca(@Param("marca") String marca, Pageable pageable);
+
+    @Query(LIST_ITEM_SELECT + "WHERE p.id IN :ids")
+    List<ProductListDTO> findListItemsByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Bloquea, en orden de id, los productos de las órdenes indicadas
+     * (mismo orden que los UPDATE de reserveStock, para no cruzar locks).
+     */
+    @Query(value = "SELECT id FROM products WHERE id IN " +
+                   "(SELECT product_id FROM order_items WHERE order_id IN (:orderIds)) " +
+                   "ORDER BY id FOR UPDATE",
+           nativeQuery = true)
+    List<Long> lockProductIdsOfOrders(@Param("orderIds") Collection<Long> orderIds);
+
+    /**
+     * Devuelve el stock de todas las órdenes indicadas en una sola sentencia,
+     * sumando antes las cantidades por producto. Declara la tabla products para que
+     * Hibernate invalide solo esa región del caché de segundo nivel.
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "products"))
+    @Query(value = "UPDATE products p SET stock = p.stock + s.cantidad FROM " +
+                   "(SELECT product_id, SUM(cantidad) AS cantidad FROM order_items " +
+                   "WHERE order_id IN (:orderIds) GROUP BY product_id) s " +
+                   "WHERE p.id = s.product_id",
+           nativeQuery = true)
+    int restoreStockOfOrders(@Param("orderIds") Collection<Long> orderIds);
+
+    /**
+     * Ajusta de forma atómica los agregados de reseñas del producto.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Product p SET p.reviewCount = p.reviewCount + :countDelta, " +
+           "p.ratingSum = p.ratingSum + :ratingDelta WHERE p.id = :id")
+    int adjustRatingStats(@Param("id") Long id,
+                          @Param("countDelta") int countDelta,
+                          @Param("ratingDelta") long ratingDelta);
+
     /**
-     * Bloquea el producto para evitar race conditions al actualizar stock.
+     * Recalcula los agregados de reseñas desde la tabla reviews, solo en los productos
+     * cuyos valores no coinciden: volver a ejecutarlo no modifica ninguna fila.
+     *
+     * @return cantidad de productos corregidos
      */
-    @Lock(LockModeType.PESSIMISTIC_WRITE)
-    @Query("SELECT p FROM Product p WHERE p.id = :id")
-    Optional<Product> findByIdWithLock(@Param("id") Long id);
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "products"))
+    @Query(value = "UPDATE products p SET review_count = s.review_count, rating_sum = s.rating_sum FROM " +
+                   "(SELECT pr.id, COUNT(r.id) AS review_count, COALESCE(SUM(r.rating), 0) AS rating_sum " +
+                   "FROM products pr LEFT JOIN reviews r ON r.product_id = pr.id GROUP BY pr.id) s " +
+                   "WHERE p.id = s.id AND (p.review_count IS DISTINCT FROM s.review_count " +
+                   "OR p.rating_sum IS DISTINCT FROM s.rating_sum)",
+           nativeQuery = true)
+    int backfillRatingStats();
 }
@@ -0,0 +1,28 @@
+package com.laptophub.backend.repository;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Operaciones de stock por JDBC en lote, sin cargar ni bloquear entidades.
+ * Deben ejecutarse dentro de la transacción del llamador.
+ */
+public interface ProductRepositoryCustom {
+
+    /**
+     * Descuenta el stock de cada producto solo si alcanza, en un único batch de
+     * {@code UPDATE ... WHERE stock >= ?}.
+     *
+     * @param quantities productId -> cantidad a descontar
+     * @return ids de los productos sin stock suficiente (vacía si todo se reservó).
+     *         Si no está vacía, el llamador debe revertir la transacción.
+     */
+    List<Long> reserveStock(Map<Long, Integer> quantities);
+
+    /**
+     * Devuelve stock a los productos en un único batch.
+     *
+     * @param quantities productId -> cantidad a sumar
+     */
+    void releaseStock(Map<Long, Integer> quantities);
+}
@@ -0,0 +1,59 @@
+package com.laptophub.backend.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+public class ProductRepositoryCustomImpl implements ProductRepositoryCustom {
+
+    private static final String RESERVE_SQL =
+            "UPDATE products SET stock = stock - ? WHERE id = ? AND stock >= ?";
+    private static final String RELEASE_SQL =
+            "UPDATE products SET stock = stock + ? WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final CatalogCache catalogCache;
+
+    public ProductRepositoryCustomImpl(JdbcTemplate jdbcTemplate, CatalogCache catalogCache) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.catalogCache = catalogCache;
+    }
+
+    @Override
+    public List<Long> reserveStock(Map<Long, Integer> quantities) {
+        // Orden por id: dos checkouts con los mismos productos bloquean filas en el mismo orden
+        List<Map.Entry<Long, Integer>> items = new ArrayList<>(new TreeMap<>(quantities).entrySet());
+        int[][] counts = jdbcTemplate.batchUpdate(RESERVE_SQL, items, items.size(), (ps, item) -> {
+            ps.setInt(1, item.getValue());
+            ps.setLong(2, item.getKey());
+            ps.setInt(3, item.getValue());
+        });
+        // El UPDATE no pasa por Hibernate: el stock cacheado queda viejo
+        catalogCache.evictProducts(quantities.keySet());
+
+        List<Long> failed = new ArrayList<>();
+        int index = 0;
+        for (int[] batch : counts) {
+            for (int count : batch) {
+                if (count == 0) {
+                    failed.add(items.get(index).getKey());
+                }
+                index++;
+            }
+        }
+        return failed;
+    }
+
+    @Override
+    public void releaseStock(Map<Long, Integer> quantities) {
+        List<Map.Entry<Long, Integer>> items = new ArrayList<>(new TreeMap<>(quantities).entrySet());
+        jdbcTemplate.batchUpdate(RELEASE_SQL, items, items.size(), (ps, item) -> {
+            ps.setInt(1, item.getValue());
+            ps.setLong(2, item.getKey());
+        });
+        catalogCache.evictProducts(quantities.keySet());
+    }
+}
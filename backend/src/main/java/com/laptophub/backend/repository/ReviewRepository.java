@@ -5,9 +5,13 @@ import com.laptophub.backend.model.Product;
 import com.laptophub.backend.model.User;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -15,5 +19,15 @@ import java.util.Optional;
 public interface ReviewRepository extends JpaRepository<Review, Long> {
     Page<Review> findByProduct(Product product, Pageable pageable);
     List<Review> findByProduct(Product product);
+    @EntityGraph(attributePaths = {"user", "product"})
+    List<Review> findByIdIn(Collection<Long> ids);
     Optional<Review> findByProductAndUser(Product product, User user);
+
+    /**
+     * Bloquea las escrituras de reseñas hasta el fin de la transacción (las lecturas
+     * siguen): las que estaban en curso confirman antes, con sus ajustes de agregados.
+     */
+    @Modifying
+    @Query(value = "LOCK TABLE reviews IN SHARE MODE", nativeQuery = true)
+    void lockAgainstWrites();
 }
@@ -0,0 +1,187 @@
+package com.laptophub.backend.scheduling;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Timing wheel jerárquico (estilo Varghese/Lauck) para millones de timers por clave.
+ *
+ * - Nivel 0: 64 slots de un tick; el nivel N cubre 64^(N+1) ticks
+ * - schedule y cancel son O(1): cada timer es un nodo de una lista doblemente
+ *   enlazada y se ubica por clave en un HashMap
+ * - Al dar la vuelta un nivel, su siguiente slot del nivel superior se reparte
+ *   ("cascade") en los niveles inferiores
+ * - Los plazos más allá del último nivel se estacionan en el slot más lejano y
+ *   se reubican en cada cascada
+ *
+ * No crea hilos: el dueño llama a {@link #advance(long)} periódicamente.
+ */
+public class HierarchicalTimingWheel<K> {
+
+    private static final int WHEEL_BITS = 6;
+    private static final int WHEEL_SIZE = 1 << WHEEL_BITS;
+    private static final int WHEEL_MASK = WHEEL_SIZE - 1;
+
+    private final long tickMillis;
+    private final int levels;
+    private final long maxDelta;
+    private final Node<K>[][] wheels;
+    private final Map<K, Node<K>> timers = new HashMap<>();
+
+    // Último tick procesado
+    private long currentTick;
+
+    @SuppressWarnings("unchecked")
+    public HierarchicalTimingWheel(long tickMillis, int levels, long startMillis) {
+        if (tickMillis <= 0 || levels <= 0 || levels * WHEEL_BITS >= 63) {
+            throw new IllegalArgumentException("Configuración de timing wheel inválida");
+        }
+        this.tickMillis = tickMillis;
+        this.levels = levels;
+        this.maxDelta = (1L << (levels * WHEEL_BITS)) - 1;
+        this.wheels = new Node[levels][WHEEL_SIZE];
+        for (int level = 0; level < levels; level++) {
+            for (int slot = 0; slot < WHEEL_SIZE; slot++) {
+                wheels[level][slot] = Node.sentinel();
+            }
+        }
+        this.currentTick = startMillis / tickMillis;
+    }
+
+    /**
+     * Programa (o reprograma) el timer de la clave. Un plazo ya vencido dispara en el próximo tick.
+     */
+    public synchronized void schedule(K key, long deadlineMillis) {
+        cancel(key);
+        long deadlineTick = Math.max(Math.ceilDiv(deadlineMillis, tickMillis), currentTick + 1);
+        Node<K> node = new Node<>(key, deadlineTick);
+        timers.put(key, node);
+        place(node, currentTick + 1);
+    }
+
+    /**
+     * @return true si la clave tenía un timer pendiente
+     */
+    public synchronized boolean cancel(K key) {
+        Node<K> node = timers.remove(key);
+        if (node == null) {
+            return false;
+        }
+        node.unlink();
+        return true;
+    }
+
+    public synchronized int size() {
+        return timers.size();
+    }
+
+    /**
+     * Procesa todos los ticks hasta {@code nowMillis} y devuelve las claves vencidas.
+     */
+    public synchronized List<K> advance(long nowMillis) {
+        long targetTick = nowMillis / tickMillis;
+        List<K> expired = new ArrayList<>();
+        while (currentTick < targetTick) {
+            long tick = currentTick + 1;
+            cascade(tick);
+
+            // Se separa la lista del slot: un nodo reubicado puede volver a este mismo slot
+            Node<K> head = wheels[0][(int) (tick & WHEEL_MASK)];
+            Node<K> node = head.next;
+            head.next = head;
+            head.prev = head;
+            while (node != head) {
+                Node<K> next = node.next;
+                node.prev = null;
+                node.next = null;
+                if (node.deadlineTick > tick) {
+                    // Plazo estacionado más allá del último nivel: todavía no vence
+                    place(node, tick + 1);
+                } else {
+                    timers.remove(node.key);
+                    expired.add(node.key);
+                }
+                node = next;
+            }
+            currentTick = tick;
+        }
+        return expired;
+    }
+
+    /**
+     * Cuando el nivel N-1 completa una vuelta en {@code tick}, reparte el slot
+     * correspondiente del nivel N en los niveles inferiores.
+     */
+    private void cascade(long tick) {
+        for (int level = 1; level < levels; level++) {
+            if (((tick >> ((level - 1) * WHEEL_BITS)) & WHEEL_MASK) != 0) {
+                return;
+            }
+            Node<K> head = wheels[level][(int) ((tick >> (level * WHEEL_BITS)) & WHEEL_MASK)];
+            Node<K> node = head.next;
+            head.next = head;
+            head.prev = head;
+            while (node != head) {
+                Node<K> next = node.next;
+                place(node, tick);
+                node = next;
+            }
+        }
+    }
+
+    /**
+     * Ubica el nodo relativo a {@code nextTick}, el próximo tick que se procesará.
+     */
+    private void place(Node<K> node, long nextTick) {
+        long delta = node.deadlineTick - nextTick;
+        long slotTick = node.deadlineTick;
+        if (delta > maxDelta) {
+            delta = maxDelta;
+            slotTick = nextTick + maxDelta;
+        }
+
+        int level = 0;
+        while (level < levels - 1 && delta >= (1L << ((level + 1) * WHEEL_BITS))) {
+            level++;
+        }
+        int slot = (int) ((slotTick >> (level * WHEEL_BITS)) & WHEEL_MASK);
+        node.linkBefore(wheels[level][slot]);
+    }
+
+    private static final class Node<K> {
+        private final K key;
+        private final long deadlineTick;
+        private Node<K> prev;
+        private Node<K> next;
+
+        private Node(K key, long deadlineTick) {
+            this.key = key;
+            this.deadlineTick = deadlineTick;
+        }
+
+        private static <K> Node<K> sentinel() {
+            Node<K> head = new Node<>(null, -1);
+            head.prev = head;
+            head.next = head;
+            return head;
+        }
+
+        private void linkBefore(Node<K> head) {
+            prev = head.prev;
+            next = head;
+            head.prev.next = this;
+            head.prev = this;
+        }
+
+        private void unlink() {
+            if (prev != null) {
+                prev.next = next;
+                next.prev = prev;
+                prev = null;
+                next = null;
+            }
+        }
+    }
+}
@@ -0,0 +1,350 @@
+package com.laptophub.backend.search;
+
+import com.laptophub.backend.exception.ValidationException;
+import com.laptophub.backend.model.Product;
+import com.laptophub.backend.repository.ProductRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Motor de filtrado facetado en memoria sobre las especificaciones de los productos.
+ *
+ * Cada producto recibe un ordinal y, por cada atributo, se mantiene un bitmap
+ * por valor con los ordinales que lo tienen. Los valores de un mismo atributo
+ * se combinan con OR y los atributos entre sí con AND. Los conteos de cada faceta
+ * se calculan aplicando todos los filtros excepto el del propio atributo.
+ *
+ * Los ordinales de productos eliminados se reutilizan, así los bitmaps y el arreglo
+ * de precios no crecen más allá del máximo de productos vivos.
+ *
+ * Los cambios que llegan mientras se lee la BD para reconstruirlo se guardan y se
+ * vuelven a aplicar sobre el índice nuevo.
+ */
+@Component
+public class ProductFacetIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductFacetIndex.class);
+
+    public static final String MARCA = "marca";
+    public static final String RAM = "ram";
+    public static final String ALMACENAMIENTO = "almacenamiento";
+    public static final String GPU = "gpu";
+    public static final String PROCESADOR = "procesador";
+    public static final List<String> ATTRIBUTES = List.of(MARCA, RAM, ALMACENAMIENTO, GPU, PROCESADOR);
+    public static final Set<String> SORTABLE = Set.of("id", "precio");
+
+    private static final int REBUILD_BATCH_SIZE = 500;
+
+    private final ProductRepository productRepository;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<Long, Integer> ordinals = new HashMap<>();
+    // ordinal -> productId (null si el ordinal está libre)
+    private final List<Long> productIds = new ArrayList<>();
+    private final BitSet live = new BitSet();
+    private final BitSet freeOrdinals = new BitSet();
+    // atributo -> valor -> ordinales
+    private final Map<String, Map<String, BitSet>> bitmaps = new HashMap<>();
+    // ordinal -> precio en centavos
+    private long[] prices = new long[1024];
+    // productId -> producto (null si se eliminó) recibido durante una reconstrucción
+    private Map<Long, Product> pendingDuringRebuild;
+    private volatile boolean ready;
+
+    public ProductFacetIndex(ProductRepository productRepository) {
+        this.productRepository = productRepository;
+    }
+
+    /**
+     * Criterios de filtrado. Un atributo ausente o sin valores no filtra.
+     */
+    public record Filter(Map<String, Set<String>> attributes, BigDecimal precioMin, BigDecimal precioMax) {
+    }
+
+    public record FilterResult(List<Long> productIds, long total, Map<String, Map<String, Integer>> facets) {
+    }
+
+    /**
+     * Reconstruye el índice desde la BD. Las escrituras que llegan durante la lectura
+     * se aplican después sobre el índice nuevo.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        lock.writeLock().lock();
+        try {
+            pendingDuringRebuild = new HashMap<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        List<Product> products = new ArrayList<>();
+        try {
+            int pageNumber = 0;
+            Page<Product> page;
+            do {
+                page = productRepository.findAll(PageRequest.of(pageNumber++, REBUILD_BATCH_SIZE, Sort.by("id")));
+                products.addAll(page.getContent());
+            } while (page.hasNext());
+        } catch (RuntimeException e) {
+            lock.writeLock().lock();
+            try {
+                pendingDuringRebuild = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            throw e;
+        }
+
+        lock.writeLock().lock();
+        try {
+            ordinals.clear();
+            productIds.clear();
+            live.clear();
+            freeOrdinals.clear();
+            bitmaps.clear();
+            prices = new long[Math.max(1024, products.size())];
+            products.forEach(this::addProduct);
+            pendingDuringRebuild.forEach((id, product) -> {
+                if (product != null) {
+                    upsertProduct(product);
+                } else {
+                    removeProduct(id);
+                }
+            });
+            pendingDuringRebuild = null;
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Índice de facetas construido con {} productos", live.cardinality());
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Inserta o actualiza un producto. Un producto existente conserva su ordinal.
+     */
+    public void upsert(Product product) {
+        lock.writeLock().lock();
+        try {
+            upsertProduct(product);
+            if (pendingDuringRebuild != null) {
+                pendingDuringRebuild.put(product.getId(), product);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long productId) {
+        lock.writeLock().lock();
+        try {
+            removeProduct(productId);
+            if (pendingDuringRebuild != null) {
+                pendingDuringRebuild.put(productId, null);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Evalúa el filtro y devuelve la página de ids, ordenada por id o por precio,
+     * junto con los conteos de cada valor de cada atributo.
+     *
+     * @throws ValidationException si se pide ordenar por más de una propiedad o por
+     *                             una propiedad distinta de id y precio
+     */
+    public FilterResult filter(Filter filter, Sort sort, long offset, int limit) {
+        Comparator<Integer> order = comparator(sort);
+        lock.readLock().lock();
+        try {
+            BitSet base = (BitSet) live.clone();
+            applyPriceRange(base, filter.precioMin(), filter.precioMax());
+
+            Map<String, BitSet> selections = new HashMap<>();
+            for (String attribute : ATTRIBUTES) {
+                Set<String> values = filter.attributes().get(attribute);
+                if (values != null && !values.isEmpty()) {
+                    selections.put(attribute, union(attribute, values));
+                }
+            }
+
+            BitSet matches = (BitSet) base.clone();
+            selections.values().forEach(matches::and);
+
+            // Un solo BitSet de trabajo para todos los conteos de la petición
+            BitSet others = new BitSet();
+            BitSet scratch = new BitSet();
+            Map<String, Map<String, Integer>> facets = new LinkedHashMap<>();
+            for (String attribute : ATTRIBUTES) {
+                others.clear();
+                others.or(base);
+                selections.forEach((name, selection) -> {
+                    if (!name.equals(attribute)) {
+                        others.and(selection);
+                    }
+                });
+                facets.put(attribute, countValues(attribute, others, scratch));
+            }
+
+            List<Integer> matching = new ArrayList<>(matches.cardinality());
+            for (int i = matches.nextSetBit(0); i >= 0; i = matches.nextSetBit(i + 1)) {
+                matching.add(i);
+            }
+            matching.sort(order);
+
+            List<Long> pageIds = new ArrayList<>(limit);
+            for (long i = offset; i < matching.size() && pageIds.size() < limit; i++) {
+                pageIds.add(productIds.get(matching.get((int) i)));
+            }
+            return new FilterResult(pageIds, matching.size(), facets);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Orden de los ordinales según el Sort pedido; sin Sort, por id ascendente.
+     * Los empates de precio se desempatan por id.
+     */
+    private Comparator<Integer> comparator(Sort sort) {
+        List<Sort.Order> orders = sort.toList();
+        if (orders.size() > 1) {
+            throw new ValidationException("Los filtros solo admiten ordenar por una propiedad");
+        }
+        Sort.Order order = orders.isEmpty() ? Sort.Order.asc("id") : orders.get(0);
+        if (!SORTABLE.contains(order.getProperty())) {
+            throw new ValidationException("No se puede ordenar por '" + order.getProperty()
+                    + "' en los filtros. Permitidos: " + String.join(", ", SORTABLE));
+        }
+
+        Comparator<Integer> byId = Comparator.comparing(productIds::get);
+        Comparator<Integer> comparator = "precio".equals(order.getProperty())
+                ? Comparator.<Integer>comparingLong(ordinal -> prices[ordinal]).thenComparing(byId)
+                : byId;
+        return order.isAscending() ? comparator : comparator.reversed();
+    }
+
+    private BitSet union(String attribute, Set<String> values) {
+        BitSet result = new BitSet();
+        Map<String, BitSet> byValue = bitmaps.getOrDefault(attribute, Map.of());
+        for (String value : values) {
+            BitSet bits = byValue.get(value);
+            if (bits != null) {
+                result.or(bits);
+            }
+        }
+        return result;
+    }
+
+    private Map<String, Integer> countValues(String attribute, BitSet candidates, BitSet scratch) {
+        Map<String, Integer> counts = new TreeMap<>();
+        for (Map.Entry<String, BitSet> entry : bitmaps.getOrDefault(attribute, Map.of()).entrySet()) {
+            scratch.clear();
+            scratch.or(entry.getValue());
+            scratch.and(candidates);
+            int count = scratch.cardinality();
+            if (count > 0) {
+                counts.put(entry.getKey(), count);
+            }
+        }
+        return counts;
+    }
+
+    private void applyPriceRange(BitSet candidates, BigDecimal min, BigDecimal max) {
+        if (min == null && max == null) {
+            return;
+        }
+        long minCents = min != null ? toCents(min) : Long.MIN_VALUE;
+        long maxCents = max != null ? toCents(max) : Long.MAX_VALUE;
+        for (int i = candidates.nextSetBit(0); i >= 0; i = candidates.nextSetBit(i + 1)) {
+            if (prices[i] < minCents || prices[i] > maxCents) {
+                candidates.clear(i);
+            }
+        }
+    }
+
+    private void upsertProduct(Product product) {
+        Integer ordinal = ordinals.get(product.getId());
+        if (ordinal != null) {
+            clearOrdinal(ordinal);
+        }
+        addProduct(product);
+    }
+
+    private void removeProduct(Long productId) {
+        Integer ordinal = ordinals.remove(productId);
+        if (ordinal != null) {
+            clearOrdinal(ordinal);
+            productIds.set(ordinal, null);
+            freeOrdinals.set(ordinal);
+        }
+    }
+
+    private void addProduct(Product product) {
+        Integer ordinal = ordinals.get(product.getId());
+        if (ordinal == null) {
+            ordinal = freeOrdinals.nextSetBit(0);
+            if (ordinal >= 0) {
+                freeOrdinals.clear(ordinal);
+                productIds.set(ordinal, product.getId());
+            } else {
+                ordinal = productIds.size();
+                productIds.add(product.getId());
+                if (ordinal >= prices.length) {
+                    prices = Arrays.copyOf(prices, prices.length * 2);
+                }
+            }
+            ordinals.put(product.getId(), ordinal);
+        }
+
+        live.set(ordinal);
+        prices[ordinal] = product.getPrecio() != null ? toCents(product.getPrecio()) : 0;
+        setValue(MARCA, product.getMarca(), ordinal);
+        setValue(RAM, product.getRam(), ordinal);
+        setValue(ALMACENAMIENTO, product.getAlmacenamiento(), ordinal);
+        setValue(GPU, product.getGpu(), ordinal);
+        setValue(PROCESADOR, product.getProcesador(), ordinal);
+    }
+
+    private void setValue(String attribute, Object value, int ordinal) {
+        if (value == null) {
+            return;
+        }
+        bitmaps.computeIfAbsent(attribute, k -> new HashMap<>())
+                .computeIfAbsent(value.toString(), k -> new BitSet())
+                .set(ordinal);
+    }
+
+    private void clearOrdinal(int ordinal) {
+        live.clear(ordinal);
+        for (Map<String, BitSet> byValue : bitmaps.values()) {
+            Iterator<BitSet> iterator = byValue.values().iterator();
+            while (iterator.hasNext()) {
+                BitSet bits = iterator.next();
+                bits.clear(ordinal);
+                if (bits.isEmpty()) {
+                    iterator.remove();
+                }
+            }
+        }
+    }
+
+    private static long toCents(BigDecimal value) {
+        return value.movePointRight(2).longValue();
+    }
+}
@@ -0,0 +1,63 @@
+package com.laptophub.backend.search;
+
+import com.laptophub.backend.model.Product;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Mantiene ProductSearchIndex y ProductFacetIndex al día con cualquier escritura de
+ * Product hecha por JPA, venga del servicio que venga.
+ *
+ * Los UPDATE por JDBC/JPQL de ProductRepository (stock, reseñas) no pasan por aquí:
+ * solo tocan columnas que los índices no usan.
+ */
+@Component
+public class ProductIndexListener {
+
+    private final ProductSearchIndex searchIndex;
+    private final ProductFacetIndex facetIndex;
+
+    public ProductIndexListener(ProductSearchIndex searchIndex, ProductFacetIndex facetIndex) {
+        this.searchIndex = searchIndex;
+        this.facetIndex = facetIndex;
+    }
+
+    @PostPersist
+    @PostUpdate
+    public void onSave(Product product) {
+        afterCommit(() -> {
+            searchIndex.upsert(product);
+            facetIndex.upsert(product);
+        });
+    }
+
+    @PostRemove
+    public void onRemove(Product product) {
+        Long id = product.getId();
+        afterCommit(() -> {
+            searchIndex.remove(id);
+            facetIndex.remove(id);
+        });
+    }
+
+    /**
+     * Ejecuta la acción solo cuando la transacción actual confirma,
+     * para que los índices en memoria no reflejen cambios revertidos.
+     */
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
@@ -0,0 +1,300 @@
+package com.laptophub.backend.search;
+
+import com.laptophub.backend.model.Product;
+import com.laptophub.backend.repository.ProductRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+
+import java.text.Normalizer;
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * Índice invertido en memoria sobre nombre, marca, procesador, gpu y descripción.
+ *
+ * - Tokeniza en minúsculas y sin acentos ("Pantalla Táctil" -> "pantalla", "tactil")
+ * - Todos los términos de la consulta deben aparecer; el último se trata como prefijo
+ * - Ordena por BM25 con pesos por campo
+ *
+ * Se construye al arrancar desde ProductRepository y ProductIndexListener lo mantiene
+ * actualizado tras cada commit. Los cambios que llegan mientras se lee la BD para
+ * reconstruirlo se guardan y se vuelven a aplicar sobre el índice nuevo.
+ */
+@Component
+public class ProductSearchIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductSearchIndex.class);
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final int REBUILD_BATCH_SIZE = 500;
+
+    // Parámetros BM25 estándar
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    // Peso de cada campo: un término en el nombre cuenta más que en la descripción
+    private static final int NOMBRE_BOOST = 3;
+    private static final int MARCA_BOOST = 2;
+    private static final int SPECS_BOOST = 2;
+    private static final int DESCRIPCION_BOOST = 1;
+
+    private final ProductRepository productRepository;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // término -> (productId -> frecuencia ponderada)
+    private final NavigableMap<String, Map<Long, Integer>> postings = new TreeMap<>();
+    // productId -> términos indexados (para poder eliminar el documento)
+    private final Map<Long, Map<String, Integer>> documents = new HashMap<>();
+    // productId -> longitud ponderada del documento
+    private final Map<Long, Integer> lengths = new HashMap<>();
+    private long totalLength;
+    // productId -> términos (null si se eliminó) recibidos durante una reconstrucción
+    private Map<Long, Map<String, Integer>> pendingDuringRebuild;
+    private volatile boolean ready;
+
+    public ProductSearchIndex(ProductRepository productRepository) {
+        this.productRepository = productRepository;
+    }
+
+    public record SearchResult(List<Long> productIds, long total) {
+    }
+
+    /**
+     * Reconstruye el índice completo leyendo los productos por lotes. Las escrituras
+     * que llegan durante la lectura se aplican después sobre el índice nuevo, porque
+     * la página que las contenía puede haberse leído antes del commit.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        lock.writeLock().lock();
+        try {
+            pendingDuringRebuild = new HashMap<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        Map<Long, Map<String, Integer>> fresh = new HashMap<>();
+        try {
+            int pageNumber = 0;
+            Page<Product> page;
+            do {
+                page = productRepository.findAll(PageRequest.of(pageNumber++, REBUILD_BATCH_SIZE, Sort.by("id")));
+                for (Product product : page.getContent()) {
+                    fresh.put(product.getId(), termFrequencies(product));
+                }
+            } while (page.hasNext());
+        } catch (RuntimeException e) {
+            lock.writeLock().lock();
+            try {
+                pendingDuringRebuild = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            throw e;
+        }
+
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            documents.clear();
+            lengths.clear();
+            totalLength = 0;
+            fresh.forEach(this::addDocument);
+            pendingDuringRebuild.forEach((id, terms) -> {
+                removeDocument(id);
+                if (terms != null) {
+                    addDocument(id, terms);
+                }
+            });
+            pendingDuringRebuild = null;
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Índice de búsqueda construido con {} productos", documents.size());
+    }
+
+    /**
+     * Indica si el índice ya fue construido; antes de eso las búsquedas deben ir a la BD.
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Inserta o reemplaza un producto en el índice.
+     */
+    public void upsert(Product product) {
+        Long id = product.getId();
+        Map<String, Integer> terms = termFrequencies(product);
+        lock.writeLock().lock();
+        try {
+            removeDocument(id);
+            addDocument(id, terms);
+            if (pendingDuringRebuild != null) {
+                pendingDuringRebuild.put(id, terms);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long productId) {
+        lock.writeLock().lock();
+        try {
+            removeDocument(productId);
+            if (pendingDuringRebuild != null) {
+                pendingDuringRebuild.put(productId, null);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Busca productos cuyo texto contenga todos los términos de la consulta
+     * y devuelve la página solicitada de ids ordenados por relevancia.
+     */
+    public SearchResult search(String query, long offset, int limit) {
+        List<String> tokens = tokenize(query);
+        if (tokens.isEmpty()) {
+            return new SearchResult(List.of(), 0);
+        }
+
+        lock.readLock().lock();
+        try {
+            int docCount = documents.size();
+            if (docCount == 0) {
+                return new SearchResult(List.of(), 0);
+            }
+            double avgLength = (double) totalLength / docCount;
+
+            Map<Long, Double> scores = null;
+            for (int t = 0; t < tokens.size(); t++) {
+                boolean prefix = t == tokens.size() - 1;
+                Map<Long, Double> termScores = scoreTerm(tokens.get(t), prefix, docCount, avgLength);
+                if (scores == null) {
+                    scores = termScores;
+                } else {
+                    Map<Long, Double> previous = scores;
+                    scores = new HashMap<>();
+                    for (Map.Entry<Long, Double> entry : termScores.entrySet()) {
+                        Double score = previous.get(entry.getKey());
+                        if (score != null) {
+                            scores.put(entry.getKey(), score + entry.getValue());
+                        }
+                    }
+                }
+                if (scores.isEmpty()) {
+                    return new SearchResult(List.of(), 0);
+                }
+            }
+
+            List<Map.Entry<Long, Double>> ranked = new ArrayList<>(scores.entrySet());
+            ranked.sort(Map.Entry.<Long, Double>comparingByValue().reversed()
+                    .thenComparing(Map.Entry.comparingByKey()));
+
+            List<Long> pageIds = new ArrayList<>(Math.min(limit, ranked.size()));
+            for (long i = offset; i < ranked.size() && pageIds.size() < limit; i++) {
+                pageIds.add(ranked.get((int) i).getKey());
+            }
+            return new SearchResult(pageIds, ranked.size());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Puntúa un término (o todos los términos con ese prefijo) con BM25.
+     * Para un prefijo se toma el mejor término por documento.
+     */
+    private Map<Long, Double> scoreTerm(String token, boolean prefix, int docCount, double avgLength) {
+        Map<String, Map<Long, Integer>> matching = prefix
+                ? postings.subMap(token, true, token + Character.MAX_VALUE, false)
+                : postings.containsKey(token) ? Map.of(token, postings.get(token)) : Map.of();
+
+        Map<Long, Double> scores = new HashMap<>();
+        for (Map<Long, Integer> docs : matching.values()) {
+            double idf = Math.log(1 + (docCount - docs.size() + 0.5) / (docs.size() + 0.5));
+            for (Map.Entry<Long, Integer> posting : docs.entrySet()) {
+                int length = lengths.get(posting.getKey());
+                double tf = posting.getValue();
+                double score = idf * (tf * (K1 + 1)) / (tf + K1 * (1 - B + B * length / avgLength));
+                scores.merge(posting.getKey(), score, Math::max);
+            }
+        }
+        return scores;
+    }
+
+    private void addDocument(Long id, Map<String, Integer> terms) {
+        documents.put(id, terms);
+        int length = 0;
+        for (Map.Entry<String, Integer> term : terms.entrySet()) {
+            postings.computeIfAbsent(term.getKey(), k -> new HashMap<>()).put(id, term.getValue());
+            length += term.getValue();
+        }
+        lengths.put(id, length);
+        totalLength += length;
+    }
+
+    private void removeDocument(Long id) {
+        Map<String, Integer> terms = documents.remove(id);
+        if (terms == null) {
+            return;
+        }
+        totalLength -= lengths.remove(id);
+        for (Map.Entry<String, Integer> term : terms.entrySet()) {
+            Map<Long, Integer> docs = postings.get(term.getKey());
+            if (docs != null) {
+                docs.remove(id);
+                if (docs.isEmpty()) {
+                    postings.remove(term.getKey());
+                }
+            }
+        }
+    }
+
+    private Map<String, Integer> termFrequencies(Product product) {
+        Map<String, Integer> terms = new HashMap<>();
+        addField(terms, product.getNombre(), NOMBRE_BOOST);
+        addField(terms, product.getMarca(), MARCA_BOOST);
+        addField(terms, product.getProcesador(), SPECS_BOOST);
+        addField(terms, product.getGpu(), SPECS_BOOST);
+        addField(terms, product.getDescripcion(), DESCRIPCION_BOOST);
+        return terms;
+    }
+
+    private void addField(Map<String, Integer> terms, String value, int boost) {
+        for (String token : tokenize(value)) {
+            terms.merge(token, boost, Integer::sum);
+        }
+    }
+
+    /**
+     * Separa el texto en términos en minúsculas y sin acentos.
+     */
+    public static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        String folded = DIACRITICS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD))
+                .replaceAll("")
+                .toLowerCase(Locale.ROOT);
+        List<String> tokens = new ArrayList<>();
+        for (String token : SEPARATORS.split(folded)) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+}
@@ -0,0 +1,182 @@
+package com.laptophub.backend.security;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.laptophub.backend.config.RateLimitProperties;
+import com.laptophub.backend.exception.ApiResponse;
+import com.laptophub.backend.metrics.MetricsSource;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.PathContainer;
+import org.springframework.lang.NonNull;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Rate limiting y control de admisión para /api/**.
+ *
+ * - Cada request toma una ficha del bucket de la primera política que coincide,
+ *   por usuario autenticado o, si no hay token, por IP
+ * - Un semáforo no bloqueante limita los requests en curso para no agotar el pool
+ *   de conexiones: el excedente se rechaza en vez de encolarse
+ *
+ * Ambos rechazos responden 429 con Retry-After. Va después de JwtAuthenticationFilter
+ * para conocer al usuario.
+ */
+@Component
+public class ApiRateLimitFilter extends OncePerRequestFilter implements MetricsSource {
+
+    private static final int STRIPES = 64;
+
+    private final boolean enabled;
+    private final List<RoutePolicy> policies;
+    private final int maxInFlight;
+    private final Semaphore inFlight;
+    private final ClientIpResolver clientIpResolver;
+    private final ObjectMapper objectMapper;
+
+    private final AtomicLong shed = new AtomicLong();
+
+    public ApiRateLimitFilter(RateLimitProperties properties, ClientIpResolver clientIpResolver, ObjectMapper objectMapper) {
+        this.enabled = properties.isEnabled();
+        this.policies = properties.getPolicies().stream()
+                .map(policy -> new RoutePolicy(
+                        policy.getName(),
+                        PathPatternParser.defaultInstance.parse(policy.getPattern()),
+                        policy.getMethods().stream().map(String::toUpperCase).collect(Collectors.toSet()),
+                        new BoundedBucketStore(policy.getCapacity(), policy.getRefillPeriod(),
+                                properties.getMaxKeysPerPolicy(), STRIPES),
+                        new AtomicLong()))
+                .toList();
+        this.maxInFlight = properties.getMaxInFlight();
+        this.inFlight = new Semaphore(maxInFlight);
+        this.clientIpResolver = clientIpResolver;
+        this.objectMapper = objectMapper;
+    }
+
+    private record RoutePolicy(String name, PathPattern pattern, Set<String> methods,
+                               BoundedBucketStore store, AtomicLong limited) {
+
+        boolean matches(String method, PathContainer path) {
+            return (methods.isEmpty() || methods.contains(method)) && pattern.matches(path);
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        return !enabled
+                || "OPTIONS".equals(request.getMethod())
+                || !request.getRequestURI().startsWith("/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(
+            @NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain
+    ) throws ServletException, IOException {
+        RoutePolicy policy = match(request);
+        if (policy != null) {
+            long waitMillis = policy.store().tryConsumeAndGetWaitMillis(key(request));
+            if (waitMillis > 0) {
+                policy.limited().incrementAndGet();
+                reject(request, response, waitMillis,
+                        "Demasiadas solicitudes. Por favor, espera antes de volver a intentar.");
+                return;
+            }
+        }
+
+        if (!inFlight.tryAcquire()) {
+            shed.incrementAndGet();
+            reject(request, response, 1000, "Servidor saturado. Por favor, vuelve a intentar en unos segundos.");
+            return;
+        }
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            inFlight.release();
+        }
+    }
+
+    private RoutePolicy match(HttpServletRequest request) {
+        PathContainer path = PathContainer.parsePath(request.getRequestURI());
+        String method = request.getMethod();
+        for (RoutePolicy policy : policies) {
+            if (policy.matches(method, path)) {
+                return policy;
+            }
+        }
+        return null;
+    }
+
+    private String key(HttpServletRequest request) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.isAuthenticated()
+                && !(authentication instanceof AnonymousAuthenticationToken)) {
+            return "user:" + authentication.getName();
+        }
+        return "ip:" + clientIpResolver.resolve(request);
+    }
+
+    private void reject(HttpServletRequest request, HttpServletResponse response, long waitMillis, String message)
+            throws IOException {
+        response.setStatus(429);
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, Math.ceilDiv(waitMillis, 1000L))));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding("UTF-8");
+        objectMapper.writeValue(response.getWriter(), ApiResponse.builder()
+                .success(false)
+                .message(message)
+                .timestamp(LocalDateTime.now())
+                .path(request.getRequestURI())
+                .build());
+    }
+
+    /**
+     * Descarta periódicamente los buckets ya recargados de todas las políticas.
+     */
+    @Scheduled(fixedDelayString = "${security.rate-limit.sweep-interval-ms:60000}")
+    public void evictRefilled() {
+        policies.forEach(policy -> policy.store().evictRefilled());
+    }
+
+    @Override
+    public String metricsName() {
+        return "apiRateLimit";
+    }
+
+    @Override
+    public Map<String, Object> metrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("enabled", enabled);
+        metrics.put("inFlight", maxInFlight - inFlight.availablePermits());
+        metrics.put("shed", shed.get());
+        for (RoutePolicy policy : policies) {
+            Map<String, Object> policyMetrics = new LinkedHashMap<>();
+            policyMetrics.put("keys", policy.store().size());
+            policyMetrics.put("limited", policy.limited().get());
+            policyMetrics.put("overflow", policy.store().overflowCount());
+            metrics.put(policy.name(), policyMetrics);
+        }
+        return metrics;
+    }
+}
@@ -0,0 +1,31 @@
+package com.laptophub.backend.security;
+
+import com.laptophub.backend.model.Role;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Principal del login: los datos del usuario que necesita AuthController para emitir
+ * el token, leídos en la misma consulta que valida la contraseña. No guarda el hash.
+ */
+public record AuthenticatedUser(UUID id, String email, Role role) implements UserDetails {
+
+    @Override
+    public List<GrantedAuthority> getAuthorities() {
+        return List.of(new SimpleGrantedAuthority("ROLE_" + role.name()));
+    }
+
+    @Override
+    public String getPassword() {
+        return null;
+    }
+
+    @Override
+    public String getUsername() {
+        return email;
+    }
+}
@@ -0,0 +1,181 @@
+package com.laptophub.backend.security;
+
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.Bucket;
+import io.github.bucket4j.ConsumptionProbe;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Buckets de rate limiting por clave con memoria acotada.
+ *
+ * - Las claves se reparten en stripes; cada stripe es un LinkedHashMap en orden de
+ *   acceso con su propio lock y un tope de claves
+ * - Solo se descarta un bucket cuando ya se recargó por completo: en ese punto es
+ *   indistinguible de uno nuevo, así que descartarlo no le devuelve intentos a nadie
+ * - Si un stripe está lleno de buckets todavía en recarga, la clave nueva no desaloja
+ *   el límite de un atacante activo: consume de un bucket de desborde compartido por
+ *   todas las claves sin lugar, con el cupo de tantos clientes como stripes haya
+ */
+public class BoundedBucketStore {
+
+    // Entradas más viejas que se revisan al insertar en un stripe lleno
+    private static final int EVICTION_SCAN = 8;
+
+    private final long capacity;
+    private final long refillMillis;
+    private final Stripe[] stripes;
+    private final Bucket overflow;
+
+    private final AtomicLong evicted = new AtomicLong();
+    private final AtomicLong overflowed = new AtomicLong();
+
+    /**
+     * @param capacity     intentos disponibles en un bucket lleno
+     * @param refillPeriod tiempo en que se recarga una ficha
+     * @param maxKeys      tope total de claves en memoria
+     * @param stripeCount  cantidad de stripes (locks independientes)
+     */
+    public BoundedBucketStore(long capacity, Duration refillPeriod, int maxKeys, int stripeCount) {
+        if (capacity <= 0 || refillPeriod.isNegative() || refillPeriod.isZero()
+                || stripeCount <= 0 || maxKeys < stripeCount) {
+            throw new IllegalArgumentException("Configuración de rate limiting inválida");
+        }
+        this.capacity = capacity;
+        this.refillMillis = refillPeriod.toMillis();
+        this.stripes = new Stripe[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new Stripe(maxKeys / stripeCount);
+        }
+        this.overflow = newBucket(capacity * stripeCount, stripeCount);
+    }
+
+    /**
+     * @return true si la clave tenía una ficha disponible
+     */
+    public boolean tryConsume(String key) {
+        return tryConsumeAndGetWaitMillis(key) == 0;
+    }
+
+    /**
+     * Intenta consumir una ficha de la clave.
+     *
+     * @return 0 si se consumió; si no, milisegundos hasta que haya una ficha disponible
+     */
+    public long tryConsumeAndGetWaitMillis(String key) {
+        Stripe stripe = stripeFor(key);
+        long now = System.currentTimeMillis();
+        synchronized (stripe) {
+            Entry entry = stripe.entries.get(key);
+            if (entry == null) {
+                if (stripe.entries.size() >= stripe.maxKeys && evictRefilled(stripe, now, EVICTION_SCAN) == 0) {
+                    overflowed.incrementAndGet();
+                    return waitMillis(overflow.tryConsumeAndReturnRemaining(1));
+                }
+                entry = new Entry(newBucket(capacity, 1));
+                stripe.entries.put(key, entry);
+            }
+
+            ConsumptionProbe probe = entry.bucket.tryConsumeAndReturnRemaining(1);
+            // Cota superior del momento en que el bucket vuelve a estar lleno
+            entry.fullAtMillis = now + (capacity - probe.getRemainingTokens()) * refillMillis;
+            return waitMillis(probe);
+        }
+    }
+
+    /**
+     * Descarta todos los buckets ya recargados.
+     *
+     * @return cantidad de claves descartadas
+     */
+    public int evictRefilled() {
+        long now = System.currentTimeMillis();
+        int removed = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                removed += evictRefilled(stripe, now, Integer.MAX_VALUE);
+            }
+        }
+        return removed;
+    }
+
+    public int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                size += stripe.entries.size();
+            }
+        }
+        return size;
+    }
+
+    public long evictedCount() {
+        return evicted.get();
+    }
+
+    /**
+     * @return intentos de claves sin lugar en su stripe, atendidos por el bucket de desborde
+     */
+    public long overflowCount() {
+        return overflowed.get();
+    }
+
+    private int evictRefilled(Stripe stripe, long now, int scanLimit) {
+        int removed = 0;
+        int scanned = 0;
+        Iterator<Entry> it = stripe.entries.values().iterator();
+        while (it.hasNext() && scanned++ < scanLimit) {
+            if (it.next().fullAtMillis <= now) {
+                it.remove();
+                removed++;
+            }
+        }
+        evicted.addAndGet(removed);
+        return removed;
+    }
+
+    private Stripe stripeFor(String key) {
+        int hash = key.hashCode();
+        hash ^= hash >>> 16;
+        return stripes[Math.floorMod(hash, stripes.length)];
+    }
+
+    private static long waitMillis(ConsumptionProbe probe) {
+        if (probe.isConsumed()) {
+            return 0;
+        }
+        return Math.max(1, Math.ceilDiv(probe.getNanosToWaitForRefill(), 1_000_000L));
+    }
+
+    private Bucket newBucket(long tokens, long refillTokens) {
+        Bandwidth limit = Bandwidth.builder()
+                .capacity(tokens)
+                .refillIntervally(refillTokens, Duration.ofMillis(refillMillis))
+                .build();
+        return Bucket.builder()
+                .addLimit(limit)
+                .build();
+    }
+
+    private static final class Stripe {
+        private final int maxKeys;
+        private final Map<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+        private Stripe(int maxKeys) {
+            this.maxKeys = maxKeys;
+        }
+    }
+
+    private static final class Entry {
+        private final Bucket bucket;
+        private long fullAtMillis;
+
+        private Entry(Bucket bucket) {
+            this.bucket = bucket;
+        }
+    }
+}
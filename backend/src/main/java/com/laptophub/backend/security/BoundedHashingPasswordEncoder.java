@@ -0,0 +1,162 @@
+package com.laptophub.backend.security;
+
+import com.laptophub.backend.exception.ServiceUnavailableException;
+import com.laptophub.backend.metrics.MetricsSource;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * PasswordEncoder BCrypt que ejecuta cada hash/verificación en un pool propio y acotado.
+ *
+ * - Como mucho {@code threads} hashes corren a la vez, así una ráfaga de logins no
+ *   se queda con todos los núcleos y el resto de la API sigue respondiendo
+ * - Si la cola está llena, o el trabajo no termina dentro de {@code timeoutMillis},
+ *   se responde 503 en lugar de encolar sin límite
+ * - upgradeEncoding indica los hashes con un costo menor al configurado, para que
+ *   se rehasheen al siguiente login exitoso
+ */
+public class BoundedHashingPasswordEncoder implements PasswordEncoder, MetricsSource {
+
+    private final BCryptPasswordEncoder delegate;
+    private final int strength;
+    private final long timeoutMillis;
+    private final ThreadPoolExecutor executor;
+
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong timedOut = new AtomicLong();
+    private final Latency encodeLatency = new Latency();
+    private final Latency matchesLatency = new Latency();
+
+    /**
+     * @param threads hilos de hashing; 0 = la mitad de los núcleos (al menos 1)
+     */
+    public BoundedHashingPasswordEncoder(int strength, int threads, int queueCapacity, long timeoutMillis) {
+        if (threads <= 0) {
+            threads = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        }
+        this.delegate = new BCryptPasswordEncoder(strength);
+        this.strength = strength;
+        this.timeoutMillis = timeoutMillis;
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(
+                threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hash-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return submit(() -> delegate.encode(rawPassword), encodeLatency);
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return submit(() -> delegate.matches(rawPassword, encodedPassword), matchesLatency);
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private <T> T submit(Callable<T> task, Latency latency) {
+        Future<T> future;
+        try {
+            future = executor.submit(() -> {
+                long start = System.nanoTime();
+                try {
+                    return task.call();
+                } finally {
+                    latency.record(System.nanoTime() - start);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rejected.incrementAndGet();
+            throw new ServiceUnavailableException("Servidor ocupado procesando credenciales. Por favor, reintenta en unos segundos.");
+        }
+
+        try {
+            return future.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            timedOut.incrementAndGet();
+            throw new ServiceUnavailableException("Servidor ocupado procesando credenciales. Por favor, reintenta en unos segundos.");
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new ServiceUnavailableException("Procesamiento de credenciales interrumpido");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    @Override
+    public String metricsName() {
+        return "passwordHashing";
+    }
+
+    @Override
+    public Map<String, Object> metrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("strength", strength);
+        metrics.put("threads", executor.getMaximumPoolSize());
+        metrics.put("active", executor.getActiveCount());
+        metrics.put("queueDepth", executor.getQueue().size());
+        metrics.put("queueCapacity", executor.getQueue().size() + executor.getQueue().remainingCapacity());
+        metrics.put("completed", executor.getCompletedTaskCount());
+        metrics.put("rejected", rejected.get());
+        metrics.put("timedOut", timedOut.get());
+        metrics.put("encode", encodeLatency.snapshot());
+        metrics.put("matches", matchesLatency.snapshot());
+        return metrics;
+    }
+
+    /**
+     * Conteo, promedio y máximo de la duración de los hashes.
+     */
+    private static final class Latency {
+        private final AtomicLong count = new AtomicLong();
+        private final AtomicLong totalNanos = new AtomicLong();
+        private final AtomicLong maxNanos = new AtomicLong();
+
+        void record(long nanos) {
+            count.incrementAndGet();
+            totalNanos.addAndGet(nanos);
+            maxNanos.accumulateAndGet(nanos, Math::max);
+        }
+
+        Map<String, Object> snapshot() {
+            long n = count.get();
+            Map<String, Object> snapshot = new LinkedHashMap<>();
+            snapshot.put("count", n);
+            snapshot.put("avgMillis", n == 0 ? 0 : totalNanos.get() / n / 1_000_000.0);
+            snapshot.put("maxMillis", maxNanos.get() / 1_000_000.0);
+            return snapshot;
+        }
+    }
+}
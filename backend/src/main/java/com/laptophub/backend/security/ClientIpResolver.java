@@ -0,0 +1,70 @@
+package com.laptophub.backend.security;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.web.util.matcher.IpAddressMatcher;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Obtiene la IP del cliente, manejando proxies y load balancers.
+ * La usan el rate limiting de login y el de la API.
+ *
+ * X-Forwarded-For y X-Real-IP solo se leen si la conexión viene de un proxy de
+ * {@code security.trusted-proxies} (IPs o rangos CIDR); si no, cualquier cliente
+ * podría elegir su propia clave de rate limiting. X-Forwarded-For se recorre de
+ * derecha a izquierda y se toma la primera dirección que no es un proxy confiable.
+ */
+@Component
+public class ClientIpResolver {
+
+    private final List<IpAddressMatcher> trustedProxies;
+
+    public ClientIpResolver(@Value("${security.trusted-proxies:}") List<String> trustedProxies) {
+        this.trustedProxies = trustedProxies.stream()
+                .map(String::trim)
+                .filter(proxy -> !proxy.isEmpty())
+                .map(IpAddressMatcher::new)
+                .toList();
+    }
+
+    public String resolve(HttpServletRequest request) {
+        String remoteAddr = request.getRemoteAddr();
+        if (!isTrustedProxy(remoteAddr)) {
+            return remoteAddr;
+        }
+
+        String xForwardedFor = request.getHeader("X-Forwarded-For");
+        if (xForwardedFor != null && !xForwardedFor.isEmpty()) {
+            String[] hops = xForwardedFor.split(",");
+            for (int i = hops.length - 1; i >= 0; i--) {
+                String hop = hops[i].trim();
+                if (!hop.isEmpty() && (i == 0 || !isTrustedProxy(hop))) {
+                    return hop;
+                }
+            }
+        }
+
+        String xRealIp = request.getHeader("X-Real-IP");
+        if (xRealIp != null && !xRealIp.isEmpty()) {
+            return xRealIp.trim();
+        }
+
+        return remoteAddr;
+    }
+
+    private boolean isTrustedProxy(String address) {
+        for (IpAddressMatcher proxy : trustedProxies) {
+            try {
+                if (proxy.matches(address)) {
+                    return true;
+                }
+            } catch (IllegalArgumentException e) {
+                // Dirección mal formada en un header: no es un proxy confiable
+                return false;
+            }
+        }
+        return false;
+    }
+}
@@ -1,32 +1,85 @@
 package com.laptophub.backend.security;
 
+import com.laptophub.backend.metrics.MetricsSource;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
 import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
+import java.util.Base64;
 import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
 
+/**
+ * Emisión y verificación de JWT.
+ *
+ * La verificación parsea el token una sola vez y guarda los claims ya verificados
+ * en un caché acotado, indexado por el SHA-256 del token (nunca el token en claro),
+ * hasta que el token expira. Así cada request autenticado cuesta un hash y un
+ * lookup en lugar de un HMAC + parseo de JSON.
+ *
+ * El caché se reparte en stripes, cada uno un LinkedHashMap en orden de acceso con
+ * su propio lock (como BoundedBucketStore): con un stripe lleno, guardar un token
+ * desaloja el menos usado en O(1), así que un token nuevo siempre se cachea.
+ * Con {@code security.jwt.cache-size} en 0 no se cachea nada.
+ */
 @Service
-public class JwtService {
+public class JwtService implements MetricsSource {
+
+    private static final int STRIPES = 16;
 
     private final Key signingKey;
     private final long expirationDays;
+    private final JwtParser parser;
+    private final int cacheSize;
+
+    private final Stripe[] stripes;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong evicted = new AtomicLong();
 
     public JwtService(
             @Value("${security.jwt.secret:change-me-dev-secret-please-override-32bytes}") String secret,
-            @Value("${security.jwt.expiration-days:15}") long expirationDays
+            @Value("${security.jwt.expiration-days:15}") long expirationDays,
+            @Value("${security.jwt.cache-size:10000}") int cacheSize
     ) {
         this.signingKey = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
         this.expirationDays = expirationDays;
+        this.parser = Jwts.parserBuilder()
+                .setSigningKey(signingKey)
+                .build();
+        this.cacheSize = cacheSize;
+        this.stripes = new Stripe[STRIPES];
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe(Math.max(1, cacheSize / STRIPES));
+        }
+    }
+
+    /**
+     * Claims verificados que necesita el filtro de autenticación.
+     */
+    public record VerifiedToken(String username, List<GrantedAuthority> authorities, long expiresAtMillis) {
+
+        boolean isExpired(long nowMillis) {
+            return expiresAtMillis <= nowMillis;
+        }
     }
 
     public String generateToken(UserDetails userDetails, Map<String, Object> extraClaims) {
@@ -42,25 +95,119 @@ public class JwtService {
                 .compact();
     }
 
-    public String extractUsername(String token) {
-        return extractAllClaims(token).getSubject();
+    /**
+     * Verifica firma y expiración del token.
+     *
+     * @return los claims verificados, o null si el token es inválido o expiró
+     */
+    public VerifiedToken verify(String token) {
+        long now = System.currentTimeMillis();
+        String key = hash(token);
+        Stripe stripe = stripeFor(key);
+
+        synchronized (stripe) {
+            VerifiedToken cached = stripe.entries.get(key);
+            if (cached != null) {
+                if (!cached.isExpired(now)) {
+                    hits.incrementAndGet();
+                    return cached;
+                }
+                stripe.entries.remove(key);
+            }
+        }
+
+        misses.incrementAndGet();
+        VerifiedToken verified = parse(token);
+        if (verified == null) {
+            rejected.incrementAndGet();
+            return null;
+        }
+        if (cacheSize > 0) {
+            synchronized (stripe) {
+                stripe.entries.put(key, verified);
+            }
+        }
+        return verified;
     }
 
-    public boolean isTokenValid(String token, UserDetails userDetails) {
-        String username = extractUsername(token);
-        return username.equals(userDetails.getUsername()) && !isTokenExpired(token);
+    private VerifiedToken parse(String token) {
+        Claims claims;
+        try {
+            claims = parser.parseClaimsJws(token).getBody();
+        } catch (JwtException | IllegalArgumentException e) {
+            return null;
+        }
+        if (claims.getSubject() == null || claims.getExpiration() == null) {
+            return null;
+        }
+
+        // El rol lo agrega AuthController.login al emitir el token
+        String role = claims.get("role", String.class);
+        List<GrantedAuthority> authorities = role == null
+                ? List.of()
+                : List.of(new SimpleGrantedAuthority("ROLE_" + role));
+        return new VerifiedToken(claims.getSubject(), authorities, claims.getExpiration().getTime());
     }
 
-    private boolean isTokenExpired(String token) {
-        Date expiration = extractAllClaims(token).getExpiration();
-        return expiration.before(new Date());
+    private Stripe stripeFor(String key) {
+        int hash = key.hashCode();
+        hash ^= hash >>> 16;
+        return stripes[Math.floorMod(hash, stripes.length)];
     }
 
-    private Claims extractAllClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(signingKey)
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+    }
+
+    @Override
+    public String metricsName() {
+        return "jwtCache";
+    }
+
+    @Override
+    public Map<String, Object> metrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("size", size());
+        metrics.put("maxSize", cacheSize);
+        metrics.put("hits", hits.get());
+        metrics.put("misses", misses.get());
+        metrics.put("rejected", rejected.get());
+        metrics.put("evicted", evicted.get());
+        return metrics;
+    }
+
+    private int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                size += stripe.entries.size();
+            }
+        }
+        return size;
+    }
+
+    /**
+     * LRU de un stripe: al superar su tope desaloja el token menos usado.
+     */
+    private final class Stripe {
+        private final Map<String, VerifiedToken> entries;
+
+        private Stripe(int maxSize) {
+            this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, VerifiedToken> eldest) {
+                    if (size() > maxSize) {
+                        evicted.incrementAndGet();
+                        return true;
+                    }
+                    return false;
+                }
+            };
+        }
     }
 }
@@ -1,21 +1,35 @@
 package com.laptophub.backend.security;
 
-import io.github.bucket4j.Bandwidth;
-import io.github.bucket4j.Bucket;
+import com.laptophub.backend.metrics.MetricsSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
 import java.time.Duration;
+import java.util.LinkedHashMap;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Servicio de rate limiting para intentos de login.
  * Limita a 5 intentos cada 15 minutos por IP.
+ *
+ * Los buckets viven en un {@link BoundedBucketStore}: la memoria queda acotada a
+ * {@code security.login-rate-limit.max-keys} IPs y un bucket solo se descarta cuando
+ * ya se recargó, así que nunca se le reinicia el límite a un atacante activo.
  */
 @Service
-public class LoginRateLimiterService {
+public class LoginRateLimiterService implements MetricsSource {
 
-    private final Map<String, Bucket> cache = new ConcurrentHashMap<>();
+    // 5 tokens, se recarga 1 token cada 3 minutos (5 tokens en 15 minutos)
+    private static final int CAPACITY = 5;
+    private static final Duration REFILL_PERIOD = Duration.ofMinutes(3);
+    private static final int STRIPES = 64;
+
+    private final BoundedBucketStore store;
+
+    public LoginRateLimiterService(@Value("${security.login-rate-limit.max-keys:100000}") int maxKeys) {
+        this.store = new BoundedBucketStore(CAPACITY, REFILL_PERIOD, maxKeys, STRIPES);
+    }
 
     /**
      * Verifica si una IP puede hacer un intento de login.
@@ -23,37 +37,28 @@ public class LoginRateLimiterService {
      * @return true si puede hacer el intento, false si excedió el límite
      */
     public boolean tryConsume(String key) {
-        Bucket bucket = resolveBucket(key);
-        return bucket.tryConsume(1);
+        return store.tryConsume(key);
     }
 
     /**
-     * Obtiene o crea un bucket para una IP específica.
-     * Configuración: 5 intentos cada 15 minutos
+     * Descarta periódicamente los buckets ya recargados por completo.
      */
-    private Bucket resolveBucket(String key) {
-        return cache.computeIfAbsent(key, k -> createNewBucket());
+    @Scheduled(fixedDelayString = "${security.login-rate-limit.sweep-interval-ms:60000}")
+    public void cleanupCache() {
+        store.evictRefilled();
     }
 
-    private Bucket createNewBucket() {
-        // Límite: 5 tokens, se recarga 1 token cada 3 minutos (5 tokens en 15 minutos)
-        Bandwidth limit = Bandwidth.builder()
-                .capacity(5)
-                .refillIntervally(1, Duration.ofMinutes(3))
-                .build();
-        return Bucket.builder()
-                .addLimit(limit)
-                .build();
+    @Override
+    public String metricsName() {
+        return "loginRateLimiter";
     }
 
-    /**
-     * Limpia buckets viejos del caché (opcional, para evitar memory leaks)
-     * Puede ser llamado por un scheduled job
-     */
-    public void cleanupCache() {
-        // En producción, podrías usar una cache con TTL como Caffeine o Redis
-        if (cache.size() > 10000) {
-            cache.clear();
-        }
+    @Override
+    public Map<String, Object> metrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("keys", store.size());
+        metrics.put("evicted", store.evictedCount());
+        metrics.put("overflow", store.overflowCount());
+        return metrics;
     }
 }
@@ -0,0 +1,71 @@
+package com.laptophub.backend.security;
+
+import com.laptophub.backend.model.User;
+import com.laptophub.backend.repository.UserRepository;
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+
+/**
+ * Autentica email + contraseña con una sola lectura del usuario y devuelve un
+ * {@link AuthenticatedUser} con id, email y rol.
+ *
+ * - Si el email no existe igual se verifica contra un hash de relleno, para que el
+ *   tiempo de respuesta no revele qué emails están registrados
+ * - Tras un login exitoso, un hash con costo menor al configurado se reemplaza
+ */
+@Component
+public class UserAuthenticationProvider implements AuthenticationProvider {
+
+    private final UserRepository userRepository;
+    private final PasswordEncoder passwordEncoder;
+
+    private volatile String dummyHash;
+
+    public UserAuthenticationProvider(UserRepository userRepository, PasswordEncoder passwordEncoder) {
+        this.userRepository = userRepository;
+        this.passwordEncoder = passwordEncoder;
+    }
+
+    @Override
+    public Authentication authenticate(Authentication authentication) {
+        String email = authentication.getName();
+        String password = authentication.getCredentials() == null ? "" : authentication.getCredentials().toString();
+
+        Optional<User> found = userRepository.findByEmail(email);
+        if (found.isEmpty()) {
+            passwordEncoder.matches(password, dummyHash());
+            throw new BadCredentialsException("Credenciales invalidas");
+        }
+
+        User user = found.get();
+        if (!passwordEncoder.matches(password, user.getPassword())) {
+            throw new BadCredentialsException("Credenciales invalidas");
+        }
+        if (passwordEncoder.upgradeEncoding(user.getPassword())) {
+            userRepository.updatePasswordByEmail(user.getEmail(), passwordEncoder.encode(password));
+        }
+
+        AuthenticatedUser principal = new AuthenticatedUser(user.getId(), user.getEmail(), user.getRole());
+        return UsernamePasswordAuthenticationToken.authenticated(principal, null, principal.getAuthorities());
+    }
+
+    @Override
+    public boolean supports(Class<?> authentication) {
+        return UsernamePasswordAuthenticationToken.class.isAssignableFrom(authentication);
+    }
+
+    private String dummyHash() {
+        String hash = dummyHash;
+        if (hash == null) {
+            hash = passwordEncoder.encode("userNotFoundPassword");
+            dummyHash = hash;
+        }
+        return hash;
+    }
+}
@@ -5,7 +5,6 @@ import com.laptophub.backend.model.*;
 import com.laptophub.backend.repository.CartItemRepository;
 import com.laptophub.backend.repository.CartRepository;
 import com.laptophub.backend.repository.ProductImageRepository;
-import com.laptophub.backend.repository.ReviewRepository;
 import com.laptophub.backend.exception.ResourceNotFoundException;
 import com.laptophub.backend.exception.ValidationException;
 import lombok.RequiredArgsConstructor;
@@ -36,12 +35,11 @@ public class CartService {
     private final UserService userService;
     private final ProductService productService;
     private final ProductImageRepository productImageRepository;
-    private final ReviewRepository reviewRepository;
     
     @Transactional
     @SuppressWarnings("null")
     public Cart getOrCreateCart(UUID userId) {
-        User user = userService.findById(userId);
+        User user = userService.getReference(userId);
         Optional<Cart> existingCart = cartRepository.findByUser(user);
         
         if (existingCart.isPresent()) {
@@ -167,12 +165,6 @@ public class CartService {
         List<ProductImage> images = productImageRepository.findByProductIdOrderByOrdenAsc(product.getId());
         ProductImage mainImage = images.isEmpty() ? null : images.get(0);
         
-        List<Review> reviews = reviewRepository.findByProduct(product);
-        Double avgRating = reviews.stream()
-                .mapToInt(Review::getRating)
-                .average()
-                .orElse(0.0);
-        
-        return DTOMapper.toCartItemResponse(item, mainImage, avgRating);
+        return DTOMapper.toCartItemResponse(item, mainImage, product.getAverageRating());
     }
 }
@@ -1,43 +1,110 @@
 package com.laptophub.backend.service;
 
 import com.cloudinary.Cloudinary;
+import com.cloudinary.api.ApiResponse;
 import com.cloudinary.utils.ObjectUtils;
+import com.laptophub.backend.exception.ServiceUnavailableException;
+import com.laptophub.backend.storage.ImageStorage;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Service;
-import org.springframework.web.multipart.MultipartFile;
 
+import java.io.File;
 import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
 
+/**
+ * Almacenamiento de imágenes en Cloudinary ({@code images.storage=cloudinary}, el valor por defecto).
+ *
+ * Las subidas van desde un archivo en disco, así el contenido nunca se copia completo
+ * al heap. Un semáforo limita las subidas simultáneas; si no hay lugar en
+ * {@code images.upload.acquire-timeout-ms} se responde 503. Los borrados los envía
+ * ImageDeletionWorker en lote con delete_resources.
+ */
 @Service
-public class CloudinaryService {
+@ConditionalOnProperty(name = "images.storage", havingValue = "cloudinary", matchIfMissing = true)
+public class CloudinaryService implements ImageStorage {
+
+    // Límite de public ids por llamada a delete_resources
+    private static final int MAX_IDS_PER_DELETE = 100;
 
     private final Cloudinary cloudinary;
+    private final Semaphore uploadPermits;
+    private final long acquireTimeoutMillis;
+
+    public CloudinaryService(
+            Cloudinary cloudinary,
+            @Value("${images.upload.max-concurrent:4}") int maxConcurrent,
+            @Value("${images.upload.acquire-timeout-ms:10000}") long acquireTimeoutMillis) {
+        this.cloudinary = cloudinary;
+        this.uploadPermits = new Semaphore(maxConcurrent);
+        this.acquireTimeoutMillis = acquireTimeoutMillis;
+    }
 
-    public CloudinaryService(@Value("${cloudinary.url}") String cloudinaryUrl) {
-        this.cloudinary = new Cloudinary(cloudinaryUrl);
+    /**
+     * Sube un archivo ya en disco, respetando el límite de subidas simultáneas.
+     *
+     * @return secure_url de la imagen subida
+     */
+    @Override
+    public String store(File file, String folder) throws IOException {
+        acquireUploadPermit();
+        try {
+            @SuppressWarnings("unchecked")
+            Map<String, Object> uploadResult = cloudinary.uploader().upload(
+                    file,
+                    ObjectUtils.asMap(
+                            "folder", folder,
+                            "resource_type", "auto"
+                    )
+            );
+            return (String) uploadResult.get("secure_url");
+        } finally {
+            uploadPermits.release();
+        }
     }
 
-    public String uploadImage(MultipartFile file, String folder) throws IOException {
-        @SuppressWarnings("unchecked")
-        Map<String, Object> uploadResult = cloudinary.uploader().upload(
-                file.getBytes(),
-                ObjectUtils.asMap(
-                        "folder", folder,
-                        "resource_type", "auto"
-                )
-        );
-        return (String) uploadResult.get("secure_url");
+    private void acquireUploadPermit() {
+        try {
+            if (!uploadPermits.tryAcquire(acquireTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                throw new ServiceUnavailableException("Demasiadas subidas de imágenes en curso. Por favor, reintenta en unos segundos.");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServiceUnavailableException("Subida de imagen interrumpida");
+        }
     }
 
-    public void deleteImage(String imageUrl) throws IOException {
-        String publicId = extractPublicIdFromUrl(imageUrl);
-        if (publicId != null) {
-            cloudinary.uploader().destroy(publicId, ObjectUtils.emptyMap());
+    /**
+     * Borra hasta 100 imágenes en una sola llamada a delete_resources de la Admin API.
+     *
+     * @return estado por public id ("deleted", "not_found", ...), tal como lo informa Cloudinary
+     */
+    @Override
+    public Map<String, String> deleteAll(List<String> publicIds) throws Exception {
+        ApiResponse response = cloudinary.api().deleteResources(publicIds, ObjectUtils.emptyMap());
+        Map<String, String> statuses = new HashMap<>();
+        Object deleted = response.get("deleted");
+        if (deleted instanceof Map<?, ?> byPublicId) {
+            byPublicId.forEach((publicId, status) -> statuses.put(String.valueOf(publicId), String.valueOf(status)));
         }
+        return statuses;
+    }
+
+    @Override
+    public int maxDeleteBatch() {
+        return MAX_IDS_PER_DELETE;
     }
 
-    private String extractPublicIdFromUrl(String url) {
+    /**
+     * Public id de una URL de Cloudinary, o null si la URL no tiene ese formato.
+     */
+    @Override
+    public String keyOf(String url) {
         if (url == null || url.isBlank()) {
             return null;
         }
@@ -0,0 +1,150 @@
+package com.laptophub.backend.service;
+
+import com.laptophub.backend.model.PendingImageDeletion;
+import com.laptophub.backend.model.ProductImage;
+import com.laptophub.backend.repository.PendingImageDeletionRepository;
+import com.laptophub.backend.repository.ProductImageRepository;
+import com.laptophub.backend.storage.ImageStorage;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Cola durable de imágenes a borrar del almacenamiento (Cloudinary o disco local).
+ *
+ * enqueue se llama dentro de la transacción que elimina la imagen o el producto: si
+ * esa transacción se revierte, el borrado tampoco queda registrado. Las llamadas a
+ * almacenamiento las hace ImageDeletionWorker entre una transacción corta y otra.
+ */
+@Service
+@RequiredArgsConstructor
+public class ImageDeletionService {
+
+    private static final Logger log = LoggerFactory.getLogger(ImageDeletionService.class);
+
+    static final int MAX_ATTEMPTS = 10;
+    // Tiempo que un registro reclamado queda reservado para la instancia que lo tomó
+    private static final long LEASE_SECONDS = 120;
+    private static final long MAX_BACKOFF_SECONDS = 3600;
+
+    private final PendingImageDeletionRepository deletionRepository;
+    private final ProductImageRepository productImageRepository;
+    private final ImageStorage imageStorage;
+
+    public record PendingDeletion(Long id, String publicId) {
+    }
+
+    /**
+     * Registra el borrado de las imágenes que se están eliminando. Se omiten las URLs
+     * que no son del almacenamiento actual y las que siguen en uso por otras
+     * imágenes (la misma foto reutilizada en varios productos por su hash).
+     */
+    @Transactional
+    public void enqueue(Collection<ProductImage> removed) {
+        if (removed.isEmpty()) {
+            return;
+        }
+        Set<String> urls = removed.stream().map(ProductImage::getUrl).collect(Collectors.toSet());
+        List<Long> ids = removed.stream().map(ProductImage::getId).filter(Objects::nonNull).toList();
+        Set<String> shared = new HashSet<>(ids.isEmpty()
+                ? productImageRepository.findUrlsReferenced(urls)
+                : productImageRepository.findUrlsReferencedOutside(urls, ids));
+
+        Map<String, PendingImageDeletion> pending = new LinkedHashMap<>();
+        for (ProductImage image : removed) {
+            String publicId = imageStorage.keyOf(image.getUrl());
+            if (publicId == null || shared.contains(image.getUrl())) {
+                continue;
+            }
+            pending.putIfAbsent(publicId, PendingImageDeletion.builder()
+                    .publicId(publicId)
+                    .url(image.getUrl())
+                    .build());
+        }
+        deletionRepository.saveAll(pending.values());
+    }
+
+    /**
+     * Reclama hasta {@code limit} registros vencidos corriendo su próximo intento como lease.
+     *
+     * Justo antes de borrar se vuelve a comprobar por URL que ninguna imagen la use: una
+     * subida que reutilizó la URL por hash pudo registrarse después de encolar el borrado.
+     * Después del reclamo no pueden aparecer referencias nuevas, porque la reutilización
+     * bloquea una fila existente con esa URL (ProductImageRepository.lockUrlsInUse) y
+     * ya no queda ninguna.
+     */
+    @Transactional
+    public List<PendingDeletion> claimDue(int limit) {
+        LocalDateTime now = LocalDateTime.now();
+        List<PendingDeletion> claimed = new ArrayList<>();
+        List<PendingImageDeletion> due = deletionRepository.lockDue(now, limit);
+        Set<String> referenced = referencedUrls(due);
+        for (PendingImageDeletion entry : due) {
+            if (referenced.contains(entry.getUrl())) {
+                deletionRepository.delete(entry);
+                continue;
+            }
+            entry.setNextAttemptAt(now.plusSeconds(LEASE_SECONDS));
+            claimed.add(new PendingDeletion(entry.getId(), entry.getPublicId()));
+        }
+        return claimed;
+    }
+
+    @Transactional
+    @SuppressWarnings("null")
+    public void complete(Collection<Long> ids) {
+        if (!ids.isEmpty()) {
+            deletionRepository.deleteAllByIdInBatch(ids);
+        }
+    }
+
+    /**
+     * Programa un reintento con backoff exponencial; al agotar los intentos descarta
+     * el registro (la imagen queda huérfana en el almacenamiento y se informa en el log).
+     *
+     * @return cantidad de registros descartados
+     */
+    @Transactional
+    @SuppressWarnings("null")
+    public int fail(Collection<Long> ids, String error) {
+        String lastError = error != null && error.length() > 500 ? error.substring(0, 500) : error;
+        int abandoned = 0;
+        for (PendingImageDeletion entry : deletionRepository.findAllById(ids)) {
+            int intentos = entry.getIntentos() + 1;
+            if (intentos >= MAX_ATTEMPTS) {
+                log.error("Se descarta el borrado de la imagen {} tras {} intentos: {}", entry.getPublicId(), intentos, lastError);
+                deletionRepository.delete(entry);
+                abandoned++;
+                continue;
+            }
+
+            long backoff = Math.min(MAX_BACKOFF_SECONDS, 10L << (intentos - 1));
+            entry.setIntentos(intentos);
+            entry.setNextAttemptAt(LocalDateTime.now().plusSeconds(backoff));
+            entry.setLastError(lastError);
+        }
+        return abandoned;
+    }
+
+    private Set<String> referencedUrls(List<PendingImageDeletion> due) {
+        Set<String> urls = due.stream().map(PendingImageDeletion::getUrl).collect(Collectors.toSet());
+        return urls.isEmpty() ? Set.of() : new HashSet<>(productImageRepository.findUrlsReferenced(urls));
+    }
+
+    public long countPending() {
+        return deletionRepository.count();
+    }
+}
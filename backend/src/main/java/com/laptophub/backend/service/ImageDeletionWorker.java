@@ -0,0 +1,139 @@
+package com.laptophub.backend.service;
+
+import com.laptophub.backend.metrics.MetricsSource;
+import com.laptophub.backend.storage.ImageStorage;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Borra del almacenamiento las imágenes encoladas por ImageDeletionService.
+ *
+ * Cada lote se reclama en una transacción corta y se envía en una sola llamada a
+ * ImageStorage.deleteAll (en Cloudinary, delete_resources con hasta 100 public ids).
+ * Las claves que no se informan como borradas o inexistentes, y los lotes cuya
+ * llamada falla, se reintentan con backoff.
+ */
+@Component
+@RequiredArgsConstructor
+public class ImageDeletionWorker implements MetricsSource {
+
+    private static final Logger log = LoggerFactory.getLogger(ImageDeletionWorker.class);
+
+    private final ImageDeletionService deletionService;
+    private final ImageStorage imageStorage;
+
+    @Value("${images.deletion.batch-size:100}")
+    private int batchSize;
+
+    private final AtomicLong deletedTotal = new AtomicLong();
+    private final AtomicLong notFoundTotal = new AtomicLong();
+    private final AtomicLong retriedTotal = new AtomicLong();
+    private final AtomicLong abandonedTotal = new AtomicLong();
+    private final AtomicLong callsTotal = new AtomicLong();
+    private final AtomicLong failedCallsTotal = new AtomicLong();
+    private volatile long lastRunDeleted;
+    private volatile long lastRunMillis;
+    private volatile LocalDateTime lastRunAt;
+
+    @Scheduled(fixedDelayString = "${images.deletion.poll-interval-ms:5000}")
+    public void run() {
+        runOnce();
+    }
+
+    /**
+     * Procesa lotes hasta que no quedan borrados vencidos.
+     *
+     * @return imágenes borradas (o ya inexistentes) en esta ejecución
+     */
+    public int runOnce() {
+        long start = System.nanoTime();
+        int limit = Math.min(batchSize, imageStorage.maxDeleteBatch());
+        int deleted = 0;
+        List<ImageDeletionService.PendingDeletion> batch;
+        do {
+            batch = deletionService.claimDue(limit);
+            deleted += deleteBatch(batch);
+        } while (batch.size() == limit);
+
+        lastRunMillis = (System.nanoTime() - start) / 1_000_000;
+        lastRunDeleted = deleted;
+        lastRunAt = LocalDateTime.now();
+        return deleted;
+    }
+
+    private int deleteBatch(List<ImageDeletionService.PendingDeletion> batch) {
+        if (batch.isEmpty()) {
+            return 0;
+        }
+
+        List<String> publicIds = batch.stream().map(ImageDeletionService.PendingDeletion::publicId).distinct().toList();
+        Map<String, String> statuses;
+        callsTotal.incrementAndGet();
+        try {
+            statuses = imageStorage.deleteAll(publicIds);
+        } catch (Exception e) {
+            failedCallsTotal.incrementAndGet();
+            log.warn("No se pudo borrar un lote de {} imágenes: {}", publicIds.size(), e.getMessage());
+            retry(batch.stream().map(ImageDeletionService.PendingDeletion::id).toList(), e.getMessage());
+            return 0;
+        }
+
+        List<Long> done = new ArrayList<>();
+        List<Long> pending = new ArrayList<>();
+        for (ImageDeletionService.PendingDeletion deletion : batch) {
+            String status = statuses.get(deletion.publicId());
+            if (ImageStorage.STATUS_DELETED.equals(status)) {
+                deletedTotal.incrementAndGet();
+                done.add(deletion.id());
+            } else if (ImageStorage.STATUS_NOT_FOUND.equals(status)) {
+                notFoundTotal.incrementAndGet();
+                done.add(deletion.id());
+            } else {
+                pending.add(deletion.id());
+            }
+        }
+
+        deletionService.complete(done);
+        if (!pending.isEmpty()) {
+            retry(pending, "El almacenamiento no confirmó el borrado");
+        }
+        return done.size();
+    }
+
+    private void retry(List<Long> ids, String error) {
+        retriedTotal.addAndGet(ids.size());
+        abandonedTotal.addAndGet(deletionService.fail(ids, error));
+    }
+
+    @Override
+    public String metricsName() {
+        return "imageDeletion";
+    }
+
+    @Override
+    public Map<String, Object> metrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("pending", deletionService.countPending());
+        metrics.put("deletedTotal", deletedTotal.get());
+        metrics.put("notFoundTotal", notFoundTotal.get());
+        metrics.put("retriedTotal", retriedTotal.get());
+        metrics.put("abandonedTotal", abandonedTotal.get());
+        metrics.put("callsTotal", callsTotal.get());
+        metrics.put("failedCallsTotal", failedCallsTotal.get());
+        metrics.put("lastRunAt", lastRunAt);
+        metrics.put("lastRunDeleted", lastRunDeleted);
+        metrics.put("lastRunMillis", lastRunMillis);
+        return metrics;
+    }
+}
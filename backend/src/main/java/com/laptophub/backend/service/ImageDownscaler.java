@@ -0,0 +1,152 @@
+package com.laptophub.backend.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Genera localmente la versión a subir de una imagen: reducida a
+ * {@code images.derivative.max-dimension} píxeles por lado y re-codificada
+ * (JPEG, o PNG si tiene transparencia).
+ *
+ * - La decodificación usa submuestreo de ImageIO, así una foto de 50 MP no se
+ *   decodifica completa: se lee a lo sumo al doble del tamaño final y se escala desde ahí
+ * - Un semáforo limita las decodificaciones simultáneas, que son las que ocupan heap
+ * - Formatos que ImageIO no lee (WebP, ...) o que no conviene re-codificar (GIF
+ *   animados) se suben tal cual, igual que las imágenes que ya están dentro del límite
+ */
+@Component
+public class ImageDownscaler {
+
+    private static final Logger log = LoggerFactory.getLogger(ImageDownscaler.class);
+
+    private static final Set<String> RESIZABLE_FORMATS = Set.of("jpeg", "jpg", "png", "bmp");
+
+    private final int maxDimension;
+    private final float jpegQuality;
+    private final Semaphore decodePermits;
+
+    public ImageDownscaler(
+            @Value("${images.derivative.max-dimension:2000}") int maxDimension,
+            @Value("${images.derivative.jpeg-quality:0.85}") float jpegQuality,
+            @Value("${images.derivative.max-concurrent:2}") int maxConcurrent) {
+        this.maxDimension = maxDimension;
+        this.jpegQuality = jpegQuality;
+        this.decodePermits = new Semaphore(maxConcurrent);
+    }
+
+    /**
+     * @return archivo temporal con la versión reducida (el llamador lo borra), o null si
+     *         conviene subir el original
+     */
+    public Path downscale(Path original) throws IOException {
+        try (ImageInputStream in = ImageIO.createImageInputStream(original.toFile())) {
+            if (in == null) {
+                return null;
+            }
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(in);
+            if (!readers.hasNext()) {
+                return null;
+            }
+
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                if (!RESIZABLE_FORMATS.contains(reader.getFormatName().toLowerCase())) {
+                    return null;
+                }
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                if (Math.max(width, height) <= maxDimension) {
+                    return null;
+                }
+                return resize(reader, width, height, original);
+            } finally {
+                reader.dispose();
+            }
+        } catch (IOException | RuntimeException e) {
+            // JPEG CMYK, archivos truncados, etc.: se sube el original sin tocar
+            log.debug("No se pudo generar la versión reducida de la imagen: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private Path resize(ImageReader reader, int width, int height, Path original) throws IOException {
+        ImageReadParam param = reader.getDefaultReadParam();
+        int subsampling = Math.max(1, Math.max(width, height) / (2 * maxDimension));
+        param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+
+        BufferedImage decoded;
+        decodePermits.acquireUninterruptibly();
+        try {
+            decoded = reader.read(0, param);
+        } finally {
+            decodePermits.release();
+        }
+
+        double scale = (double) maxDimension / Math.max(decoded.getWidth(), decoded.getHeight());
+        int targetWidth = Math.max(1, (int) Math.round(decoded.getWidth() * scale));
+        int targetHeight = Math.max(1, (int) Math.round(decoded.getHeight() * scale));
+        boolean alpha = decoded.getColorModel().hasAlpha();
+
+        BufferedImage scaled = new BufferedImage(targetWidth, targetHeight,
+                alpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = scaled.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.drawImage(decoded, 0, 0, targetWidth, targetHeight, null);
+        } finally {
+            graphics.dispose();
+        }
+
+        Path derivative = Files.createTempFile("laptophub-derivative-", alpha ? ".png" : ".jpg");
+        try {
+            if (alpha) {
+                ImageIO.write(scaled, "png", derivative.toFile());
+            } else {
+                writeJpeg(scaled, derivative);
+            }
+            if (Files.size(derivative) >= Files.size(original)) {
+                Files.deleteIfExists(derivative);
+                return null;
+            }
+            return derivative;
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(derivative);
+            throw e;
+        }
+    }
+
+    private void writeJpeg(BufferedImage image, Path target) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        try (ImageOutputStream out = ImageIO.createImageOutputStream(target.toFile())) {
+            writer.setOutput(out);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(jpegQuality);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+    }
+}
@@ -0,0 +1,205 @@
+package com.laptophub.backend.service;
+
+import com.laptophub.backend.exception.ValidationException;
+import com.laptophub.backend.metrics.MetricsSource;
+import com.laptophub.backend.model.ProductImage;
+import com.laptophub.backend.repository.ProductImageRepository;
+import com.laptophub.backend.storage.ImageStorage;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Pipeline de subida de imágenes de producto.
+ *
+ * 1. El multipart pasa a un archivo temporal y se calcula su SHA-256 leyéndolo en bloques
+ * 2. Si ya hay una ProductImage con ese hash, se reutiliza su URL sin subir nada
+ * 3. Si no, se genera la versión reducida con ImageDownscaler y se guarda esa (o el
+ *    original) en el ImageStorage configurado
+ *
+ * Dos subidas simultáneas del mismo archivo (por ejemplo, en una subida en lote) comparten
+ * una sola subida al almacenamiento.
+ */
+@Service
+public class ImageUploadService implements MetricsSource {
+
+    private final ImageStorage imageStorage;
+    private final ImageDownscaler imageDownscaler;
+    private final ProductImageRepository productImageRepository;
+    private final long maxBytes;
+
+    private final ConcurrentHashMap<String, CompletableFuture<String>> inFlight = new ConcurrentHashMap<>();
+
+    private final AtomicLong uploads = new AtomicLong();
+    private final AtomicLong reused = new AtomicLong();
+    private final AtomicLong sharedInFlight = new AtomicLong();
+    private final AtomicLong downscaled = new AtomicLong();
+    private final AtomicLong bytesReceived = new AtomicLong();
+    private final AtomicLong bytesUploaded = new AtomicLong();
+
+    public ImageUploadService(ImageStorage imageStorage,
+                              ImageDownscaler imageDownscaler,
+                              ProductImageRepository productImageRepository,
+                              @Value("${images.upload.max-size:20MB}") DataSize maxSize) {
+        this.imageStorage = imageStorage;
+        this.imageDownscaler = imageDownscaler;
+        this.productImageRepository = productImageRepository;
+        this.maxBytes = maxSize.toBytes();
+    }
+
+    /**
+     * Origen de la URL: subida nueva, compartida con una subida simultánea del mismo
+     * archivo, o tomada de una ProductImage existente con el mismo hash.
+     */
+    public enum Source {
+        UPLOADED, SHARED_IN_FLIGHT, EXISTING
+    }
+
+    /**
+     * Imagen almacenada: URL, hash del original y de dónde salió la URL.
+     *
+     * Una URL EXISTING solo es válida si la fila de la que salió sigue existiendo al
+     * registrar la imagen: hay que comprobarlo con ProductImageRepository.lockUrlsInUse
+     * en la misma transacción del insert.
+     */
+    public record StoredImage(String url, String contentHash, Source source) {
+        public boolean reused() {
+            return source != Source.UPLOADED;
+        }
+    }
+
+    public StoredImage store(MultipartFile file, String folder) throws IOException {
+        validate(file);
+        Path original = Files.createTempFile("laptophub-upload-", ".tmp");
+        try {
+            // transferTo mueve o copia el archivo temporal del multipart sin pasar por el heap
+            file.transferTo(original);
+            bytesReceived.addAndGet(Files.size(original));
+            String hash = sha256(original);
+
+            Optional<String> existing = findUrl(hash);
+            if (existing.isPresent()) {
+                reused.incrementAndGet();
+                return new StoredImage(existing.get(), hash, Source.EXISTING);
+            }
+
+            CompletableFuture<String> mine = new CompletableFuture<>();
+            CompletableFuture<String> other = inFlight.putIfAbsent(hash, mine);
+            if (other != null) {
+                sharedInFlight.incrementAndGet();
+                return new StoredImage(await(other), hash, Source.SHARED_IN_FLIGHT);
+            }
+            try {
+                String url = upload(original, folder);
+                mine.complete(url);
+                return new StoredImage(url, hash, Source.UPLOADED);
+            } catch (IOException | RuntimeException e) {
+                mine.completeExceptionally(e);
+                throw e;
+            } finally {
+                inFlight.remove(hash, mine);
+            }
+        } finally {
+            Files.deleteIfExists(original);
+        }
+    }
+
+    /**
+     * Rechaza archivos vacíos o mayores a {@code images.upload.max-size}.
+     */
+    private void validate(MultipartFile file) {
+        if (file.isEmpty()) {
+            throw new ValidationException("El archivo está vacío");
+        }
+        if (file.getSize() > maxBytes) {
+            throw new ValidationException("La imagen supera el tamaño máximo de " + DataSize.ofBytes(maxBytes).toMegabytes() + " MB");
+        }
+    }
+
+    private Optional<String> findUrl(String hash) {
+        return productImageRepository.findFirstByContentHashOrderByIdAsc(hash).map(ProductImage::getUrl);
+    }
+
+    private String upload(Path original, String folder) throws IOException {
+        Path derivative = imageDownscaler.downscale(original);
+        try {
+            Path toUpload = derivative != null ? derivative : original;
+            if (derivative != null) {
+                downscaled.incrementAndGet();
+            }
+            bytesUploaded.addAndGet(Files.size(toUpload));
+            String url = imageStorage.store(toUpload.toFile(), folder);
+            uploads.incrementAndGet();
+            return url;
+        } finally {
+            if (derivative != null) {
+                Files.deleteIfExists(derivative);
+            }
+        }
+    }
+
+    private String await(CompletableFuture<String> upload) throws IOException {
+        try {
+            return upload.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof IOException io) {
+                throw io;
+            }
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw e;
+        }
+    }
+
+    static String sha256(Path file) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+        byte[] buffer = new byte[64 * 1024];
+        try (InputStream in = new DigestInputStream(Files.newInputStream(file), digest)) {
+            while (in.read(buffer) != -1) {
+                // DigestInputStream actualiza el hash en cada lectura
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    @Override
+    public String metricsName() {
+        return "imageUploads";
+    }
+
+    @Override
+    public Map<String, Object> metrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("uploads", uploads.get());
+        metrics.put("reused", reused.get());
+        metrics.put("sharedInFlight", sharedInFlight.get());
+        metrics.put("downscaled", downscaled.get());
+        metrics.put("bytesReceived", bytesReceived.get());
+        metrics.put("bytesUploaded", bytesUploaded.get());
+        metrics.put("inFlight", inFlight.size());
+        return metrics;
+    }
+}
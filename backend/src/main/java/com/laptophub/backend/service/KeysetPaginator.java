@@ -0,0 +1,199 @@
+package com.laptophub.backend.service;
+
+import com.laptophub.backend.exception.ValidationException;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * Paginación por cursor (keyset / seek) sin OFFSET ni query de COUNT.
+ *
+ * El cursor es un token opaco que codifica la propiedad de orden, la dirección,
+ * el último valor de esa propiedad y el último id. La siguiente página se pide con
+ * WHERE (clave, id) > (último valor, último id), lo que usa el índice y cuesta lo
+ * mismo en la página 1 que en la 10.000.
+ *
+ * Solo devuelve los ids de la página; cada servicio carga después las filas o DTOs.
+ * Si se pide una página con cursor y sin sort, se usa el orden guardado en el cursor;
+ * un sort explícito distinto del del cursor se rechaza.
+ */
+@Component
+public class KeysetPaginator {
+
+    private static final String ID = "id";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public record KeysetPage(List<Long> ids, boolean hasNext, String next) {
+    }
+
+    /**
+     * @param entityClass entidad a paginar
+     * @param filters     filtros de igualdad (propiedad -> valor)
+     * @param after       cursor de la página anterior o vacío para la primera página
+     * @param pageable    tamaño de página y orden (una sola propiedad); sin orden y con
+     *                    cursor se usa el orden del cursor
+     * @param sortable    propiedades por las que se permite ordenar
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public KeysetPage page(Class<?> entityClass, Map<String, Object> filters, String after,
+                           Pageable pageable, Set<String> sortable) {
+        CursorToken token = after != null && !after.isBlank() ? CursorToken.decode(after) : null;
+        Sort sort = pageable.getSort().isUnsorted() && token != null
+                ? Sort.by(token.ascending() ? Sort.Direction.ASC : Sort.Direction.DESC, token.property())
+                : pageable.getSort();
+        Sort.Order order = resolveOrder(sort, sortable);
+        String property = order.getProperty();
+        boolean ascending = order.isAscending();
+        int size = pageable.getPageSize();
+
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Object[]> query = cb.createQuery(Object[].class);
+        Root<?> root = query.from(entityClass);
+        Path<Comparable> key = root.get(property);
+        Path<Long> id = root.get(ID);
+        query.multiselect(id, key);
+
+        List<Predicate> predicates = new ArrayList<>();
+        filters.forEach((name, value) -> predicates.add(cb.equal(root.get(name), value)));
+
+        if (token != null) {
+            if (!token.property().equals(property) || token.ascending() != ascending) {
+                throw new ValidationException("El cursor no corresponde al orden solicitado");
+            }
+            Cursor cursor = token.parse(root.get(property).getJavaType());
+            if (ID.equals(property)) {
+                predicates.add(seek(cb, id, cursor.id(), ascending));
+            } else {
+                predicates.add(cb.or(
+                        seek(cb, key, (Comparable) cursor.key(), ascending),
+                        cb.and(cb.equal(key, cursor.key()), seek(cb, id, cursor.id(), ascending))));
+            }
+        }
+
+        query.where(predicates.toArray(new Predicate[0]));
+        query.orderBy(ascending
+                ? List.of(cb.asc(key), cb.asc(id))
+                : List.of(cb.desc(key), cb.desc(id)));
+
+        List<Object[]> rows = entityManager.createQuery(query)
+                .setMaxResults(size + 1)
+                .getResultList();
+
+        boolean hasNext = rows.size() > size;
+        List<Object[]> pageRows = hasNext ? rows.subList(0, size) : rows;
+        List<Long> ids = pageRows.stream().map(row -> (Long) row[0]).toList();
+
+        String next = null;
+        if (hasNext) {
+            Object[] last = pageRows.get(pageRows.size() - 1);
+            next = encode(property, ascending, last[1], (Long) last[0]);
+        }
+        return new KeysetPage(ids, hasNext, next);
+    }
+
+    /**
+     * Reordena los elementos cargados por id según el orden de la página.
+     */
+    public static <T> List<T> inIdOrder(List<Long> ids, Collection<T> items, Function<T, Long> idOf) {
+        Map<Long, T> byId = new HashMap<>();
+        items.forEach(item -> byId.put(idOf.apply(item), item));
+        List<T> ordered = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            T item = byId.get(id);
+            if (item != null) {
+                ordered.add(item);
+            }
+        }
+        return ordered;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Predicate seek(CriteriaBuilder cb, Expression<? extends Comparable> path,
+                                  Comparable value, boolean ascending) {
+        return ascending ? cb.greaterThan(path, value) : cb.lessThan(path, value);
+    }
+
+    private static Sort.Order resolveOrder(Sort sort, Set<String> sortable) {
+        List<Sort.Order> orders = sort.toList();
+        if (orders.isEmpty()) {
+            return Sort.Order.asc(ID);
+        }
+        if (orders.size() > 1) {
+            throw new ValidationException("El modo cursor solo admite ordenar por una propiedad");
+        }
+        Sort.Order order = orders.get(0);
+        if (!sortable.contains(order.getProperty())) {
+            throw new ValidationException("No se puede ordenar por '" + order.getProperty()
+                    + "' en modo cursor. Permitidos: " + String.join(", ", sortable));
+        }
+        return order;
+    }
+
+    private record Cursor(Object key, Long id) {
+    }
+
+    private static String encode(String property, boolean ascending, Object key, Long id) {
+        String raw = property + "|" + (ascending ? "asc" : "desc") + "|" + key + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Cursor decodificado con la clave todavía como texto: el tipo de la clave depende
+     * de la propiedad de orden, que puede venir del propio cursor.
+     */
+    private record CursorToken(String property, boolean ascending, String key, Long id) {
+
+        static CursorToken decode(String token) {
+            try {
+                String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+                String[] parts = raw.split("\\|", -1);
+                if (parts.length != 4 || !(parts[1].equals("asc") || parts[1].equals("desc"))) {
+                    throw new ValidationException("Cursor inválido");
+                }
+                return new CursorToken(parts[0], parts[1].equals("asc"), parts[2], Long.valueOf(parts[3]));
+            } catch (IllegalArgumentException e) {
+                throw new ValidationException("Cursor inválido");
+            }
+        }
+
+        Cursor parse(Class<?> keyType) {
+            try {
+                return new Cursor(parseKey(key, keyType), id);
+            } catch (IllegalArgumentException | java.time.DateTimeException e) {
+                throw new ValidationException("Cursor inválido");
+            }
+        }
+    }
+
+    private static Object parseKey(String value, Class<?> keyType) {
+        if (keyType == Long.class) {
+            return Long.valueOf(value);
+        }
+        if (keyType == BigDecimal.class) {
+            return new BigDecimal(value);
+        }
+        if (keyType == LocalDateTime.class) {
+            return LocalDateTime.parse(value);
+        }
+        if (keyType == Integer.class) {
+            return Integer.valueOf(value);
+        }
+        throw new ValidationException("Tipo de clave no soportado para cursor: " + keyType.getSimpleName());
+    }
+}
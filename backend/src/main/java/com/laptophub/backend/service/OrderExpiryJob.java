@@ -0,0 +1,99 @@
+package com.laptophub.backend.service;
+
+import com.laptophub.backend.metrics.MetricsSource;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Expira periódicamente las órdenes en PENDIENTE_PAGO cuyo plazo venció,
+ * por lotes acotados hasta vaciar el backlog.
+ *
+ * Métricas publicadas:
+ * - throughput de la última ejecución (órdenes/segundo) y totales acumulados
+ * - lag: antigüedad de la orden vencida más vieja que sigue pendiente
+ */
+@Component
+@RequiredArgsConstructor
+public class OrderExpiryJob implements MetricsSource {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderExpiryJob.class);
+
+    private final OrderExpiryService expiryService;
+
+    @Value("${orders.expiry.chunk-size:200}")
+    private int chunkSize;
+
+    private final AtomicLong expiredTotal = new AtomicLong();
+    private final AtomicLong chunksTotal = new AtomicLong();
+    private final AtomicLong runsTotal = new AtomicLong();
+    private volatile long lastRunExpired;
+    private volatile long lastRunMillis;
+    private volatile LocalDateTime lastRunAt;
+
+    @Scheduled(fixedDelayString = "${orders.expiry.interval-ms:30000}")
+    public void run() {
+        runOnce();
+    }
+
+    /**
+     * Procesa lotes hasta que no quedan órdenes vencidas disponibles.
+     *
+     * @return órdenes expiradas en esta ejecución
+     */
+    public int runOnce() {
+        long start = System.nanoTime();
+        LocalDateTime now = LocalDateTime.now();
+        int expired = 0;
+        int processed;
+        do {
+            processed = expiryService.expireChunk(now, chunkSize);
+            expired += processed;
+            if (processed > 0) {
+                chunksTotal.incrementAndGet();
+            }
+        } while (processed == chunkSize);
+
+        lastRunMillis = (System.nanoTime() - start) / 1_000_000;
+        lastRunExpired = expired;
+        lastRunAt = now;
+        runsTotal.incrementAndGet();
+        expiredTotal.addAndGet(expired);
+        if (expired > 0) {
+            log.info("Órdenes expiradas: {} en {} ms", expired, lastRunMillis);
+        }
+        return expired;
+    }
+
+    @Override
+    public String metricsName() {
+        return "orderExpiry";
+    }
+
+    @Override
+    public Map<String, Object> metrics() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime oldest = expiryService.findOldestExpiresAt(now);
+
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("expiredTotal", expiredTotal.get());
+        metrics.put("chunksTotal", chunksTotal.get());
+        metrics.put("runsTotal", runsTotal.get());
+        metrics.put("lastRunAt", lastRunAt);
+        metrics.put("lastRunExpired", lastRunExpired);
+        metrics.put("lastRunMillis", lastRunMillis);
+        metrics.put("lastRunThroughputPerSecond",
+                lastRunMillis > 0 ? lastRunExpired * 1000.0 / lastRunMillis : (double) lastRunExpired);
+        metrics.put("lagSeconds", oldest != null ? Duration.between(oldest, now).toSeconds() : 0);
+        return metrics;
+    }
+}
@@ -0,0 +1,107 @@
+package com.laptophub.backend.service;
+
+import com.laptophub.backend.model.OrderStatus;
+import com.laptophub.backend.model.PaymentStatus;
+import com.laptophub.backend.repository.OrderRepository;
+import com.laptophub.backend.repository.PaymentRepository;
+import com.laptophub.backend.repository.ProductRepository;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Expira un lote de órdenes vencidas en una transacción corta.
+ *
+ * Las órdenes se toman con FOR UPDATE SKIP LOCKED, así que varios nodos pueden
+ * procesar lotes distintos a la vez y ninguna orden se expira (ni su stock se
+ * restaura) dos veces.
+ *
+ * Igual que al cancelar una orden (PaymentService.failPendingPayment), los pagos
+ * pendientes se marcan como fallidos, salen de la outbox y sus PaymentIntents se
+ * cancelan en Stripe después del commit: con el stock ya liberado no se deben cobrar.
+ */
+@Service
+@RequiredArgsConstructor
+public class OrderExpiryService {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderExpiryService.class);
+
+    private final OrderRepository orderRepository;
+    private final PaymentRepository paymentRepository;
+    private final ProductRepository productRepository;
+    private final PaymentOutboxService paymentOutboxService;
+    private final StripeService stripeService;
+
+    /**
+     * Expira el siguiente lote de órdenes vencidas (barrido periódico).
+     *
+     * @return cantidad de órdenes expiradas en este lote
+     */
+    @Transactional
+    public int expireChunk(LocalDateTime now, int limit) {
+        return expire(orderRepository.lockExpiredIds(now, limit));
+    }
+
+    /**
+     * Expira las órdenes indicadas que sigan vencidas y sin pagar (disparo de timers).
+     *
+     * @return cantidad de órdenes expiradas
+     */
+    @Transactional
+    public int expireOrders(Collection<Long> orderIds, LocalDateTime now) {
+        return expire(orderRepository.lockExpiredIdsIn(orderIds, now));
+    }
+
+    private int expire(List<Long> orderIds) {
+        if (orderIds.isEmpty()) {
+            return 0;
+        }
+
+        List<String> paymentIntents =
+                paymentRepository.findStripePaymentIdsByOrderIds(orderIds, PaymentStatus.COMPLETADO);
+
+        productRepository.lockProductIdsOfOrders(orderIds);
+        productRepository.restoreStockOfOrders(orderIds);
+        orderRepository.updateEstado(orderIds, OrderStatus.EXPIRADO);
+        paymentRepository.updateEstadoByOrderIds(orderIds, PaymentStatus.FALLIDO, PaymentStatus.COMPLETADO);
+        paymentOutboxService.discardByOrderIds(orderIds);
+        cancelAfterCommit(paymentIntents);
+        return orderIds.size();
+    }
+
+    /**
+     * Cancela los PaymentIntents solo si la expiración confirma; un fallo se registra
+     * y no revierte nada (el pago ya no puede completarse, ver PaymentService).
+     */
+    private void cancelAfterCommit(List<String> paymentIntents) {
+        if (paymentIntents.isEmpty()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                for (String paymentIntentId : paymentIntents) {
+                    try {
+                        stripeService.cancelPaymentIntent(paymentIntentId);
+                    } catch (Exception e) {
+                        log.warn("No se pudo cancelar el PaymentIntent {} de una orden expirada: {}",
+                                paymentIntentId, e.getMessage());
+                    }
+                }
+            }
+        });
+    }
+
+    @Transactional(readOnly = true)
+    public LocalDateTime findOldestExpiresAt(LocalDateTime now) {
+        return orderRepository.findOldestExpiresAt(OrderStatus.PENDIENTE_PAGO, now);
+    }
+}
@@ -0,0 +1,143 @@
+package com.laptophub.backend.service;
+
+import com.laptophub.backend.metrics.MetricsSource;
+import com.laptophub.backend.model.OrderStatus;
+import com.laptophub.backend.repository.OrderRepository;
+import com.laptophub.backend.scheduling.HierarchicalTimingWheel;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Timers en memoria que expiran cada orden PENDIENTE_PAGO en cuanto vence su plazo,
+ * sin barrer la tabla de órdenes.
+ *
+ * Los timers se registran al confirmar el checkout, se cancelan cuando el pago se
+ * completa o la orden se cancela y se reconstruyen al arrancar. Un disparo de más
+ * es inofensivo: OrderExpiryService vuelve a verificar estado, plazo y pago con la
+ * fila bloqueada. OrderExpiryJob sigue como red de seguridad.
+ */
+@Component
+public class OrderExpiryTimers implements MetricsSource {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderExpiryTimers.class);
+
+    // 4 niveles de 64 slots: con ticks de 1 s cubren ~194 días sin reubicar
+    private static final int WHEEL_LEVELS = 4;
+    private static final int FIRE_BATCH_SIZE = 200;
+    private static final int REBUILD_PAGE_SIZE = 1000;
+
+    private final OrderRepository orderRepository;
+    private final OrderExpiryService expiryService;
+    private final HierarchicalTimingWheel<Long> wheel;
+
+    private final AtomicLong firedTotal = new AtomicLong();
+    private final AtomicLong expiredTotal = new AtomicLong();
+
+    public OrderExpiryTimers(OrderRepository orderRepository,
+                             OrderExpiryService expiryService,
+                             @Value("${orders.expiry.timer-tick-ms:1000}") long tickMillis) {
+        this.orderRepository = orderRepository;
+        this.expiryService = expiryService;
+        this.wheel = new HierarchicalTimingWheel<>(tickMillis, WHEEL_LEVELS, System.currentTimeMillis());
+    }
+
+    /**
+     * Registra el plazo de la orden cuando la transacción actual confirma.
+     */
+    public void register(Long orderId, LocalDateTime expiresAt) {
+        long deadline = toMillis(expiresAt);
+        afterCommit(() -> wheel.schedule(orderId, deadline));
+    }
+
+    public void cancel(Long orderId) {
+        afterCommit(() -> wheel.cancel(orderId));
+    }
+
+    /**
+     * Reconstruye los timers de todas las órdenes PENDIENTE_PAGO, leyendo sus plazos
+     * en páginas por id para no cargarlas todas en memoria de una vez.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        Pageable page = PageRequest.of(0, REBUILD_PAGE_SIZE);
+        long afterId = 0;
+        int rebuilt = 0;
+        List<OrderRepository.OrderDeadline> pending;
+        do {
+            pending = orderRepository.findDeadlinesByEstado(OrderStatus.PENDIENTE_PAGO, afterId, page);
+            for (OrderRepository.OrderDeadline order : pending) {
+                wheel.schedule(order.getId(), toMillis(order.getExpiresAt()));
+                afterId = order.getId();
+            }
+            rebuilt += pending.size();
+        } while (pending.size() == REBUILD_PAGE_SIZE);
+        log.info("Timers de expiración reconstruidos: {} órdenes pendientes de pago", rebuilt);
+    }
+
+    @Scheduled(fixedRateString = "${orders.expiry.timer-tick-ms:1000}")
+    public void tick() {
+        List<Long> due = wheel.advance(System.currentTimeMillis());
+        if (due.isEmpty()) {
+            return;
+        }
+        firedTotal.addAndGet(due.size());
+
+        LocalDateTime now = LocalDateTime.now();
+        for (int from = 0; from < due.size(); from += FIRE_BATCH_SIZE) {
+            List<Long> batch = due.subList(from, Math.min(from + FIRE_BATCH_SIZE, due.size()));
+            try {
+                expiredTotal.addAndGet(expiryService.expireOrders(batch, now));
+            } catch (RuntimeException e) {
+                // Las órdenes quedan para el barrido periódico de OrderExpiryJob
+                log.warn("Error expirando {} órdenes desde timers: {}", batch.size(), e.getMessage());
+            }
+        }
+    }
+
+    @Override
+    public String metricsName() {
+        return "orderExpiryTimers";
+    }
+
+    @Override
+    public Map<String, Object> metrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("pendingTimers", wheel.size());
+        metrics.put("firedTotal", firedTotal.get());
+        metrics.put("expiredTotal", expiredTotal.get());
+        return metrics;
+    }
+
+    private static long toMillis(LocalDateTime dateTime) {
+        return dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
@@ -4,24 +4,27 @@ package com.laptophub.backend.service;
 import com.laptophub.backend.dto.*;
 import com.laptophub.backend.model.*;
 import com.laptophub.backend.model.OrderStatus;
-import com.laptophub.backend.model.PaymentStatus;
 import com.laptophub.backend.repository.OrderItemRepository;
 import com.laptophub.backend.repository.OrderRepository;
 import com.laptophub.backend.repository.ProductImageRepository;
 import com.laptophub.backend.repository.ProductRepository;
-import com.laptophub.backend.repository.ReviewRepository;
 import com.laptophub.backend.exception.ResourceNotFoundException;
 import com.laptophub.backend.exception.ValidationException;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.lang.NonNull;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
@@ -33,35 +36,31 @@ public class OrderService {
     private final OrderItemRepository orderItemRepository;
     private final ProductRepository productRepository;
     private final ProductImageRepository productImageRepository;
-    private final ReviewRepository reviewRepository;
     private final UserService userService;
     private final CartService cartService;
     private final PaymentService paymentService;
+    private final KeysetPaginator keysetPaginator;
+    private final OrderExpiryJob orderExpiryJob;
+    private final OrderExpiryTimers orderExpiryTimers;
     
     @Transactional
     @SuppressWarnings("null")
     public Order createOrderFromCart(UUID userId, String direccionEnvio) {
-        User user = userService.findById(userId);
+        User user = userService.getReference(userId);
         Cart cart = cartService.getOrCreateCart(userId);
         
         if (cart.getItems().isEmpty()) {
             throw new ValidationException("El carrito está vacío");
         }
         
+        Map<Long, Integer> quantities = new HashMap<>();
         for (CartItem cartItem : cart.getItems()) {
-            Long productId = cartItem.getProduct().getId();
-            Product product = productRepository.findByIdWithLock(productId)
-                .orElseThrow(() -> new ResourceNotFoundException("Producto no encontrado con id: " + productId));
-            
-            if (product.getStock() < cartItem.getCantidad()) {
-                throw new ValidationException("Stock insuficiente para producto " + product.getId());
-            }
-
-            cartItem.setProduct(product);
+            quantities.merge(cartItem.getProduct().getId(), cartItem.getCantidad(), Integer::sum);
         }
+        Map<Long, Product> products = reserveStock(quantities);
         
         BigDecimal total = cart.getItems().stream()
-                .map(item -> item.getProduct().getPrecio()
+                .map(item -> products.get(item.getProduct().getId()).getPrecio()
                         .multiply(BigDecimal.valueOf(item.getCantidad())))
                 .reduce(BigDecimal.ZERO, BigDecimal::add);
         
@@ -76,7 +75,7 @@ public class OrderService {
         Order savedOrder = orderRepository.save(order);
         
         for (CartItem cartItem : cart.getItems()) {
-            Product product = cartItem.getProduct();
+            Product product = products.get(cartItem.getProduct().getId());
             
             OrderItem orderItem = OrderItem.builder()
                     .order(savedOrder)
@@ -86,24 +85,47 @@ public class OrderService {
                     .build();
             
             orderItemRepository.save(orderItem);
-            
-            Integer newStock = product.getStock() - cartItem.getCantidad();
-            product.setStock(newStock);
-            productRepository.save(product);
         }
         
-        try {
-            Payment payment = paymentService.createPayment(savedOrder, total);
-            savedOrder.setPayment(payment);
-        } catch (com.stripe.exception.StripeException e) {
-            throw new ValidationException("Error al procesar pago con Stripe: " + e.getMessage());
-        }
+        // El PaymentIntent se crea fuera de esta transacción (ver PaymentOutboxDispatcher)
+        Payment payment = paymentService.createPendingPayment(savedOrder, total);
+        savedOrder.setPayment(payment);
         
         cartService.clearCart(userId);
+        orderExpiryTimers.register(savedOrder.getId(), savedOrder.getExpiresAt());
         
         return savedOrder;
     }
     
+    /**
+     * Fase de stock del checkout: descuenta el stock con UPDATE condicionales en orden
+     * de id, sin SELECT ... FOR UPDATE previo. Los locks de fila los toman esos UPDATE,
+     * siempre en el mismo orden, así que dos checkouts no pueden cruzarse.
+     * Los precios se leen después, de filas que ya quedaron bloqueadas por la reserva.
+     * Debe llamarse dentro de la transacción del checkout.
+     *
+     * @return productos reservados por id
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public Map<Long, Product> reserveStock(Map<Long, Integer> quantities) {
+        List<Long> sinStock = productRepository.reserveStock(quantities);
+        
+        Map<Long, Product> products = productRepository.findAllById(quantities.keySet()).stream()
+                .collect(Collectors.toMap(Product::getId, product -> product));
+        for (Long productId : quantities.keySet()) {
+            if (!products.containsKey(productId)) {
+                throw new ResourceNotFoundException("Producto no encontrado con id: " + productId);
+            }
+        }
+        
+        if (!sinStock.isEmpty()) {
+            throw new ValidationException("Stock insuficiente para producto " + sinStock.stream()
+                    .map(String::valueOf)
+                    .collect(Collectors.joining(", ")));
+        }
+        return products;
+    }
+    
     @Transactional(readOnly = true)
     @SuppressWarnings("null")
     public Order findById(Long orderId) {
@@ -113,19 +135,19 @@ public class OrderService {
     
     @Transactional(readOnly = true)
     public Page<Order> findByUserId(UUID userId, @NonNull Pageable pageable) {
-        User user = userService.findById(userId);
-        return orderRepository.findByUser(user, pageable);
+        User user = userService.getReference(userId);
+        return fetchPage(orderRepository.findIdsByUser(user, pageable));
     }
     
     @Transactional(readOnly = true)
     public List<Order> findByUserId(UUID userId) {
-        User user = userService.findById(userId);
+        User user = userService.getReference(userId);
         return orderRepository.findByUser(user);
     }
     
     @Transactional(readOnly = true)
     public Page<Order> findByStatus(OrderStatus estado, @NonNull Pageable pageable) {
-        return orderRepository.findByEstado(estado, pageable);
+        return fetchPage(orderRepository.findIdsByEstado(estado, pageable));
     }
     
     @Transactional(readOnly = true)
@@ -141,8 +163,11 @@ public class OrderService {
     }
     
     @Transactional
+    @SuppressWarnings("null")
     public Order cancelOrder(Long orderId) {
-        Order order = findById(orderId);
+        // Con lock: si el job de expiración tomó la orden, se espera y se ve el estado final
+        Order order = orderRepository.findByIdForUpdate(orderId)
+                .orElseThrow(() -> new ResourceNotFoundException("Orden no encontrada con id: " + orderId));
         
         boolean canCancel = order.getEstado() == OrderStatus.PENDIENTE || 
                            order.getEstado() == OrderStatus.PENDIENTE_PAGO;
@@ -154,30 +179,16 @@ public class OrderService {
         
         restoreOrderStock(order);
         order.setEstado(OrderStatus.CANCELADO);
+        paymentService.failPendingPayment(order);
+        orderExpiryTimers.cancel(orderId);
         return orderRepository.save(order);
     }
 
-    @Transactional
+    /**
+     * Ejecución manual de la expiración; normalmente la hace OrderExpiryJob de forma programada.
+     */
     public int expirePendingPaymentOrders() {
-        LocalDateTime now = LocalDateTime.now();
-        List<Order> expired = orderRepository.findByEstadoAndExpiresAtBefore(OrderStatus.PENDIENTE_PAGO, now);
-        
-        if (expired.isEmpty()) {
-            return 0;
-        }
-        
-        for (Order order : expired) {
-            restoreOrderStock(order);
-            order.setEstado(OrderStatus.EXPIRADO);
-            
-            if (order.getPayment() != null) {
-                order.getPayment().setEstado(PaymentStatus.FALLIDO);
-            }
-            
-            orderRepository.save(order);
-        }
-        
-        return expired.size();
+        return orderExpiryJob.runOnce();
     }
     
     @Transactional(readOnly = true)
@@ -185,12 +196,24 @@ public class OrderService {
         return orderRepository.findAll();
     }
     
+    /**
+     * Completa una página de ids con las órdenes y sus colecciones, manteniendo el orden.
+     */
+    private Page<Order> fetchPage(Page<Long> ids) {
+        if (ids.isEmpty()) {
+            return new PageImpl<>(List.of(), ids.getPageable(), ids.getTotalElements());
+        }
+        List<Order> orders = KeysetPaginator.inIdOrder(
+                ids.getContent(), orderRepository.findByIdIn(ids.getContent()), Order::getId);
+        return new PageImpl<>(orders, ids.getPageable(), ids.getTotalElements());
+    }
+    
     private void restoreOrderStock(Order order) {
+        Map<Long, Integer> quantities = new HashMap<>();
         for (OrderItem item : order.getOrderItems()) {
-            Product product = item.getProduct();
-            product.setStock(product.getStock() + item.getCantidad());
-            productRepository.save(product);
+            quantities.merge(item.getProduct().getId(), item.getCantidad(), Integer::sum);
         }
+        productRepository.releaseStock(quantities);
     }
     
     // Métodos que retornan DTOs
@@ -209,7 +232,7 @@ public class OrderService {
     
     @Transactional(readOnly = true)
     public Page<OrderResponseDTO> findAllDTO(@NonNull Pageable pageable) {
-        return orderRepository.findAll(pageable).map(this::mapOrderToDTO);
+        return fetchPage(orderRepository.findIds(pageable)).map(this::mapOrderToDTO);
     }
     
     @Transactional(readOnly = true)
@@ -222,12 +245,69 @@ public class OrderService {
         return findByStatus(estado, pageable).map(this::mapOrderToDTO);
     }
     
+    @Transactional(readOnly = true)
+    public CursorPageDTO<OrderResponseDTO> findAllAfterDTO(String after, @NonNull Pageable pageable) {
+        return findAfter(Map.of(), after, pageable);
+    }
+    
+    @Transactional(readOnly = true)
+    public CursorPageDTO<OrderResponseDTO> findByUserIdAfterDTO(UUID userId, String after, @NonNull Pageable pageable) {
+        User user = userService.getReference(userId);
+        return findAfter(Map.of("user", user), after, pageable);
+    }
+    
+    @Transactional(readOnly = true)
+    public CursorPageDTO<OrderResponseDTO> findByStatusAfterDTO(OrderStatus estado, String after, @NonNull Pageable pageable) {
+        return findAfter(Map.of("estado", estado), after, pageable);
+    }
+    
+    private CursorPageDTO<OrderResponseDTO> findAfter(Map<String, Object> filters, String after, Pageable pageable) {
+        KeysetPaginator.KeysetPage page = keysetPaginator.page(
+                Order.class, filters, after, pageable, Set.of("id", "total", "createdAt"));
+        List<OrderResponseDTO> content = page.ids().isEmpty()
+                ? List.of()
+                : KeysetPaginator.inIdOrder(page.ids(), orderRepository.findByIdIn(page.ids()), Order::getId)
+                        .stream()
+                        .map(this::mapOrderToDTO)
+                        .collect(Collectors.toList());
+        return new CursorPageDTO<>(content, pageable.getPageSize(), page.hasNext(), page.next());
+    }
+    
     @Transactional
     public OrderResponseDTO updateOrderStatusDTO(Long orderId, OrderStatus newStatus) {
         Order order = updateOrderStatus(orderId, newStatus);
         return mapOrderToDTO(order);
     }
     
+    /**
+     * Estado del pago de la orden para que el cliente consulte hasta recibir el clientSecret.
+     */
+    @Transactional(readOnly = true)
+    public PaymentResponseDTO findPaymentDTO(Long orderId) {
+        Order order = findById(orderId);
+        if (order.getPayment() == null) {
+            throw new ResourceNotFoundException("La orden " + orderId + " no tiene un pago asociado");
+        }
+        PaymentResponseDTO payment = DTOMapper.toPaymentResponse(order.getPayment());
+        payment.setClientSecret(order.getPayment().getStripeClientSecret());
+        return payment;
+    }
+    
+    @Transactional
+    public OrderResponseDTO refreshPaymentDTO(Long orderId) {
+        Order order = findById(orderId);
+        if (order.getPayment() == null) {
+            throw new ValidationException("La orden no tiene un pago asociado");
+        }
+        
+        try {
+            paymentService.refreshFromStripe(order.getPayment());
+        } catch (com.stripe.exception.StripeException e) {
+            throw new ValidationException("Error al consultar el pago en Stripe: " + e.getMessage());
+        }
+        return mapOrderToDTO(order);
+    }
+    
     @Transactional
     public OrderResponseDTO cancelOrderDTO(Long orderId) {
         Order order = cancelOrder(orderId);
@@ -242,10 +322,7 @@ public class OrderService {
         PaymentResponseDTO payment = null;
         if (order.getPayment() != null) {
             payment = DTOMapper.toPaymentResponse(order.getPayment());
-            if (order.getPayment().getStripePaymentId() != null) {
-                String clientSecret = paymentService.getClientSecret(order.getPayment().getStripePaymentId());
-                payment.setClientSecret(clientSecret);
-            }
+            payment.setClientSecret(order.getPayment().getStripeClientSecret());
         }
         return DTOMapper.toOrderResponse(order, items, payment);
     }
@@ -255,12 +332,6 @@ public class OrderService {
         List<ProductImage> images = productImageRepository.findByProductIdOrderByOrdenAsc(product.getId());
         ProductImage mainImage = images.isEmpty() ? null : images.get(0);
         
-        List<Review> reviews = reviewRepository.findByProduct(product);
-        Double avgRating = reviews.stream()
-                .mapToInt(Review::getRating)
-                .average()
-                .orElse(0.0);
-        
-        return DTOMapper.toOrderItemResponse(item, mainImage, avgRating);
+        return DTOMapper.toOrderItemResponse(item, mainImage, product.getAverageRating());
     }
 }
@@ -0,0 +1,70 @@
+package com.laptophub.backend.service;
+
+import com.stripe.model.PaymentIntent;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Crea en Stripe los PaymentIntent encolados por el checkout.
+ *
+ * Cada lote se reclama en una transacción corta y las llamadas a Stripe se hacen
+ * sin transacción ni locks abiertos. La idempotency key del registro (un UUID
+ * generado al encolar) hace que un reintento (o dos instancias tomando el mismo
+ * registro tras vencer el lease) devuelva el mismo PaymentIntent en vez de crear otro.
+ */
+@Component
+@RequiredArgsConstructor
+public class PaymentOutboxDispatcher {
+
+    private static final Logger log = LoggerFactory.getLogger(PaymentOutboxDispatcher.class);
+
+    private final PaymentOutboxService outboxService;
+    private final StripeService stripeService;
+
+    @Value("${payments.outbox.batch-size:20}")
+    private int batchSize;
+
+    @Scheduled(fixedDelayString = "${payments.outbox.poll-interval-ms:1000}")
+    public void dispatch() {
+        List<PaymentOutboxService.PendingIntent> batch;
+        do {
+            batch = outboxService.claimDue(batchSize);
+            batch.forEach(this::createIntent);
+        } while (batch.size() == batchSize);
+    }
+
+    private void createIntent(PaymentOutboxService.PendingIntent pending) {
+        try {
+            PaymentIntent paymentIntent = stripeService.createPaymentIntent(
+                    pending.orderId(),
+                    pending.monto(),
+                    pending.email(),
+                    pending.idempotencyKey());
+            if (!outboxService.complete(pending, paymentIntent.getId(), paymentIntent.getClientSecret())) {
+                cancelIntent(pending, paymentIntent.getId());
+            }
+        } catch (Exception e) {
+            log.warn("No se pudo crear el PaymentIntent del pago {}: {}", pending.paymentId(), e.getMessage());
+            outboxService.fail(pending.outboxId(), e.getMessage());
+        }
+    }
+
+    /**
+     * La orden dejó de esperar pago mientras se creaba el PaymentIntent: se cancela en
+     * Stripe para que el cliente no pueda pagarlo.
+     */
+    private void cancelIntent(PaymentOutboxService.PendingIntent pending, String paymentIntentId) {
+        try {
+            stripeService.cancelPaymentIntent(paymentIntentId);
+        } catch (Exception e) {
+            log.warn("No se pudo cancelar el PaymentIntent {} del pago {}: {}",
+                    paymentIntentId, pending.paymentId(), e.getMessage());
+        }
+    }
+}
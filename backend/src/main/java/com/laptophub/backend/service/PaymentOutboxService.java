@@ -0,0 +1,163 @@
+package com.laptophub.backend.service;
+
+import com.laptophub.backend.model.OrderStatus;
+import com.laptophub.backend.model.Payment;
+import com.laptophub.backend.model.PaymentOutbox;
+import com.laptophub.backend.model.PaymentStatus;
+import com.laptophub.backend.repository.OrderRepository;
+import com.laptophub.backend.repository.PaymentOutboxRepository;
+import com.laptophub.backend.repository.PaymentRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Operaciones transaccionales cortas sobre la outbox de pagos. Las llamadas a Stripe
+ * las hace PaymentOutboxDispatcher entre una transacción y otra.
+ */
+@Service
+@RequiredArgsConstructor
+public class PaymentOutboxService {
+
+    static final int MAX_ATTEMPTS = 8;
+    // Tiempo que un registro reclamado queda reservado para la instancia que lo tomó
+    private static final long LEASE_SECONDS = 60;
+    private static final long MAX_BACKOFF_SECONDS = 600;
+
+    private final PaymentOutboxRepository outboxRepository;
+    private final PaymentRepository paymentRepository;
+    private final OrderRepository orderRepository;
+
+    /**
+     * Datos necesarios para crear el PaymentIntent sin volver a la BD.
+     */
+    public record PendingIntent(Long outboxId, Long paymentId, Long orderId, BigDecimal monto, String email,
+                                String idempotencyKey) {
+    }
+
+    @Transactional
+    public void enqueue(Payment payment) {
+        outboxRepository.save(PaymentOutbox.builder()
+                .payment(payment)
+                .idempotencyKey("payment-" + UUID.randomUUID())
+                .build());
+    }
+
+    /**
+     * Descarta el registro de un pago que ya no debe crearse en Stripe (orden cancelada).
+     */
+    @Transactional
+    public void discard(Long paymentId) {
+        outboxRepository.deleteByPaymentId(paymentId);
+    }
+
+    /**
+     * Descarta los registros de los pagos de las órdenes indicadas (órdenes expiradas).
+     */
+    @Transactional
+    public void discardByOrderIds(Collection<Long> orderIds) {
+        outboxRepository.deleteByOrderIds(orderIds);
+    }
+
+    /**
+     * Reclama hasta {@code limit} registros vencidos corriendo su próximo intento
+     * como lease. Los pagos que ya no están pendientes o cuya orden ya no espera
+     * pago (cancelada o expirada) se descartan sin llamar a Stripe.
+     */
+    @Transactional
+    public List<PendingIntent> claimDue(int limit) {
+        LocalDateTime now = LocalDateTime.now();
+        List<PendingIntent> claimed = new ArrayList<>();
+
+        for (PaymentOutbox entry : outboxRepository.lockDue(now, limit)) {
+            Payment payment = entry.getPayment();
+            if (!isPayable(payment) || payment.getStripePaymentId() != null) {
+                outboxRepository.delete(entry);
+                continue;
+            }
+
+            entry.setNextAttemptAt(now.plusSeconds(LEASE_SECONDS));
+            claimed.add(new PendingIntent(
+                    entry.getId(),
+                    payment.getId(),
+                    payment.getOrder().getId(),
+                    payment.getMonto(),
+                    payment.getOrder().getUser().getEmail(),
+                    entry.getIdempotencyKey()));
+        }
+        return claimed;
+    }
+
+    /**
+     * Guarda el PaymentIntent creado y elimina el registro de la outbox.
+     * No pisa un stripePaymentId asignado mientras tanto.
+     *
+     * Bloquea la orden como cancelOrder y la expiración, así que ninguna de las dos
+     * puede cambiarla entre la verificación y el guardado.
+     *
+     * @return false si el pago ya no debe usar este PaymentIntent (la orden se canceló
+     *         o expiró mientras se llamaba a Stripe) y hay que cancelarlo
+     */
+    @Transactional
+    @SuppressWarnings("null")
+    public boolean complete(PendingIntent pending, String stripePaymentId, String clientSecret) {
+        orderRepository.findByIdForUpdate(pending.orderId());
+        Optional<PaymentOutbox> found = outboxRepository.findById(pending.outboxId());
+        if (found.isEmpty()) {
+            // Otra instancia lo completó con la misma idempotency key, o la orden se canceló
+            return paymentRepository.findByStripePaymentId(stripePaymentId).isPresent();
+        }
+
+        PaymentOutbox entry = found.get();
+        Payment payment = entry.getPayment();
+        outboxRepository.delete(entry);
+        if (!isPayable(payment)) {
+            return false;
+        }
+        if (payment.getStripePaymentId() == null) {
+            payment.setStripePaymentId(stripePaymentId);
+            payment.setStripeClientSecret(clientSecret);
+            paymentRepository.save(payment);
+        }
+        return stripePaymentId.equals(payment.getStripePaymentId());
+    }
+
+    /**
+     * Programa un reintento con backoff exponencial; al agotar los intentos
+     * marca el pago como fallido.
+     */
+    @Transactional
+    @SuppressWarnings("null")
+    public void fail(Long outboxId, String error) {
+        outboxRepository.findById(outboxId).ifPresent(entry -> {
+            int intentos = entry.getIntentos() + 1;
+            if (intentos >= MAX_ATTEMPTS) {
+                Payment payment = entry.getPayment();
+                payment.setEstado(PaymentStatus.FALLIDO);
+                paymentRepository.save(payment);
+                outboxRepository.delete(entry);
+                return;
+            }
+
+            long backoff = Math.min(MAX_BACKOFF_SECONDS, 5L << (intentos - 1));
+            entry.setIntentos(intentos);
+            entry.setNextAttemptAt(LocalDateTime.now().plusSeconds(backoff));
+            entry.setLastError(error != null && error.length() > 500 ? error.substring(0, 500) : error);
+            outboxRepository.save(entry);
+        });
+    }
+
+    private boolean isPayable(Payment payment) {
+        OrderStatus estado = payment.getOrder().getEstado();
+        return payment.getEstado() == PaymentStatus.PENDIENTE
+                && (estado == OrderStatus.PENDIENTE || estado == OrderStatus.PENDIENTE_PAGO);
+    }
+}
@@ -5,40 +5,75 @@ import com.laptophub.backend.dto.CreatePaymentDTO;
 import com.laptophub.backend.dto.DTOMapper;
 import com.laptophub.backend.dto.PaymentResponseDTO;
 import com.laptophub.backend.model.Order;
+import com.laptophub.backend.model.OrderStatus;
 import com.laptophub.backend.model.Payment;
 import com.laptophub.backend.model.PaymentStatus;
 import com.laptophub.backend.repository.OrderRepository;
 import com.laptophub.backend.repository.PaymentRepository;
+import com.laptophub.backend.exception.ConflictException;
 import com.laptophub.backend.exception.ResourceNotFoundException;
 import com.laptophub.backend.exception.ValidationException;
 import com.stripe.exception.StripeException;
 import com.stripe.model.PaymentIntent;
 import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.math.BigDecimal;
+import java.util.UUID;
 
 @Service
 @RequiredArgsConstructor
 public class PaymentService {
-        public String getClientSecret(String stripePaymentId) {
-            try {
-                com.stripe.model.PaymentIntent paymentIntent = stripeService.retrievePaymentIntent(stripePaymentId);
-                return paymentIntent.getClientSecret();
-            } catch (Exception e) {
-                System.err.println("[PaymentService] Error obteniendo clientSecret: " + e.getMessage());
-                return null;
-            }
-        }
+    
+    private static final Logger log = LoggerFactory.getLogger(PaymentService.class);
     
     private final PaymentRepository paymentRepository;
     private final OrderRepository orderRepository;
     private final StripeService stripeService;
+    private final PaymentOutboxService paymentOutboxService;
+    private final OrderExpiryTimers orderExpiryTimers;
     
+    /**
+     * Crea el pago y su PaymentIntent en Stripe de forma síncrona.
+     * El checkout usa {@link #createPendingPayment} para no llamar a Stripe dentro de su transacción.
+     */
     @Transactional
     @SuppressWarnings("null")
     public Payment createPayment(Order order, BigDecimal amount) throws StripeException {
+        Payment payment = paymentRepository.save(newPayment(order, amount));
+
+        // Crear PaymentIntent en Stripe
+        PaymentIntent paymentIntent = stripeService.createPaymentIntent(
+                order.getId(),
+                amount,
+                order.getUser().getEmail(),
+                "payment-" + UUID.randomUUID()
+        );
+
+        payment.setStripePaymentId(paymentIntent.getId());
+        payment.setStripeClientSecret(paymentIntent.getClientSecret());
+        return paymentRepository.save(payment);
+    }
+    
+    /**
+     * Crea el pago en estado PENDIENTE y lo encola en la outbox; el PaymentIntent
+     * lo crea PaymentOutboxDispatcher después del commit.
+     */
+    @Transactional
+    @SuppressWarnings("null")
+    public Payment createPendingPayment(Order order, BigDecimal amount) {
+        Payment payment = paymentRepository.save(newPayment(order, amount));
+        paymentOutboxService.enqueue(payment);
+        return payment;
+    }
+    
+    private Payment newPayment(Order order, BigDecimal amount) {
         if (order.getPayment() != null) {
             throw new ValidationException("La orden ya tiene un pago asociado");
         }
@@ -52,22 +87,30 @@ public class PaymentService {
             throw new ValidationException("El monto no coincide con el total de la orden");
         }
 
-        Payment payment = Payment.builder()
+        return Payment.builder()
                 .order(order)
                 .monto(amount)
                 .estado(PaymentStatus.PENDIENTE)
                 .build();
+    }
+    
+    /**
+     * Única consulta en vivo a Stripe para un pago existente: vuelve a leer el
+     * PaymentIntent, actualiza el clientSecret guardado y marca el pago como
+     * completado si Stripe ya lo confirmó.
+     */
+    @Transactional
+    public Payment refreshFromStripe(Payment payment) throws StripeException {
+        String stripePaymentId = payment.getStripePaymentId();
+        if (stripePaymentId == null) {
+            throw new ValidationException("El pago no tiene asociado un stripePaymentId");
+        }
         
-        payment = paymentRepository.save(payment);
-
-        // Crear PaymentIntent en Stripe
-        PaymentIntent paymentIntent = stripeService.createPaymentIntent(
-                order.getId(),
-                amount,
-                order.getUser().getEmail()
-        );
-
-        payment.setStripePaymentId(paymentIntent.getId());
+        PaymentIntent paymentIntent = stripeService.retrievePaymentIntent(stripePaymentId);
+        payment.setStripeClientSecret(paymentIntent.getClientSecret());
+        if ("succeeded".equals(paymentIntent.getStatus()) && payment.getEstado() != PaymentStatus.COMPLETADO) {
+            markCompleted(payment);
+        }
         return paymentRepository.save(payment);
     }
     
@@ -88,10 +131,58 @@ public class PaymentService {
     @Transactional
     public Payment updatePaymentStatus(Long paymentId, PaymentStatus newStatus) {
         Payment payment = findById(paymentId);
-        payment.setEstado(newStatus);
+        if (newStatus == PaymentStatus.COMPLETADO) {
+            requireAwaitingPayment(payment);
+            markCompleted(payment);
+        } else {
+            payment.setEstado(newStatus);
+        }
         return paymentRepository.save(payment);
     }
     
+    /**
+     * Un pago completado ya no debe expirar su orden: se cancela el timer.
+     *
+     * Si la orden ya no espera el pago (expirada o cancelada, con el stock liberado) el
+     * pago no se completa: queda como está y se registra como error para reembolsarlo.
+     * La orden se bloquea para no cruzarse con una expiración en curso.
+     *
+     * @return false si la orden ya no acepta el pago
+     */
+    private boolean markCompleted(Payment payment) {
+        Long orderId = payment.getOrder().getId();
+        OrderStatus estado = lockOrderEstado(orderId);
+        if (!isAwaitingPayment(estado)) {
+            log.error("Pago {} ({}) confirmado para la orden {} en estado {}: no se completa, requiere reembolso",
+                    payment.getId(), payment.getStripePaymentId(), orderId, estado);
+            return false;
+        }
+        payment.setEstado(PaymentStatus.COMPLETADO);
+        orderExpiryTimers.cancel(orderId);
+        return true;
+    }
+    
+    /**
+     * Rechaza completar o confirmar un pago cuya orden ya no lo acepta.
+     */
+    private void requireAwaitingPayment(Payment payment) {
+        Long orderId = payment.getOrder().getId();
+        OrderStatus estado = lockOrderEstado(orderId);
+        if (!isAwaitingPayment(estado)) {
+            throw new ConflictException("La orden " + orderId + " ya no acepta pagos (estado " + estado + ")");
+        }
+    }
+    
+    private OrderStatus lockOrderEstado(Long orderId) {
+        return orderRepository.lockEstado(orderId)
+                .map(OrderStatus::valueOf)
+                .orElseThrow(() -> new ResourceNotFoundException("Orden no encontrada con id: " + orderId));
+    }
+    
+    private static boolean isAwaitingPayment(OrderStatus estado) {
+        return estado == OrderStatus.PENDIENTE || estado == OrderStatus.PENDIENTE_PAGO;
+    }
+    
     @Transactional
     public Payment setStripePaymentId(Long paymentId, String stripePaymentId) {
         Payment payment = findById(paymentId);
@@ -104,7 +195,8 @@ public class PaymentService {
         Payment payment = findById(paymentId);
         
         if (success) {
-            payment.setEstado(PaymentStatus.COMPLETADO);
+            requireAwaitingPayment(payment);
+            markCompleted(payment);
             payment.setStripePaymentId("sim_" + System.currentTimeMillis());
         } else {
             payment.setEstado(PaymentStatus.FALLIDO);
@@ -123,12 +215,15 @@ public class PaymentService {
             throw new ValidationException("El pago no tiene asociado un stripePaymentId");
         }
 
+        // Una orden expirada o cancelada ya liberó su stock: no se cobra
+        requireAwaitingPayment(payment);
+
         // Confirmar el pago con Stripe
         PaymentIntent paymentIntent = stripeService.confirmPayment(stripePaymentId);
 
         // Actualizar el estado del pago basado en la respuesta de Stripe
         if ("succeeded".equals(paymentIntent.getStatus())) {
-            payment.setEstado(PaymentStatus.COMPLETADO);
+            markCompleted(payment);
         } else if ("requires_action".equals(paymentIntent.getStatus())) {
             payment.setEstado(PaymentStatus.PENDIENTE);
         } else {
@@ -152,8 +247,7 @@ public class PaymentService {
 
         boolean isSucceeded = stripeService.isPaymentSucceeded(stripePaymentId);
 
-        if (isSucceeded && payment.getEstado() != PaymentStatus.COMPLETADO) {
-            payment.setEstado(PaymentStatus.COMPLETADO);
+        if (isSucceeded && payment.getEstado() != PaymentStatus.COMPLETADO && markCompleted(payment)) {
             return paymentRepository.save(payment);
         }
 
@@ -161,6 +255,38 @@ public class PaymentService {
     }
 
 
+    /**
+     * Marca como fallido el pago no completado de una orden que se cancela (igual que
+     * la expiración) y lo saca de la outbox para que no se cree su PaymentIntent.
+     * Si el PaymentIntent ya existía, se cancela en Stripe después del commit.
+     * Debe llamarse con la orden bloqueada, dentro de la transacción de la cancelación.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void failPendingPayment(Order order) {
+        Payment payment = order.getPayment();
+        if (payment == null || payment.getEstado() == PaymentStatus.COMPLETADO) {
+            return;
+        }
+        payment.setEstado(PaymentStatus.FALLIDO);
+        paymentRepository.save(payment);
+        paymentOutboxService.discard(payment.getId());
+
+        String stripePaymentId = payment.getStripePaymentId();
+        if (stripePaymentId != null) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    try {
+                        stripeService.cancelPaymentIntent(stripePaymentId);
+                    } catch (Exception e) {
+                        log.warn("No se pudo cancelar el PaymentIntent {} de la orden {}: {}",
+                                stripePaymentId, order.getId(), e.getMessage());
+                    }
+                }
+            });
+        }
+    }
+
     @Transactional
     public Payment cancelPayment(Long paymentId) throws StripeException {
         Payment payment = findById(paymentId);
@@ -189,14 +315,8 @@ public class PaymentService {
             throw new ValidationException("El monto no coincide con el total de la orden");
         }
         Payment payment = createPayment(order, orderTotal);
-        // Obtener clientSecret del PaymentIntent
-        String clientSecret = null;
-        if (payment.getStripePaymentId() != null) {
-            com.stripe.model.PaymentIntent paymentIntent = stripeService.retrievePaymentIntent(payment.getStripePaymentId());
-            clientSecret = paymentIntent.getClientSecret();
-        }
         PaymentResponseDTO dtoResp = DTOMapper.toPaymentResponse(payment);
-        dtoResp.setClientSecret(clientSecret);
+        dtoResp.setClientSecret(payment.getStripeClientSecret());
         return dtoResp;
     }
     
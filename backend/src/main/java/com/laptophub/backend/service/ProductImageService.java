@@ -0,0 +1,281 @@
+package com.laptophub.backend.service;
+
+import com.laptophub.backend.dto.DTOMapper;
+import com.laptophub.backend.dto.ImageUploadResultDTO;
+import com.laptophub.backend.dto.ProductImageBatchResponseDTO;
+import com.laptophub.backend.exception.ResourceNotFoundException;
+import com.laptophub.backend.exception.ServiceUnavailableException;
+import com.laptophub.backend.exception.ValidationException;
+import com.laptophub.backend.model.Product;
+import com.laptophub.backend.model.ProductImage;
+import com.laptophub.backend.repository.ProductImageRepository;
+import com.laptophub.backend.repository.ProductRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Subida de galerías de imágenes de producto en lote.
+ *
+ * - Cada archivo pasa por ImageUploadService en su propio hilo virtual; como mucho
+ *   {@code images.batch.parallelism} subidas del lote corren a la vez (además del
+ *   límite global de subidas de CloudinaryService)
+ * - Las filas de las imágenes subidas se insertan juntas en un único batch JDBC,
+ *   sin mantener una transacción abierta mientras se espera al almacenamiento
+ * - Un archivo que falla no invalida al resto: la respuesta informa el resultado de cada uno
+ * - Las URLs reutilizadas por hash se registran bloqueando la fila de la que salieron,
+ *   así su borrado no puede cruzarse con el insert (ver ImageDeletionService.claimDue)
+ */
+@Service
+public class ProductImageService {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductImageService.class);
+
+    private static final String FOLDER = "laptophub/products";
+
+    private final ProductRepository productRepository;
+    private final ProductImageRepository productImageRepository;
+    private final ImageUploadService imageUploadService;
+    private final ImageDeletionService imageDeletionService;
+    private final TransactionTemplate transactionTemplate;
+    private final int maxFiles;
+    private final int parallelism;
+
+    public ProductImageService(
+            ProductRepository productRepository,
+            ProductImageRepository productImageRepository,
+            ImageUploadService imageUploadService,
+            ImageDeletionService imageDeletionService,
+            TransactionTemplate transactionTemplate,
+            @Value("${images.batch.max-files:20}") int maxFiles,
+            @Value("${images.batch.parallelism:4}") int parallelism) {
+        this.productRepository = productRepository;
+        this.productImageRepository = productImageRepository;
+        this.imageUploadService = imageUploadService;
+        this.imageDeletionService = imageDeletionService;
+        this.transactionTemplate = transactionTemplate;
+        this.maxFiles = maxFiles;
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Sube una imagen y la registra. Si la URL reutilizada por hash dejó de existir
+     * entre la subida y el insert (su imagen se eliminó), se vuelve a subir el archivo.
+     */
+    @SuppressWarnings("null")
+    public ProductImage addImage(Long productId, MultipartFile file, Integer orden, String descripcion)
+            throws IOException {
+        if (!productRepository.existsById(productId)) {
+            throw new ResourceNotFoundException("Producto no encontrado con id: " + productId);
+        }
+
+        for (int attempt = 0; ; attempt++) {
+            ImageUploadService.StoredImage stored = imageUploadService.store(file, FOLDER);
+            ProductImage saved = transactionTemplate.execute(status -> {
+                if (!vanishedUrls(List.of(stored)).isEmpty()) {
+                    return null;
+                }
+                Product product = productRepository.getReferenceById(productId);
+                return productImageRepository.save(ProductImage.builder()
+                        .url(stored.url())
+                        .orden(orden)
+                        .descripcion(descripcion)
+                        .contentHash(stored.contentHash())
+                        .product(product)
+                        .build());
+            });
+            if (saved != null) {
+                return saved;
+            }
+            if (attempt > 0) {
+                throw new ServiceUnavailableException("La imagen se está eliminando; intente subirla de nuevo");
+            }
+        }
+    }
+
+    /**
+     * Sube los archivos en paralelo y registra las imágenes que se subieron bien.
+     *
+     * @param ordenes orden de cada archivo, en la misma posición
+     * @param descripciones descripción de cada archivo (opcional; vacía = sin descripción)
+     */
+    @SuppressWarnings("null")
+    public ProductImageBatchResponseDTO uploadBatch(
+            Long productId, List<MultipartFile> files, List<Integer> ordenes, List<String> descripciones) {
+        validateBatch(files, ordenes, descripciones);
+        if (!productRepository.existsById(productId)) {
+            throw new ResourceNotFoundException("Producto no encontrado con id: " + productId);
+        }
+
+        List<ImageUploadResultDTO> results = new ArrayList<>(files.size());
+        List<ProductImage> uploaded = new ArrayList<>();
+        List<Integer> uploadedIndexes = new ArrayList<>();
+        List<ImageUploadService.StoredImage> storedImages = new ArrayList<>();
+
+        List<Future<ImageUploadService.StoredImage>> uploads = uploadAll(files);
+        for (int i = 0; i < files.size(); i++) {
+            ImageUploadResultDTO result = ImageUploadResultDTO.builder()
+                    .index(i)
+                    .fileName(files.get(i).getOriginalFilename())
+                    .build();
+            try {
+                ImageUploadService.StoredImage stored = uploads.get(i).get();
+                ProductImage image = ProductImage.builder()
+                        .url(stored.url())
+                        .orden(ordenes.get(i))
+                        .descripcion(descripcionAt(descripciones, i))
+                        .contentHash(stored.contentHash())
+                        .build();
+                uploaded.add(image);
+                storedImages.add(stored);
+                uploadedIndexes.add(i);
+                result.setSuccess(true);
+            } catch (ExecutionException e) {
+                result.setError(uploadError(e.getCause()));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ServiceUnavailableException("Subida de imágenes interrumpida");
+            }
+            results.add(result);
+        }
+
+        Set<String> vanished = insertUploaded(productId, uploaded, storedImages);
+        int inserted = 0;
+        for (int i = 0; i < uploaded.size(); i++) {
+            ImageUploadResultDTO result = results.get(uploadedIndexes.get(i));
+            if (vanished.contains(uploaded.get(i).getUrl())) {
+                result.setSuccess(false);
+                result.setError("La imagen se está eliminando; intente subirla de nuevo");
+                continue;
+            }
+            result.setImage(DTOMapper.toProductImageDTO(uploaded.get(i)));
+            inserted++;
+        }
+
+        return ProductImageBatchResponseDTO.builder()
+                .productId(productId)
+                .uploaded(inserted)
+                .failed(files.size() - inserted)
+                .results(results)
+                .build();
+    }
+
+    private List<Future<ImageUploadService.StoredImage>> uploadAll(List<MultipartFile> files) {
+        Semaphore permits = new Semaphore(parallelism);
+        List<Future<ImageUploadService.StoredImage>> uploads = new ArrayList<>(files.size());
+        // close() espera a que terminen todas las subidas del lote
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (MultipartFile file : files) {
+                uploads.add(executor.submit(() -> {
+                    permits.acquire();
+                    try {
+                        return imageUploadService.store(file, FOLDER);
+                    } finally {
+                        permits.release();
+                    }
+                }));
+            }
+        }
+        return uploads;
+    }
+
+    /**
+     * Inserta las imágenes en una transacción que primero bloquea las filas de las URLs
+     * reutilizadas por hash; las que ya no existen no se insertan.
+     *
+     * Si el insert falla, las imágenes subidas en este lote quedarían huérfanas en el
+     * almacenamiento: se encolan para borrar antes de propagar el error. Las reutilizadas
+     * por hash pertenecen a otras imágenes y no se tocan.
+     *
+     * @return URLs reutilizadas que dejaron de existir (esas imágenes no se registran)
+     */
+    private Set<String> insertUploaded(Long productId, List<ProductImage> uploaded,
+                                       List<ImageUploadService.StoredImage> storedImages) {
+        try {
+            return transactionTemplate.execute(status -> {
+                Set<String> vanished = vanishedUrls(storedImages);
+                productImageRepository.insertAll(productId, uploaded.stream()
+                        .filter(image -> !vanished.contains(image.getUrl()))
+                        .toList());
+                return vanished;
+            });
+        } catch (RuntimeException e) {
+            List<ProductImage> newlyUploaded = new ArrayList<>();
+            for (int i = 0; i < uploaded.size(); i++) {
+                if (!storedImages.get(i).reused()) {
+                    newlyUploaded.add(uploaded.get(i));
+                }
+            }
+            try {
+                imageDeletionService.enqueue(newlyUploaded);
+            } catch (RuntimeException enqueueError) {
+                log.warn("No se pudieron encolar {} imágenes huérfanas: {}", newlyUploaded.size(), enqueueError.getMessage());
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * URLs tomadas de imágenes existentes (por hash) cuya fila ya no existe. Debe
+     * llamarse dentro de la transacción del insert: las filas encontradas quedan
+     * bloqueadas hasta el commit.
+     */
+    private Set<String> vanishedUrls(List<ImageUploadService.StoredImage> storedImages) {
+        Set<String> existing = new HashSet<>();
+        for (ImageUploadService.StoredImage stored : storedImages) {
+            if (stored.source() == ImageUploadService.Source.EXISTING) {
+                existing.add(stored.url());
+            }
+        }
+        if (existing.isEmpty()) {
+            return Set.of();
+        }
+        existing.removeAll(productImageRepository.lockUrlsInUse(existing));
+        return existing;
+    }
+
+    private void validateBatch(List<MultipartFile> files, List<Integer> ordenes, List<String> descripciones) {
+        if (files == null || files.isEmpty()) {
+            throw new ValidationException("Debe enviar al menos un archivo");
+        }
+        if (files.size() > maxFiles) {
+            throw new ValidationException("Se permiten como máximo " + maxFiles + " imágenes por lote");
+        }
+        if (ordenes == null || ordenes.size() != files.size()) {
+            throw new ValidationException("Debe indicar un orden por cada archivo");
+        }
+        if (descripciones != null && !descripciones.isEmpty() && descripciones.size() != files.size()) {
+            throw new ValidationException("Las descripciones deben corresponder una a una con los archivos");
+        }
+    }
+
+    private String descripcionAt(List<String> descripciones, int index) {
+        if (descripciones == null || descripciones.isEmpty()) {
+            return null;
+        }
+        String descripcion = descripciones.get(index);
+        return descripcion == null || descripcion.isBlank() ? null : descripcion;
+    }
+
+    private String uploadError(Throwable cause) {
+        if (cause instanceof ValidationException || cause instanceof ServiceUnavailableException) {
+            return cause.getMessage();
+        }
+        log.warn("Error al subir imagen a Cloudinary", cause);
+        return "Error al subir la imagen";
+    }
+}
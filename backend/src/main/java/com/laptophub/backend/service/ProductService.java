@@ -9,14 +9,22 @@ import com.laptophub.backend.repository.ProductImageRepository;
 import com.laptophub.backend.repository.ProductRepository;
 import com.laptophub.backend.repository.ReviewRepository;
 import com.laptophub.backend.exception.ResourceNotFoundException;
+import com.laptophub.backend.exception.ServiceUnavailableException;
+import com.laptophub.backend.search.ProductFacetIndex;
+import com.laptophub.backend.search.ProductSearchIndex;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.lang.NonNull;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 @Service
 @RequiredArgsConstructor
@@ -25,16 +33,22 @@ public class ProductService {
     private final ProductRepository productRepository;
     private final ProductImageRepository productImageRepository;
     private final ReviewRepository reviewRepository;
-    private final CloudinaryService cloudinaryService;
+    private final ImageDeletionService imageDeletionService;
+    private final ProductSearchIndex searchIndex;
+    private final ProductFacetIndex facetIndex;
+    private final KeysetPaginator keysetPaginator;
     
     @Transactional(readOnly = true)
     public Page<ProductListDTO> findAll(@NonNull Pageable pageable) {
-        return productRepository.findAll(pageable).map(product -> {
-            List<ProductImage> images = productImageRepository.findByProductIdOrderByOrdenAsc(product.getId());
-            ProductImage mainImage = images.isEmpty() ? null : images.get(0);
-            Double avgRating = getAverageRatingForProduct(product.getId());
-            return DTOMapper.toProductListDTO(product, mainImage, avgRating);
-        });
+        return productRepository.findListItems(pageable);
+    }
+    
+    @Transactional(readOnly = true)
+    public CursorPageDTO<ProductListDTO> findAllAfter(String after, @NonNull Pageable pageable) {
+        KeysetPaginator.KeysetPage page = keysetPaginator.page(
+                Product.class, Map.of(), after, pageable, Set.of("id", "precio", "createdAt"));
+        List<ProductListDTO> content = page.ids().isEmpty() ? List.of() : findListItemsInOrder(page.ids());
+        return new CursorPageDTO<>(content, pageable.getPageSize(), page.hasNext(), page.next());
     }
     
     @Transactional(readOnly = true)
@@ -49,28 +63,48 @@ public class ProductService {
         Product product = findById(id);
         List<ProductImage> images = productImageRepository.findByProductIdOrderByOrdenAsc(id);
         List<Review> reviews = reviewRepository.findByProduct(product);
-        Double avgRating = getAverageRatingForProduct(id);
-        return DTOMapper.toProductResponse(product, images, reviews, avgRating);
+        return DTOMapper.toProductResponse(product, images, reviews, product.getAverageRating());
     }
     
     @Transactional(readOnly = true)
     public Page<ProductListDTO> searchByName(String nombre, @NonNull Pageable pageable) {
-        return productRepository.findByNombreContainingIgnoreCase(nombre, pageable).map(product -> {
-            List<ProductImage> images = productImageRepository.findByProductIdOrderByOrdenAsc(product.getId());
-            ProductImage mainImage = images.isEmpty() ? null : images.get(0);
-            Double avgRating = getAverageRatingForProduct(product.getId());
-            return DTOMapper.toProductListDTO(product, mainImage, avgRating);
-        });
+        // Sin texto de búsqueda no hay nada que filtrar: listado normal
+        if (nombre == null || nombre.isBlank()) {
+            return findAll(pageable);
+        }
+        if (!searchIndex.isReady()) {
+            return productRepository.findListItemsByNombre(nombre, pageable);
+        }
+        
+        ProductSearchIndex.SearchResult result = searchIndex.search(nombre, pageable.getOffset(), pageable.getPageSize());
+        if (result.productIds().isEmpty()) {
+            return new PageImpl<>(List.of(), pageable, result.total());
+        }
+        
+        // Mantener el orden por relevancia del índice
+        return new PageImpl<>(findListItemsInOrder(result.productIds()), pageable, result.total());
+    }
+    
+    @Transactional(readOnly = true)
+    public ProductFilterResponseDTO filter(ProductFacetIndex.Filter filter, @NonNull Pageable pageable) {
+        if (!facetIndex.isReady()) {
+            throw new ServiceUnavailableException("El índice de filtros aún se está construyendo");
+        }
+        
+        ProductFacetIndex.FilterResult result = facetIndex.filter(
+                filter, pageable.getSort(), pageable.getOffset(), pageable.getPageSize());
+        List<ProductListDTO> items = result.productIds().isEmpty()
+                ? List.of()
+                : findListItemsInOrder(result.productIds());
+        return ProductFilterResponseDTO.builder()
+                .productos(new PageImpl<>(items, pageable, result.total()))
+                .facets(result.facets())
+                .build();
     }
     
     @Transactional(readOnly = true)
     public Page<ProductListDTO> findByBrand(String marca, @NonNull Pageable pageable) {
-        return productRepository.findByMarca(marca, pageable).map(product -> {
-            List<ProductImage> images = productImageRepository.findByProductIdOrderByOrdenAsc(product.getId());
-            ProductImage mainImage = images.isEmpty() ? null : images.get(0);
-            Double avgRating = getAverageRatingForProduct(product.getId());
-            return DTOMapper.toProductListDTO(product, mainImage, avgRating);
-        });
+        return productRepository.findListItemsByMarca(marca, pageable);
     }
     
     @Transactional
@@ -101,8 +135,7 @@ public class ProductService {
         Product saved = productRepository.save(existingProduct);
         List<ProductImage> images = productImageRepository.findByProductIdOrderByOrdenAsc(id);
         List<Review> reviews = reviewRepository.findByProduct(saved);
-        Double avgRating = getAverageRatingForProduct(id);
-        return DTOMapper.toProductResponse(saved, images, reviews, avgRating);
+        return DTOMapper.toProductResponse(saved, images, reviews, saved.getAverageRating());
     }
     
     @Transactional
@@ -113,23 +146,14 @@ public class ProductService {
         }
 
         List<ProductImage> images = productImageRepository.findByProductIdOrderByOrdenAsc(id);
-        for (ProductImage image : images) {
-            try {
-                cloudinaryService.deleteImage(image.getUrl());
-            } catch (java.io.IOException e) {
-                throw new RuntimeException("Error al eliminar imagen en Cloudinary", e);
-            }
-        }
+        imageDeletionService.enqueue(images);
 
         productRepository.deleteById(id);
     }
     
-    private Double getAverageRatingForProduct(Long productId) {
-        Product product = findById(productId);
-        List<Review> reviews = reviewRepository.findByProduct(product);
-        return reviews.stream()
-                .mapToInt(Review::getRating)
-                .average()
-                .orElse(0.0);
+    private List<ProductListDTO> findListItemsInOrder(List<Long> ids) {
+        List<ProductListDTO> items = new ArrayList<>(productRepository.findListItemsByIdIn(ids));
+        items.sort(Comparator.comparingInt(item -> ids.indexOf(item.getId())));
+        return items;
     }
 }
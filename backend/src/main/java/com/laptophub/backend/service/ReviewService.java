@@ -2,12 +2,14 @@ package com.laptophub.backend.service;
 
 
 import com.laptophub.backend.dto.CreateReviewDTO;
+import com.laptophub.backend.dto.CursorPageDTO;
 import com.laptophub.backend.dto.DTOMapper;
 import com.laptophub.backend.dto.ReviewResponseDTO;
 import com.laptophub.backend.dto.UpdateReviewDTO;
 import com.laptophub.backend.model.Product;
 import com.laptophub.backend.model.Review;
 import com.laptophub.backend.model.User;
+import com.laptophub.backend.repository.ProductRepository;
 import com.laptophub.backend.repository.ReviewRepository;
 import com.laptophub.backend.exception.ConflictException;
 import com.laptophub.backend.exception.ResourceNotFoundException;
@@ -19,7 +21,9 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 
 @Service
@@ -27,13 +31,15 @@ import java.util.UUID;
 public class ReviewService {
     
     private final ReviewRepository reviewRepository;
+    private final ProductRepository productRepository;
     private final UserService userService;
     private final ProductService productService;
+    private final KeysetPaginator keysetPaginator;
     
     @Transactional
     @SuppressWarnings("null")
     public ReviewResponseDTO createReview(CreateReviewDTO dto, UUID userId) {
-        User user = userService.findById(userId);
+        User user = userService.getReference(userId);
         Product product = productService.findById(dto.getProductId());
         
         Optional<Review> existingReview = reviewRepository.findByProductAndUser(product, user);
@@ -49,6 +55,7 @@ public class ReviewService {
                 .build();
         
         Review saved = reviewRepository.save(review);
+        productRepository.adjustRatingStats(product.getId(), 1, dto.getRating());
         return DTOMapper.toReviewResponse(saved);
     }
     
@@ -58,9 +65,23 @@ public class ReviewService {
         return reviewRepository.findByProduct(product, pageable).map(DTOMapper::toReviewResponse);
     }
     
+    @Transactional(readOnly = true)
+    public CursorPageDTO<ReviewResponseDTO> getReviewsByProductAfter(Long productId, String after, @NonNull Pageable pageable) {
+        Product product = productService.findById(productId);
+        KeysetPaginator.KeysetPage page = keysetPaginator.page(
+                Review.class, Map.of("product", product), after, pageable, Set.of("id", "rating", "createdAt"));
+        List<ReviewResponseDTO> content = page.ids().isEmpty()
+                ? List.of()
+                : KeysetPaginator.inIdOrder(page.ids(), reviewRepository.findByIdIn(page.ids()), Review::getId)
+                        .stream()
+                        .map(DTOMapper::toReviewResponse)
+                        .toList();
+        return new CursorPageDTO<>(content, pageable.getPageSize(), page.hasNext(), page.next());
+    }
+    
     @Transactional(readOnly = true)
     public ReviewResponseDTO getUserReviewForProduct(Long productId, UUID userId) {
-        User user = userService.findById(userId);
+        User user = userService.getReference(userId);
         Product product = productService.findById(productId);
         
         Review review = reviewRepository.findByProductAndUser(product, user)
@@ -75,29 +96,28 @@ public class ReviewService {
         Review review = reviewRepository.findById(reviewId)
                 .orElseThrow(() -> new ResourceNotFoundException("Review no encontrada con id: " + reviewId));
         
+        int ratingDelta = dto.getRating() - review.getRating();
         review.setRating(dto.getRating());
         review.setComentario(dto.getComentario());
         
         Review saved = reviewRepository.save(review);
+        if (ratingDelta != 0) {
+            productRepository.adjustRatingStats(review.getProduct().getId(), 0, ratingDelta);
+        }
         return DTOMapper.toReviewResponse(saved);
     }
     
     @Transactional
     @SuppressWarnings("null")
     public void deleteReview(Long reviewId) {
-        if (!reviewRepository.existsById(reviewId)) {
-            throw new ResourceNotFoundException("Review no encontrada con id: " + reviewId);
-        }
-        reviewRepository.deleteById(reviewId);
+        Review review = reviewRepository.findById(reviewId)
+                .orElseThrow(() -> new ResourceNotFoundException("Review no encontrada con id: " + reviewId));
+        reviewRepository.delete(review);
+        productRepository.adjustRatingStats(review.getProduct().getId(), -1, -review.getRating());
     }
     
     @Transactional(readOnly = true)
     public Double getAverageRating(Long productId) {
-        Product product = productService.findById(productId);
-        List<Review> reviews = reviewRepository.findByProduct(product);
-        return reviews.stream()
-                .mapToInt(Review::getRating)
-                .average()
-                .orElse(0.0);
+        return productService.findById(productId).getAverageRating();
     }
 }
@@ -0,0 +1,40 @@
+package com.laptophub.backend.service;
+
+import com.laptophub.backend.repository.ProductRepository;
+import com.laptophub.backend.repository.ReviewRepository;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Completa review_count y rating_sum de Product al arrancar.
+ *
+ * Los productos con reseñas anteriores a esas columnas las tienen en 0 y
+ * ReviewService solo aplica deltas, así que nunca se corregirían solos. El
+ * recálculo es idempotente: en los arranques siguientes no toca ninguna fila.
+ * Mientras corre, las escrituras de reseñas esperan, para que ningún ajuste
+ * concurrente se pierda.
+ */
+@Component
+@RequiredArgsConstructor
+public class ReviewStatsBackfill {
+
+    private static final Logger log = LoggerFactory.getLogger(ReviewStatsBackfill.class);
+
+    private final ReviewRepository reviewRepository;
+    private final ProductRepository productRepository;
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void backfill() {
+        reviewRepository.lockAgainstWrites();
+        int updated = productRepository.backfillRatingStats();
+        if (updated > 0) {
+            log.info("Agregados de reseñas recalculados en {} productos", updated);
+        }
+    }
+}
@@ -3,6 +3,7 @@ package com.laptophub.backend.service;
 import com.stripe.Stripe;
 import com.stripe.exception.StripeException;
 import com.stripe.model.PaymentIntent;
+import com.stripe.net.RequestOptions;
 import com.stripe.param.PaymentIntentCreateParams;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
@@ -27,6 +28,15 @@ public class StripeService {
      * Crea un PaymentIntent en Stripe para iniciar un pago
      */
     public PaymentIntent createPaymentIntent(Long orderId, BigDecimal amount, String email) throws StripeException {
+        return createPaymentIntent(orderId, amount, email, null);
+    }
+
+    /**
+     * Crea un PaymentIntent con idempotency key: repetir la llamada con la misma
+     * key devuelve el PaymentIntent original en lugar de crear uno nuevo
+     */
+    public PaymentIntent createPaymentIntent(Long orderId, BigDecimal amount, String email,
+                                             String idempotencyKey) throws StripeException {
         initializeStripe();
 
         // Convertir a centavos (Stripe usa centavos para USD)
@@ -43,7 +53,11 @@ public class StripeService {
                 .putAllMetadata(metadata)
                 .build();
 
-        return PaymentIntent.create(params);
+        RequestOptions options = RequestOptions.builder()
+                .setIdempotencyKey(idempotencyKey)
+                .build();
+
+        return PaymentIntent.create(params, options);
     }
 
     /**
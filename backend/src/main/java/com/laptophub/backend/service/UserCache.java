@@ -0,0 +1,149 @@
+package com.laptophub.backend.service;
+
+import com.laptophub.backend.dto.UserSnapshot;
+import com.laptophub.backend.metrics.MetricsSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Caché LRU acotado de {@link UserSnapshot}, indexado por id y por email.
+ *
+ * - Lectura con carga: en un miss se consulta la base y el resultado se guarda
+ * - invalidate() descarta el usuario cuando la transacción que lo modificó confirma
+ * - Un contador de generación evita que una carga concurrente con una invalidación
+ *   vuelva a guardar la versión vieja
+ */
+@Component
+public class UserCache implements MetricsSource {
+
+    private final int maxSize;
+    private final Map<UUID, UserSnapshot> byId;
+    private final Map<String, UUID> idByEmail = new HashMap<>();
+    private long generation;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+
+    public UserCache(@Value("${users.cache.max-size:10000}") int maxSize) {
+        this.maxSize = maxSize;
+        this.byId = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<UUID, UserSnapshot> eldest) {
+                if (size() > UserCache.this.maxSize) {
+                    idByEmail.remove(eldest.getValue().email());
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public Optional<UserSnapshot> getById(UUID id, Supplier<Optional<UserSnapshot>> loader) {
+        long loadGeneration;
+        synchronized (this) {
+            UserSnapshot cached = byId.get(id);
+            if (cached != null) {
+                hits.incrementAndGet();
+                return Optional.of(cached);
+            }
+            loadGeneration = generation;
+        }
+        misses.incrementAndGet();
+        Optional<UserSnapshot> loaded = loader.get();
+        loaded.ifPresent(snapshot -> put(snapshot, loadGeneration));
+        return loaded;
+    }
+
+    public Optional<UserSnapshot> getByEmail(String email, Supplier<Optional<UserSnapshot>> loader) {
+        long loadGeneration;
+        synchronized (this) {
+            UUID id = idByEmail.get(email);
+            UserSnapshot cached = id == null ? null : byId.get(id);
+            if (cached != null) {
+                hits.incrementAndGet();
+                return Optional.of(cached);
+            }
+            loadGeneration = generation;
+        }
+        misses.incrementAndGet();
+        Optional<UserSnapshot> loaded = loader.get();
+        loaded.ifPresent(snapshot -> put(snapshot, loadGeneration));
+        return loaded;
+    }
+
+    /**
+     * Descarta el usuario al confirmar la transacción actual (o de inmediato si no hay una).
+     */
+    public void invalidate(UUID id) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            evict(id);
+            return;
+        }
+        // También ahora, para que nadie lea la versión vieja mientras la transacción corre
+        evict(id);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                evict(id);
+            }
+        });
+    }
+
+    /**
+     * Descarta lo cacheado bajo un email (por ejemplo, al registrarlo de nuevo tras
+     * un borrado hecho fuera de UserService).
+     */
+    public synchronized void invalidateEmail(String email) {
+        UUID id = idByEmail.get(email);
+        if (id != null) {
+            evict(id);
+        }
+    }
+
+    private synchronized void put(UserSnapshot snapshot, long loadGeneration) {
+        if (loadGeneration != generation) {
+            return;
+        }
+        UserSnapshot previous = byId.put(snapshot.id(), snapshot);
+        if (previous != null && !previous.email().equals(snapshot.email())) {
+            idByEmail.remove(previous.email());
+        }
+        idByEmail.put(snapshot.email(), snapshot.id());
+    }
+
+    private synchronized void evict(UUID id) {
+        generation++;
+        invalidations.incrementAndGet();
+        UserSnapshot removed = byId.remove(id);
+        if (removed != null) {
+            idByEmail.remove(removed.email());
+        }
+    }
+
+    @Override
+    public String metricsName() {
+        return "userCache";
+    }
+
+    @Override
+    public synchronized Map<String, Object> metrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("size", byId.size());
+        metrics.put("maxSize", maxSize);
+        metrics.put("hits", hits.get());
+        metrics.put("misses", misses.get());
+        metrics.put("invalidations", invalidations.get());
+        return metrics;
+    }
+}
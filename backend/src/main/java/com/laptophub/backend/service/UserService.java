@@ -4,6 +4,7 @@ package com.laptophub.backend.service;
 import com.laptophub.backend.dto.DTOMapper;
 import com.laptophub.backend.dto.UserRegisterDTO;
 import com.laptophub.backend.dto.UserResponseDTO;
+import com.laptophub.backend.dto.UserSnapshot;
 import com.laptophub.backend.dto.UserUpdateDTO;
 import com.laptophub.backend.model.User;
 import com.laptophub.backend.repository.UserRepository;
@@ -25,8 +26,12 @@ public class UserService {
     
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final UserCache userCache;
     
-    @Transactional
+    /**
+     * Sin transacción envolvente: el hash BCrypt corre en el pool de hashing y no
+     * debe retener una conexión mientras espera.
+     */
     @SuppressWarnings("null")
     public UserResponseDTO registerUser(UserRegisterDTO dto) {
         if (userRepository.findByEmail(dto.getEmail()).isPresent()) {
@@ -35,6 +40,7 @@ public class UserService {
         User user = DTOMapper.toUser(dto);
         user.setPassword(passwordEncoder.encode(user.getPassword()));
         User saved = userRepository.save(user);
+        userCache.invalidateEmail(saved.getEmail());
         return DTOMapper.toUserResponse(saved);
     }
     
@@ -45,9 +51,25 @@ public class UserService {
                 .orElseThrow(() -> new ResourceNotFoundException("Usuario no encontrado con id: " + id));
     }
     
-    @Transactional(readOnly = true)
+    /**
+     * Datos del usuario desde el caché en memoria; solo consulta la base en un miss.
+     */
+    @SuppressWarnings("null")
+    public UserSnapshot findSnapshot(UUID id) {
+        return userCache.getById(id, () -> userRepository.findById(id).map(UserSnapshot::from))
+                .orElseThrow(() -> new ResourceNotFoundException("Usuario no encontrado con id: " + id));
+    }
+    
+    /**
+     * Referencia al usuario para asociarlo a carritos, órdenes y reseñas sin cargarlo:
+     * la existencia se valida contra el caché. Requiere una transacción activa.
+     */
+    public User getReference(UUID id) {
+        return userRepository.getReferenceById(findSnapshot(id).id());
+    }
+    
     public UserResponseDTO findByIdDTO(UUID id) {
-        return DTOMapper.toUserResponse(findById(id));
+        return DTOMapper.toUserResponse(findSnapshot(id));
     }
     
     @Transactional(readOnly = true)
@@ -56,9 +78,10 @@ public class UserService {
                 .orElseThrow(() -> new ResourceNotFoundException("Usuario no encontrado con email: " + email));
     }
     
-    @Transactional(readOnly = true)
     public UserResponseDTO findByEmailDTO(String email) {
-        return DTOMapper.toUserResponse(findByEmail(email));
+        UserSnapshot snapshot = userCache.getByEmail(email, () -> userRepository.findByEmail(email).map(UserSnapshot::from))
+                .orElseThrow(() -> new ResourceNotFoundException("Usuario no encontrado con email: " + email));
+        return DTOMapper.toUserResponse(snapshot);
     }
     
     @Transactional(readOnly = true)
@@ -75,6 +98,7 @@ public class UserService {
         if (dto.getTelefono() != null) existingUser.setTelefono(dto.getTelefono());
         if (dto.getDireccion() != null) existingUser.setDireccion(dto.getDireccion());
         User saved = userRepository.save(existingUser);
+        userCache.invalidate(id);
         return DTOMapper.toUserResponse(saved);
     }
 }
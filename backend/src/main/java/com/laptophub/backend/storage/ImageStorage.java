@@ -0,0 +1,40 @@
+package com.laptophub.backend.storage;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Almacenamiento de las imágenes de producto. Se elige con {@code images.storage}:
+ * {@code cloudinary} (por defecto, CloudinaryService) o {@code local} (LocalImageStorage,
+ * para pruebas de carga y entornos sin acceso a Cloudinary).
+ */
+public interface ImageStorage {
+
+    String STATUS_DELETED = "deleted";
+    String STATUS_NOT_FOUND = "not_found";
+
+    /**
+     * Guarda un archivo ya en disco.
+     *
+     * @return URL pública de la imagen
+     */
+    String store(File file, String folder) throws IOException;
+
+    /**
+     * Clave de almacenamiento de una URL propia de este backend, o null si la URL
+     * no le pertenece (por ejemplo, una imagen guardada con otro backend).
+     */
+    String keyOf(String url);
+
+    /**
+     * Borra las imágenes indicadas, como mucho {@link #maxDeleteBatch()} por llamada.
+     *
+     * @return estado por clave: {@link #STATUS_DELETED}, {@link #STATUS_NOT_FOUND} u otro
+     *         valor si no se pudo confirmar el borrado
+     */
+    Map<String, String> deleteAll(List<String> keys) throws Exception;
+
+    int maxDeleteBatch();
+}
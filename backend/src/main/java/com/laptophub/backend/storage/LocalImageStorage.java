@@ -0,0 +1,127 @@
+package com.laptophub.backend.storage;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Almacenamiento de imágenes en disco local ({@code images.storage=local}).
+ *
+ * Los archivos quedan en {@code images.local.root-dir}/{folder}/{uuid}.{ext} y se
+ * sirven desde LocalImageController en {@code images.local.base-url}. Cada archivo
+ * se escribe una sola vez con nombre nuevo, así su contenido nunca cambia y puede
+ * cachearse indefinidamente.
+ */
+@Service
+@ConditionalOnProperty(name = "images.storage", havingValue = "local")
+public class LocalImageStorage implements ImageStorage {
+
+    private static final int MAX_KEYS_PER_DELETE = 500;
+
+    private final Path root;
+    private final String baseUrl;
+
+    public LocalImageStorage(
+            @Value("${images.local.root-dir:${java.io.tmpdir}/laptophub-images}") String rootDir,
+            @Value("${images.local.base-url:/api/images}") String baseUrl) throws IOException {
+        this.root = Path.of(rootDir).toAbsolutePath().normalize();
+        this.baseUrl = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+        Files.createDirectories(root);
+    }
+
+    @Override
+    public String store(File file, String folder) throws IOException {
+        String key = folder + "/" + UUID.randomUUID() + "." + extensionOf(file.toPath());
+        Path target = resolve(key);
+        if (target == null) {
+            throw new IOException("Carpeta de imágenes inválida: " + folder);
+        }
+        Files.createDirectories(target.getParent());
+
+        // Se copia a un temporal del mismo directorio y se mueve: nunca se sirve un archivo a medio escribir
+        Path partial = Files.createTempFile(target.getParent(), ".upload-", ".part");
+        try {
+            Files.copy(file.toPath(), partial, StandardCopyOption.REPLACE_EXISTING);
+            try {
+                Files.move(partial, target, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(partial, target);
+            }
+        } finally {
+            Files.deleteIfExists(partial);
+        }
+        return baseUrl + "/" + key;
+    }
+
+    @Override
+    public String keyOf(String url) {
+        if (url == null || !url.startsWith(baseUrl + "/")) {
+            return null;
+        }
+        String key = url.substring(baseUrl.length() + 1);
+        return resolve(key) != null ? key : null;
+    }
+
+    @Override
+    public Map<String, String> deleteAll(List<String> keys) throws IOException {
+        Map<String, String> statuses = new HashMap<>();
+        for (String key : keys) {
+            Path file = resolve(key);
+            statuses.put(key, file != null && Files.deleteIfExists(file) ? STATUS_DELETED : STATUS_NOT_FOUND);
+        }
+        return statuses;
+    }
+
+    @Override
+    public int maxDeleteBatch() {
+        return MAX_KEYS_PER_DELETE;
+    }
+
+    /**
+     * Archivo de una clave, o null si la clave sale del directorio raíz ("..", rutas absolutas).
+     */
+    public Path resolve(String key) {
+        if (key == null || key.isBlank()) {
+            return null;
+        }
+        Path file = root.resolve(key).normalize();
+        return file.startsWith(root) && !file.equals(root) ? file : null;
+    }
+
+    /**
+     * Extensión según la firma del archivo; el nombre original no se usa.
+     */
+    private String extensionOf(Path file) throws IOException {
+        byte[] header = new byte[12];
+        int read;
+        try (InputStream in = Files.newInputStream(file)) {
+            read = in.readNBytes(header, 0, header.length);
+        }
+        if (read >= 3 && (header[0] & 0xFF) == 0xFF && (header[1] & 0xFF) == 0xD8 && (header[2] & 0xFF) == 0xFF) {
+            return "jpg";
+        }
+        if (read >= 8 && (header[0] & 0xFF) == 0x89 && header[1] == 'P' && header[2] == 'N' && header[3] == 'G') {
+            return "png";
+        }
+        if (read >= 6 && header[0] == 'G' && header[1] == 'I' && header[2] == 'F') {
+            return "gif";
+        }
+        if (read >= 12 && header[0] == 'R' && header[1] == 'I' && header[2] == 'F' && header[3] == 'F'
+                && header[8] == 'W' && header[9] == 'E' && header[10] == 'B' && header[11] == 'P') {
+            return "webp";
+        }
+        return "bin";
+    }
+}
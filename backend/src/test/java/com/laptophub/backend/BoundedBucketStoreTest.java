@@ -0,0 +1,106 @@
+package com.laptophub.backend;
+
+import com.laptophub.backend.security.BoundedBucketStore;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests del store acotado de buckets: memoria con tope bajo millones de claves
+ * distintas y límites de atacantes activos que nunca se reinician antes de tiempo.
+ */
+public class BoundedBucketStoreTest {
+
+    private static final int CAPACITY = 5;
+
+    @Test
+    public void testMemoryStaysCappedUnderMillionsOfKeys() {
+        System.out.println("\n=== TEST: tope de claves con millones de IPs distintas ===");
+        int maxKeys = 10_000;
+        int stripes = 16;
+        BoundedBucketStore store = new BoundedBucketStore(CAPACITY, Duration.ofMinutes(3), maxKeys, stripes);
+
+        long begin = System.nanoTime();
+        int accepted = 0;
+        for (int i = 0; i < 2_000_000; i++) {
+            if (store.tryConsume("10." + (i >>> 16) + "." + ((i >>> 8) & 0xff) + "." + (i & 0xff))) {
+                accepted++;
+            }
+        }
+        long elapsed = (System.nanoTime() - begin) / 1_000_000;
+
+        System.out.println("Claves en memoria: " + store.size() + " (tope " + maxKeys + ")");
+        System.out.println("Aceptadas: " + accepted + ", atendidas por el desborde: " + store.overflowCount()
+                + " en " + elapsed + " ms");
+        assertTrue(store.size() <= maxKeys);
+        // Las claves sin lugar comparten un solo bucket de desborde
+        assertTrue(accepted - store.size() <= CAPACITY * stripes);
+        assertTrue(accepted > store.size(), "Las claves sin lugar debían poder usar el desborde");
+        System.out.println("✅ TEST PASÓ: la memoria quedó acotada\n");
+    }
+
+    @Test
+    public void testActiveAttackerLimitIsNeverResetByFlood() {
+        System.out.println("\n=== TEST: un flood de IPs no reinicia el límite de un atacante ===");
+        BoundedBucketStore store = new BoundedBucketStore(CAPACITY, Duration.ofMinutes(3), 1_000, 4);
+
+        for (int i = 0; i < CAPACITY; i++) {
+            assertTrue(store.tryConsume("atacante"));
+        }
+        assertFalse(store.tryConsume("atacante"));
+
+        for (int i = 0; i < 100_000; i++) {
+            store.tryConsume("flood-" + i);
+        }
+        store.evictRefilled();
+
+        assertFalse(store.tryConsume("atacante"), "El límite del atacante se reinició");
+        assertEquals(0, store.evictedCount());
+        System.out.println("✅ TEST PASÓ: el atacante sigue bloqueado\n");
+    }
+
+    @Test
+    public void testFullStripeFallsBackToOverflowInsteadOfFailingClosed() {
+        System.out.println("\n=== TEST: stripe lleno usa el bucket de desborde ===");
+        BoundedBucketStore store = new BoundedBucketStore(CAPACITY, Duration.ofMinutes(3), 10, 1);
+
+        for (int i = 0; i < 10; i++) {
+            assertTrue(store.tryConsume("ip-" + i));
+        }
+        assertTrue(store.tryConsume("cliente-nuevo"), "Una clave nueva no debía rechazarse de entrada");
+        assertEquals(1, store.overflowCount());
+        assertEquals(10, store.size());
+        System.out.println("✅ TEST PASÓ: la clave nueva consumió del desborde\n");
+    }
+
+    @Test
+    public void testRefilledBucketsAreEvictedAndMakeRoom() throws Exception {
+        System.out.println("\n=== TEST: los buckets recargados se descartan ===");
+        Duration refill = Duration.ofMillis(40);
+        BoundedBucketStore store = new BoundedBucketStore(CAPACITY, refill, 100, 1);
+
+        for (int i = 0; i < 100; i++) {
+            assertTrue(store.tryConsume("ip-" + i));
+        }
+        // Con el store lleno de buckets en recarga, las claves nuevas comparten el desborde
+        for (int i = 0; i < CAPACITY; i++) {
+            assertTrue(store.tryConsume("desborde-" + i));
+        }
+        assertFalse(store.tryConsume("desborde-extra"), "El desborde debía agotarse");
+        assertEquals(100, store.size());
+
+        // Un intento consumido se recarga en un período
+        Thread.sleep(refill.toMillis() * 2);
+        assertTrue(store.tryConsume("nueva"), "Un bucket recargado debía dejar lugar");
+
+        Thread.sleep(refill.toMillis() * 2);
+        int removed = store.evictRefilled();
+        System.out.println("Descartados en el barrido: " + removed);
+        assertEquals(0, store.size());
+        System.out.println("✅ TEST PASÓ: solo se descartaron buckets llenos\n");
+    }
+}
@@ -0,0 +1,119 @@
+package com.laptophub.backend;
+
+import com.laptophub.backend.model.Product;
+import com.laptophub.backend.model.ProductImage;
+import com.laptophub.backend.repository.ProductImageRepository;
+import com.laptophub.backend.repository.ProductRepository;
+import com.laptophub.backend.service.ProductService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.EntityStatistics;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Caché de segundo nivel del catálogo: los productos y las imágenes por producto se
+ * leen del caché, y las escrituras por JDBC (reserva de stock, inserts en lote) no
+ * dejan datos viejos.
+ */
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.cache.use_second_level_cache=true",
+        "spring.jpa.properties.hibernate.cache.use_query_cache=true",
+        "spring.jpa.properties.hibernate.cache.region.factory_class=jcache",
+        "spring.jpa.properties.hibernate.javax.cache.provider=org.ehcache.jsr107.EhcacheCachingProvider",
+        "spring.jpa.properties.hibernate.javax.cache.uri=classpath:ehcache.xml",
+        "spring.jpa.properties.hibernate.javax.cache.missing_cache_strategy=fail",
+        "spring.jpa.properties.hibernate.cache.auto_evict_collection_cache=true"
+})
+@SuppressWarnings("null")
+public class CatalogCacheTest {
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProductImageRepository productImageRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    public void testProductIsCachedAndStockReservationEvictsIt() {
+        System.out.println("\n=== TEST: producto en caché y stock correcto tras la reserva ===");
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        Product product = createProduct();
+
+        productService.findById(product.getId());
+        statistics.clear();
+        Product cached = productService.findById(product.getId());
+        EntityStatistics productStatistics = statistics.getEntityStatistics(Product.class.getName());
+        System.out.println("Cargas de Product desde la BD: " + productStatistics.getLoadCount()
+                + ", hits de segundo nivel: " + productStatistics.getCacheHitCount());
+        assertEquals(0, productStatistics.getLoadCount());
+        assertTrue(productStatistics.getCacheHitCount() > 0);
+        assertEquals(5, cached.getStock());
+
+        // Reserva del checkout por JDBC: el producto cacheado se descarta
+        transactionTemplate.executeWithoutResult(status ->
+                assertTrue(productRepository.reserveStock(Map.of(product.getId(), 2)).isEmpty()));
+        assertEquals(3, productService.findById(product.getId()).getStock());
+
+        productRepository.releaseStock(Map.of(product.getId(), 2));
+        assertEquals(5, productService.findById(product.getId()).getStock());
+        System.out.println("✅ TEST PASÓ: lecturas desde caché y stock actualizado tras reservar y liberar\n");
+    }
+
+    @Test
+    public void testImagesQueryIsCachedAndBatchInsertEvictsIt() {
+        System.out.println("\n=== TEST: imágenes por producto en caché de queries ===");
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        Product product = createProduct();
+        productImageRepository.save(ProductImage.builder()
+                .url("https://example.com/cache-1.jpg")
+                .orden(1)
+                .product(product)
+                .build());
+
+        productImageRepository.findByProductIdOrderByOrdenAsc(product.getId());
+        statistics.clear();
+        List<ProductImage> cached = productImageRepository.findByProductIdOrderByOrdenAsc(product.getId());
+        assertEquals(1, cached.size());
+        assertTrue(statistics.getQueryCacheHitCount() > 0);
+
+        // Insert en lote por JDBC: la consulta cacheada se descarta
+        productImageRepository.insertAll(product.getId(), List.of(ProductImage.builder()
+                .url("https://example.com/cache-2.jpg")
+                .orden(2)
+                .build()));
+        List<ProductImage> images = productImageRepository.findByProductIdOrderByOrdenAsc(product.getId());
+        assertEquals(2, images.size());
+        assertEquals("https://example.com/cache-2.jpg", images.get(1).getUrl());
+        System.out.println("✅ TEST PASÓ: la consulta se sirve del caché y ve los inserts por JDBC\n");
+    }
+
+    private Product createProduct() {
+        return productRepository.save(Product.builder()
+                .nombre("Laptop caché")
+                .descripcion("Producto para el caché de segundo nivel")
+                .precio(new BigDecimal("1099.99"))
+                .stock(5)
+                .marca("Dell")
+                .build());
+    }
+}
@@ -0,0 +1,150 @@
+package com.laptophub.backend;
+
+import com.laptophub.backend.exception.ValidationException;
+import com.laptophub.backend.model.Product;
+import com.laptophub.backend.repository.ProductRepository;
+import com.laptophub.backend.service.OrderService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Stress de la fase de stock del checkout (OrderService.reserveStock): cientos de
+ * carritos con varios productos en común, cada uno armado en un orden distinto, se
+ * confirman en paralelo mientras parte de las órdenes se cancela y devuelve su stock.
+ * Los locks de fila los toman los UPDATE condicionales de la reserva y de la
+ * devolución, ambos en orden de id: no debe haber deadlocks y el stock final debe
+ * cuadrar con lo vendido.
+ */
+@SpringBootTest
+@SuppressWarnings("null")
+public class CheckoutDeadlockStressTest {
+
+    private static final int PRODUCTS = 6;
+    private static final int THREADS = 24;
+    private static final int CHECKOUTS = 400;
+    private static final int INITIAL_STOCK = 1000;
+    private static final int CANCEL_ONE_IN = 4;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    public void testOverlappingMultiItemCheckoutsNeverDeadlock() throws Exception {
+        System.out.println("\n=== TEST: checkouts multi-producto concurrentes sin deadlocks ===");
+        List<Long> ids = createProducts();
+        AtomicIntegerArray sold = new AtomicIntegerArray(PRODUCTS);
+        AtomicInteger successes = new AtomicInteger();
+        AtomicInteger rejections = new AtomicInteger();
+        Queue<Throwable> errors = new ConcurrentLinkedQueue<>();
+        AtomicInteger remaining = new AtomicInteger(CHECKOUTS);
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                while (remaining.getAndDecrement() > 0) {
+                    Map<Long, Integer> cart = randomCart(ids);
+                    try {
+                        transactionTemplate.executeWithoutResult(status -> orderService.reserveStock(cart));
+                        cart.forEach((id, cantidad) -> sold.addAndGet(ids.indexOf(id), cantidad));
+                        successes.incrementAndGet();
+                        if (ThreadLocalRandom.current().nextInt(CANCEL_ONE_IN) == 0) {
+                            // Cancelación: devuelve el stock como restoreOrderStock
+                            transactionTemplate.executeWithoutResult(status -> productRepository.releaseStock(cart));
+                            cart.forEach((id, cantidad) -> sold.addAndGet(ids.indexOf(id), -cantidad));
+                        }
+                    } catch (ValidationException e) {
+                        rejections.incrementAndGet();
+                    } catch (RuntimeException e) {
+                        // Un deadlock de Postgres llega como PessimisticLockingFailureException / CannotAcquireLockException
+                        errors.add(e);
+                    }
+                }
+                return null;
+            }));
+        }
+
+        long begin = System.nanoTime();
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        long elapsed = (System.nanoTime() - begin) / 1_000_000;
+        executor.shutdown();
+
+        System.out.println("Checkouts: " + CHECKOUTS + " en " + elapsed + " ms");
+        System.out.println("Exitosos: " + successes.get() + ", sin stock: " + rejections.get()
+                + ", errores: " + errors.size());
+        errors.stream().limit(5).forEach(e -> System.out.println("  " + e));
+
+        assertTrue(errors.isEmpty(), "Se produjeron errores de locking (posibles deadlocks): " + errors.peek());
+        assertEquals(CHECKOUTS, successes.get() + rejections.get());
+        for (int i = 0; i < PRODUCTS; i++) {
+            int stock = productRepository.findById(ids.get(i)).orElseThrow().getStock();
+            assertTrue(stock >= 0, "Stock negativo para producto " + ids.get(i));
+            assertEquals(INITIAL_STOCK - sold.get(i), stock);
+        }
+        System.out.println("✅ TEST PASÓ: sin deadlocks y stock final consistente\n");
+    }
+
+    /**
+     * Carrito de 2 a PRODUCTS productos distintos, insertados en orden aleatorio.
+     */
+    private static Map<Long, Integer> randomCart(List<Long> ids) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        List<Long> shuffled = new ArrayList<>(ids);
+        Collections.shuffle(shuffled, random);
+        int items = random.nextInt(2, PRODUCTS + 1);
+
+        Map<Long, Integer> cart = new LinkedHashMap<>();
+        for (Long id : shuffled.subList(0, items)) {
+            cart.put(id, random.nextInt(1, 4));
+        }
+        return cart;
+    }
+
+    private List<Long> createProducts() {
+        String marca = "Deadlock-" + UUID.randomUUID();
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < PRODUCTS; i++) {
+            ids.add(productRepository.save(Product.builder()
+                    .nombre("Laptop flash sale " + i)
+                    .descripcion("Producto para stress de checkout")
+                    .precio(new BigDecimal("1299.00"))
+                    .stock(INITIAL_STOCK)
+                    .marca(marca)
+                    .build()).getId());
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,63 @@
+package com.laptophub.backend;
+
+import com.laptophub.backend.security.ClientIpResolver;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Tests de la resolución de la IP del cliente: los headers de proxy solo cuentan
+ * si la conexión viene de un proxy confiable.
+ */
+public class ClientIpResolverTest {
+
+    private final ClientIpResolver resolver = new ClientIpResolver(List.of("10.0.0.0/8", "192.168.1.5"));
+
+    @Test
+    public void testForwardedHeadersFromUntrustedClientAreIgnored() {
+        System.out.println("\n=== TEST: headers de un cliente directo se ignoran ===");
+        MockHttpServletRequest request = request("203.0.113.7");
+        request.addHeader("X-Forwarded-For", "1.2.3.4");
+        request.addHeader("X-Real-IP", "5.6.7.8");
+
+        assertEquals("203.0.113.7", resolver.resolve(request));
+        System.out.println("✅ TEST PASÓ: se usa la IP de la conexión\n");
+    }
+
+    @Test
+    public void testRightmostUntrustedHopIsTheClient() {
+        System.out.println("\n=== TEST: X-Forwarded-For detrás de proxies confiables ===");
+        // El cliente puede falsificar la parte izquierda; los proxies agregan a la derecha
+        MockHttpServletRequest request = request("10.1.2.3");
+        request.addHeader("X-Forwarded-For", "1.1.1.1, 198.51.100.20, 192.168.1.5");
+        assertEquals("198.51.100.20", resolver.resolve(request));
+
+        MockHttpServletRequest onlyProxies = request("10.1.2.3");
+        onlyProxies.addHeader("X-Forwarded-For", "10.9.9.9, 192.168.1.5");
+        assertEquals("10.9.9.9", resolver.resolve(onlyProxies));
+
+        MockHttpServletRequest realIp = request("192.168.1.5");
+        realIp.addHeader("X-Real-IP", "198.51.100.30");
+        assertEquals("198.51.100.30", resolver.resolve(realIp));
+        System.out.println("✅ TEST PASÓ: se toma el primer salto no confiable desde la derecha\n");
+    }
+
+    @Test
+    public void testNoTrustedProxiesUsesRemoteAddress() {
+        System.out.println("\n=== TEST: sin proxies configurados ===");
+        MockHttpServletRequest request = request("10.1.2.3");
+        request.addHeader("X-Forwarded-For", "1.2.3.4");
+
+        assertEquals("10.1.2.3", new ClientIpResolver(List.of()).resolve(request));
+        System.out.println("✅ TEST PASÓ: la IP de la conexión\n");
+    }
+
+    private static MockHttpServletRequest request(String remoteAddr) {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setRemoteAddr(remoteAddr);
+        return request;
+    }
+}
@@ -0,0 +1,199 @@
+package com.laptophub.backend;
+
+import com.cloudinary.Cloudinary;
+import com.cloudinary.Uploader;
+import com.laptophub.backend.exception.ServiceUnavailableException;
+import com.laptophub.backend.exception.ValidationException;
+import com.laptophub.backend.repository.ProductImageRepository;
+import com.laptophub.backend.service.CloudinaryService;
+import com.laptophub.backend.service.ImageDownscaler;
+import com.laptophub.backend.service.ImageUploadService;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * La subida a Cloudinary se hace desde el archivo temporal del multipart: subir una
+ * imagen de 50 MB (hash y subida incluidos) no debe asignar en el heap nada parecido
+ * a su tamaño. Cloudinary se reemplaza por un mock que lee el archivo recibido en bloques.
+ */
+public class CloudinaryUploadStreamingTest {
+
+    private static final long IMAGE_BYTES = 50L * 1024 * 1024;
+
+    @Test
+    public void testFiftyMegabyteUploadKeepsHeapFlat() throws Exception {
+        System.out.println("\n=== TEST: subida de 50 MB sin cargar la imagen en el heap ===");
+        Path image = createImage(IMAGE_BYTES);
+        try {
+            long[] bytesSeen = new long[1];
+            ImageUploadService service = uploadService(
+                    new CloudinaryService(cloudinaryReading(bytesSeen, null), 2, 1_000), DataSize.ofMegabytes(60));
+            // Primer uso de ImageIO fuera de la medición: carga sus plugins una sola vez
+            new ImageDownscaler(2000, 0.85f, 1).downscale(image);
+
+            com.sun.management.ThreadMXBean threads =
+                    (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+            long threadId = Thread.currentThread().getId();
+            long allocatedBefore = threads.getThreadAllocatedBytes(threadId);
+
+            String url = service.store(new FileBackedMultipartFile(image), "laptophub/test").url();
+
+            long allocated = threads.getThreadAllocatedBytes(threadId) - allocatedBefore;
+            System.out.println("Bytes subidos: " + bytesSeen[0] + ", asignados en el heap: " + allocated / 1024 + " KB");
+            assertEquals("https://res.cloudinary.com/test/image/upload/streamed.jpg", url);
+            assertEquals(IMAGE_BYTES, bytesSeen[0]);
+            assertTrue(allocated < 8L * 1024 * 1024,
+                    "La subida asignó " + allocated / (1024 * 1024) + " MB: la imagen se cargó en memoria");
+        } finally {
+            Files.deleteIfExists(image);
+        }
+        System.out.println("✅ TEST PASÓ: el heap no creció con el tamaño de la imagen\n");
+    }
+
+    @Test
+    public void testSizeLimitAndConcurrentUploadLimit() throws Exception {
+        System.out.println("\n=== TEST: límite de tamaño y de subidas simultáneas ===");
+        Path image = createImage(2L * 1024 * 1024);
+        try {
+            ImageUploadService small = uploadService(
+                    new CloudinaryService(cloudinaryReading(new long[1], null), 1, 100), DataSize.ofMegabytes(1));
+            assertThrows(ValidationException.class,
+                    () -> small.store(new FileBackedMultipartFile(image), "laptophub/test"));
+
+            // Una subida queda bloqueada dentro de Cloudinary; la segunda no consigue permiso
+            CountDownLatch release = new CountDownLatch(1);
+            CloudinaryService single = new CloudinaryService(cloudinaryReading(new long[1], release), 1, 200);
+            ExecutorService executor = Executors.newSingleThreadExecutor();
+            Future<String> first = executor.submit(() -> single.store(image.toFile(), "laptophub/test"));
+            Thread.sleep(200);
+
+            assertThrows(ServiceUnavailableException.class,
+                    () -> single.store(image.toFile(), "laptophub/test"));
+            release.countDown();
+            assertEquals("https://res.cloudinary.com/test/image/upload/streamed.jpg", first.get());
+            executor.shutdown();
+        } finally {
+            Files.deleteIfExists(image);
+        }
+        System.out.println("✅ TEST PASÓ: tamaño y concurrencia acotados\n");
+    }
+
+    /**
+     * Pipeline de subida sin imágenes previas registradas (el repositorio mock no encuentra hashes).
+     */
+    private static ImageUploadService uploadService(CloudinaryService storage, DataSize maxSize) {
+        return new ImageUploadService(storage, new ImageDownscaler(2000, 0.85f, 1),
+                mock(ProductImageRepository.class), maxSize);
+    }
+
+    /**
+     * Mock de Cloudinary que consume el archivo recibido en bloques de 64 KB, como
+     * lo haría el cliente HTTP al enviarlo.
+     */
+    @SuppressWarnings("unchecked")
+    private static Cloudinary cloudinaryReading(long[] bytesSeen, CountDownLatch release) throws IOException {
+        Uploader uploader = mock(Uploader.class);
+        when(uploader.upload(any(), anyMap())).thenAnswer(invocation -> {
+            if (release != null) {
+                release.await();
+            }
+            File file = invocation.getArgument(0);
+            byte[] buffer = new byte[64 * 1024];
+            try (InputStream in = Files.newInputStream(file.toPath())) {
+                int read;
+                while ((read = in.read(buffer)) != -1) {
+                    bytesSeen[0] += read;
+                }
+            }
+            return Map.of("secure_url", "https://res.cloudinary.com/test/image/upload/streamed.jpg");
+        });
+        Cloudinary cloudinary = mock(Cloudinary.class);
+        when(cloudinary.uploader()).thenReturn(uploader);
+        return cloudinary;
+    }
+
+    private static Path createImage(long size) throws IOException {
+        Path image = Files.createTempFile("laptophub-test-image-", ".jpg");
+        byte[] block = new byte[1024 * 1024];
+        try (OutputStream out = Files.newOutputStream(image)) {
+            for (long written = 0; written < size; written += block.length) {
+                out.write(block, 0, (int) Math.min(block.length, size - written));
+            }
+        }
+        return image;
+    }
+
+    /**
+     * MultipartFile respaldado por un archivo en disco, como el que deja el parser
+     * multipart del servidor (a diferencia de MockMultipartFile, que vive en memoria).
+     */
+    private record FileBackedMultipartFile(Path path) implements MultipartFile {
+
+        @Override
+        public String getName() {
+            return "file";
+        }
+
+        @Override
+        public String getOriginalFilename() {
+            return path.getFileName().toString();
+        }
+
+        @Override
+        public String getContentType() {
+            return "image/jpeg";
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return getSize() == 0;
+        }
+
+        @Override
+        public long getSize() {
+            try {
+                return Files.size(path);
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        @Override
+        public byte[] getBytes() throws IOException {
+            return Files.readAllBytes(path);
+        }
+
+        @Override
+        public InputStream getInputStream() throws IOException {
+            return Files.newInputStream(path);
+        }
+
+        @Override
+        public void transferTo(File dest) throws IOException {
+            Files.copy(path, dest.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+}
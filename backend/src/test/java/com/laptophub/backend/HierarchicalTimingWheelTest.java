@@ -0,0 +1,127 @@
+package com.laptophub.backend;
+
+import com.laptophub.backend.scheduling.HierarchicalTimingWheel;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests del timing wheel jerárquico: disparo exacto en todos los niveles,
+ * cancelación y volumen de millones de timers.
+ */
+public class HierarchicalTimingWheelTest {
+
+    private static final long TICK = 1000;
+
+    @Test
+    public void testFiresExactlyAtDeadlineAcrossLevels() {
+        System.out.println("\n=== TEST: disparo exacto en todos los niveles ===");
+        long start = 1_700_000_000_000L;
+        HierarchicalTimingWheel<Integer> wheel = new HierarchicalTimingWheel<>(TICK, 4, start);
+
+        // Plazos en ticks que caen en los niveles 0, 1, 2 y 3 y en bordes de vuelta
+        long[] offsets = {1, 2, 63, 64, 65, 900, 4095, 4096, 4097, 100_000, 262_143, 262_144, 3_000_000};
+        for (int i = 0; i < offsets.length; i++) {
+            wheel.schedule(i, start + offsets[i] * TICK);
+        }
+
+        Map<Integer, Long> firedAt = new HashMap<>();
+        long maxOffset = offsets[offsets.length - 1];
+        for (long tick = 1; tick <= maxOffset; tick++) {
+            for (Integer key : wheel.advance(start + tick * TICK)) {
+                firedAt.put(key, tick);
+            }
+        }
+
+        for (int i = 0; i < offsets.length; i++) {
+            assertEquals(offsets[i], firedAt.get(i), "Timer " + i + " disparó fuera de su tick");
+        }
+        assertEquals(0, wheel.size());
+        System.out.println("✅ TEST PASÓ: cada timer disparó en su tick exacto\n");
+    }
+
+    @Test
+    public void testPastDeadlineFiresOnNextTickAndCancelPreventsFiring() {
+        System.out.println("\n=== TEST: plazos vencidos y cancelación ===");
+        long start = 10_000_000L;
+        HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(TICK, 4, start);
+
+        wheel.schedule("vencida", start - 60_000);
+        wheel.schedule("cancelada", start + 5 * TICK);
+        wheel.schedule("reprogramada", start + 2 * TICK);
+        wheel.schedule("reprogramada", start + 10 * TICK);
+        assertTrue(wheel.cancel("cancelada"));
+        assertFalse(wheel.cancel("cancelada"));
+
+        assertEquals(List.of("vencida"), wheel.advance(start + TICK));
+        assertEquals(List.of(), wheel.advance(start + 9 * TICK));
+        assertEquals(List.of("reprogramada"), wheel.advance(start + 10 * TICK));
+        assertEquals(0, wheel.size());
+        System.out.println("✅ TEST PASÓ: vencidas en el próximo tick, canceladas nunca\n");
+    }
+
+    @Test
+    public void testDeadlinesBeyondLastLevelAreNeverLate() {
+        System.out.println("\n=== TEST: plazos más allá del último nivel ===");
+        long start = 0;
+        // 2 niveles cubren 4096 ticks
+        HierarchicalTimingWheel<Integer> wheel = new HierarchicalTimingWheel<>(TICK, 2, start);
+        wheel.schedule(1, 10_000 * TICK);
+
+        List<Long> fired = new ArrayList<>();
+        for (long tick = 1; tick <= 10_000; tick++) {
+            if (!wheel.advance(tick * TICK).isEmpty()) {
+                fired.add(tick);
+            }
+        }
+        assertEquals(List.of(10_000L), fired);
+        System.out.println("✅ TEST PASÓ: el timer estacionado disparó en su tick\n");
+    }
+
+    @Test
+    public void testMillionsOfTimers() {
+        System.out.println("\n=== TEST: millones de timers ===");
+        int count = 2_000_000;
+        long start = 0;
+        HierarchicalTimingWheel<Integer> wheel = new HierarchicalTimingWheel<>(TICK, 4, start);
+        Random random = new Random(42);
+
+        long begin = System.nanoTime();
+        for (int i = 0; i < count; i++) {
+            // Órdenes de 15 minutos con algo de dispersión
+            wheel.schedule(i, start + (600 + random.nextInt(600)) * TICK);
+        }
+        long insertMillis = (System.nanoTime() - begin) / 1_000_000;
+
+        begin = System.nanoTime();
+        for (int i = 0; i < count; i += 2) {
+            wheel.cancel(i);
+        }
+        long cancelMillis = (System.nanoTime() - begin) / 1_000_000;
+
+        begin = System.nanoTime();
+        int fired = 0;
+        for (long tick = 1; tick <= 1200; tick++) {
+            for (Integer key : wheel.advance(tick * TICK)) {
+                assertTrue(key % 2 == 1, "Disparó un timer cancelado: " + key);
+                fired++;
+            }
+        }
+        long advanceMillis = (System.nanoTime() - begin) / 1_000_000;
+
+        System.out.println("Inserción de " + count + " timers: " + insertMillis + " ms");
+        System.out.println("Cancelación de " + count / 2 + " timers: " + cancelMillis + " ms");
+        System.out.println("Disparo de " + fired + " timers: " + advanceMillis + " ms");
+        assertEquals(count / 2, fired);
+        assertEquals(0, wheel.size());
+        System.out.println("✅ TEST PASÓ: el wheel maneja millones de timers\n");
+    }
+}
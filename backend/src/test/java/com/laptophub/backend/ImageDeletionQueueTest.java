@@ -0,0 +1,147 @@
+package com.laptophub.backend;
+
+import com.cloudinary.Api;
+import com.cloudinary.Cloudinary;
+import com.cloudinary.api.ApiResponse;
+import com.laptophub.backend.model.PendingImageDeletion;
+import com.laptophub.backend.model.Product;
+import com.laptophub.backend.model.ProductImage;
+import com.laptophub.backend.repository.PendingImageDeletionRepository;
+import com.laptophub.backend.repository.ProductImageRepository;
+import com.laptophub.backend.repository.ProductRepository;
+import com.laptophub.backend.service.ImageDeletionWorker;
+import com.laptophub.backend.service.ProductService;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Borrado de imágenes fuera de la petición: eliminar un producto solo encola sus
+ * imágenes y el worker las borra en Cloudinary con una llamada por lote.
+ * El intervalo del worker programado es de 1 hora para que el test lo ejecute a mano.
+ */
+@SpringBootTest(properties = "images.deletion.poll-interval-ms=3600000")
+@SuppressWarnings({"null", "unchecked"})
+public class ImageDeletionQueueTest {
+
+    @MockitoBean
+    private Cloudinary cloudinary;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ImageDeletionWorker imageDeletionWorker;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProductImageRepository productImageRepository;
+
+    @Autowired
+    private PendingImageDeletionRepository deletionRepository;
+
+    @Test
+    public void testDeleteProductEnqueuesAndWorkerDeletesInOneCall() throws Exception {
+        System.out.println("\n=== TEST: borrado de imágenes en lote fuera de la petición ===");
+        deletionRepository.deleteAll();
+        Product product = createProductWithImages(12);
+        List<String> publicIds = productImageRepository.findByProductIdOrderByOrdenAsc(product.getId()).stream()
+                .map(image -> image.getUrl().substring(image.getUrl().indexOf("laptophub/"), image.getUrl().lastIndexOf('.')))
+                .toList();
+
+        productService.deleteProduct(product.getId());
+
+        verify(cloudinary, never()).api();
+        verify(cloudinary, never()).uploader();
+        assertEquals(12, deletionRepository.count());
+
+        Api api = mock(Api.class);
+        Map<String, String> deleted = new HashMap<>();
+        publicIds.forEach(publicId -> deleted.put(publicId, "deleted"));
+        ApiResponse response = mock(ApiResponse.class);
+        when(response.get("deleted")).thenReturn(deleted);
+        when(api.deleteResources(any(), anyMap())).thenReturn(response);
+        when(cloudinary.api()).thenReturn(api);
+
+        int removed = imageDeletionWorker.runOnce();
+
+        ArgumentCaptor<Iterable<String>> sent = ArgumentCaptor.forClass(Iterable.class);
+        verify(api, times(1)).deleteResources(sent.capture(), anyMap());
+        List<String> sentIds = new ArrayList<>();
+        sent.getValue().forEach(sentIds::add);
+        System.out.println("Borradas: " + removed + " en una llamada, métricas: " + imageDeletionWorker.metrics());
+        assertEquals(12, removed);
+        assertTrue(sentIds.containsAll(publicIds));
+        assertEquals(0, deletionRepository.count());
+        System.out.println("✅ TEST PASÓ: 12 imágenes borradas con una sola llamada a Cloudinary\n");
+    }
+
+    @Test
+    public void testFailedCallIsRetriedLater() throws Exception {
+        System.out.println("\n=== TEST: reintento de un lote fallido ===");
+        deletionRepository.deleteAll();
+        Product product = createProductWithImages(3);
+        productService.deleteProduct(product.getId());
+
+        reset(cloudinary);
+        Api api = mock(Api.class);
+        when(api.deleteResources(any(), anyMap())).thenThrow(new RuntimeException("Cloudinary no disponible"));
+        when(cloudinary.api()).thenReturn(api);
+
+        assertEquals(0, imageDeletionWorker.runOnce());
+
+        List<PendingImageDeletion> pending = deletionRepository.findAll();
+        assertEquals(3, pending.size());
+        for (PendingImageDeletion deletion : pending) {
+            assertEquals(1, deletion.getIntentos());
+            assertTrue(deletion.getLastError().contains("Cloudinary no disponible"));
+        }
+        // Con el backoff pendiente, una nueva ejecución no vuelve a llamar a Cloudinary
+        imageDeletionWorker.runOnce();
+        verify(api, times(1)).deleteResources(any(), anyMap());
+        deletionRepository.deleteAll();
+        System.out.println("✅ TEST PASÓ: el lote quedó pendiente con backoff\n");
+    }
+
+    private Product createProductWithImages(int count) {
+        Product product = productRepository.save(Product.builder()
+                .nombre("Laptop con galería")
+                .descripcion("Producto para el borrado de imágenes")
+                .precio(new BigDecimal("1299.99"))
+                .stock(3)
+                .marca("Dell")
+                .build());
+        List<ProductImage> images = new ArrayList<>();
+        for (int i = 1; i <= count; i++) {
+            images.add(ProductImage.builder()
+                    .url("https://res.cloudinary.com/test/image/upload/v1700000000/laptophub/products/" + UUID.randomUUID() + ".jpg")
+                    .orden(i)
+                    .product(product)
+                    .build());
+        }
+        productImageRepository.saveAll(images);
+        return product;
+    }
+}
@@ -0,0 +1,156 @@
+package com.laptophub.backend;
+
+import com.cloudinary.Cloudinary;
+import com.cloudinary.Uploader;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.laptophub.backend.model.Product;
+import com.laptophub.backend.repository.PendingImageDeletionRepository;
+import com.laptophub.backend.repository.ProductRepository;
+import com.laptophub.backend.repository.UserRepository;
+import com.laptophub.backend.service.ProductService;
+import com.laptophub.backend.support.TestAuthHelper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Pipeline de subida: la misma foto en dos productos se sube una sola vez, se sube
+ * reducida a images.derivative.max-dimension, y el borrado de un producto no borra
+ * en Cloudinary una imagen que otro producto sigue usando.
+ */
+@SpringBootTest(properties = "images.deletion.poll-interval-ms=3600000")
+@AutoConfigureMockMvc
+@SuppressWarnings({"null", "unchecked"})
+public class ImageUploadDedupTest {
+
+    @MockitoBean
+    private Cloudinary cloudinary;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private PendingImageDeletionRepository deletionRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Test
+    public void testSamePhotoUploadsOnceAndSharedUrlIsNotDeleted() throws Exception {
+        System.out.println("\n=== TEST: deduplicación por hash y versión reducida ===");
+        List<int[]> uploadedSizes = new ArrayList<>();
+        Uploader uploader = mock(Uploader.class);
+        when(uploader.upload(any(), anyMap())).thenAnswer(invocation -> {
+            BufferedImage sent = ImageIO.read((File) invocation.getArgument(0));
+            uploadedSizes.add(new int[] {sent.getWidth(), sent.getHeight()});
+            return Map.of("secure_url",
+                    "https://res.cloudinary.com/test/image/upload/v1700000000/laptophub/products/" + UUID.randomUUID() + ".jpg");
+        });
+        when(cloudinary.uploader()).thenReturn(uploader);
+
+        String adminToken = TestAuthHelper.createAdminAndLogin(userRepository, passwordEncoder, mockMvc, objectMapper,
+                TestAuthHelper.uniqueEmail("image.dedup.admin"), "admin123");
+        byte[] photo = largePhoto();
+        Product first = createProduct("Laptop SKU 16GB");
+        Product second = createProduct("Laptop SKU 32GB");
+
+        String firstUrl = addImage(adminToken, first, photo);
+        String secondUrl = addImage(adminToken, second, photo);
+
+        System.out.println("Tamaño enviado: " + uploadedSizes.get(0)[0] + "x" + uploadedSizes.get(0)[1]);
+        verify(uploader, times(1)).upload(any(), anyMap());
+        assertEquals(firstUrl, secondUrl);
+        assertEquals(2000, Math.max(uploadedSizes.get(0)[0], uploadedSizes.get(0)[1]));
+
+        // La URL sigue en uso por el segundo producto: no se encola su borrado
+        deletionRepository.deleteAll();
+        productService.deleteProduct(first.getId());
+        assertEquals(0, deletionRepository.count());
+
+        productService.deleteProduct(second.getId());
+        assertEquals(1, deletionRepository.count());
+        assertTrue(firstUrl.contains(deletionRepository.findAll().get(0).getPublicId()));
+        deletionRepository.deleteAll();
+        System.out.println("✅ TEST PASÓ: una sola subida reducida y borrado solo al quedar sin uso\n");
+    }
+
+    private String addImage(String adminToken, Product product, byte[] photo) throws Exception {
+        String response = mockMvc.perform(multipart("/api/products/" + product.getId() + "/images")
+                        .file(new MockMultipartFile("file", "foto.jpg", "image/jpeg", photo))
+                        .param("orden", "1")
+                        .header("Authorization", "Bearer " + adminToken))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        JsonNode body = objectMapper.readTree(response);
+        return body.get("url").asText();
+    }
+
+    private Product createProduct(String nombre) {
+        return productRepository.save(Product.builder()
+                .nombre(nombre)
+                .descripcion("Producto para la deduplicación de imágenes")
+                .precio(new BigDecimal("1499.99"))
+                .stock(4)
+                .marca("HP")
+                .build());
+    }
+
+    /**
+     * JPEG de 4800x3200 con contenido único por ejecución, para que no coincida con
+     * imágenes de otros tests.
+     */
+    private byte[] largePhoto() throws Exception {
+        BufferedImage image = new BufferedImage(4800, 3200, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = image.createGraphics();
+        int seed = UUID.randomUUID().hashCode();
+        for (int x = 0; x < image.getWidth(); x += 100) {
+            graphics.setColor(new Color((seed + x) & 0xFFFFFF));
+            graphics.fillRect(x, 0, 100, image.getHeight());
+        }
+        graphics.dispose();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "jpg", out);
+        return out.toByteArray();
+    }
+}
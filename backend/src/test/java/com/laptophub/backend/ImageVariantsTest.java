@@ -0,0 +1,67 @@
+package com.laptophub.backend;
+
+import com.laptophub.backend.dto.DTOMapper;
+import com.laptophub.backend.dto.ImageVariants;
+import com.laptophub.backend.dto.ProductImageDTO;
+import com.laptophub.backend.model.ProductImage;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * Variantes de tamaño de las imágenes: transformaciones de Cloudinary en la URL,
+ * calculadas una vez por imagen.
+ */
+public class ImageVariantsTest {
+
+    private static final String CLOUDINARY_URL =
+            "https://res.cloudinary.com/demo/image/upload/v1700000000/laptophub/products/abc.jpg";
+
+    @Test
+    public void testCloudinaryUrlGetsSizedVariants() {
+        System.out.println("\n=== TEST: variantes de imagen de Cloudinary ===");
+        ProductImage image = ProductImage.builder().id(1L).url(CLOUDINARY_URL).orden(1).build();
+
+        ProductImageDTO dto = DTOMapper.toProductImageDTO(image);
+
+        assertEquals(CLOUDINARY_URL, dto.getUrl());
+        assertEquals("https://res.cloudinary.com/demo/image/upload/c_limit,w_200,q_auto,f_auto/v1700000000/laptophub/products/abc.jpg",
+                dto.getVariantes().thumb());
+        assertEquals("https://res.cloudinary.com/demo/image/upload/c_limit,w_600,q_auto,f_auto/v1700000000/laptophub/products/abc.jpg",
+                dto.getVariantes().card());
+        assertEquals("https://res.cloudinary.com/demo/image/upload/c_limit,w_1600,q_auto,f_auto/v1700000000/laptophub/products/abc.jpg",
+                dto.getVariantes().zoom());
+        System.out.println("✅ TEST PASÓ: thumb, card y zoom con w_, q_auto y f_auto\n");
+    }
+
+    @Test
+    public void testVariantsAreComputedOncePerImage() {
+        System.out.println("\n=== TEST: variantes calculadas una vez por imagen ===");
+        ProductImage image = ProductImage.builder().id(1L).url(CLOUDINARY_URL).orden(1).build();
+        ImageVariants variants = image.getVariantes();
+        assertSame(variants, image.getVariantes());
+
+        // Cambiar la URL invalida las variantes calculadas
+        String local = "/api/images/laptophub/products/abc.png";
+        image.setUrl(local);
+        assertNotSame(variants, image.getVariantes());
+        assertEquals(local, image.getVariantes().thumb());
+        System.out.println("✅ TEST PASÓ: misma instancia mientras la URL no cambia\n");
+    }
+
+    @Test
+    public void testOtherUrlsKeepOriginal() {
+        System.out.println("\n=== TEST: variantes de URLs que no son de Cloudinary ===");
+        String local = "/api/images/laptophub/products/abc.png";
+        ImageVariants variants = ImageVariants.of(local);
+
+        assertEquals(local, variants.thumb());
+        assertEquals(local, variants.card());
+        assertEquals(local, variants.zoom());
+        assertNull(ImageVariants.of(null));
+        System.out.println("✅ TEST PASÓ: la URL original en las tres variantes\n");
+    }
+}
@@ -0,0 +1,131 @@
+package com.laptophub.backend;
+
+import com.laptophub.backend.security.JwtAuthenticationFilter;
+import com.laptophub.backend.security.JwtService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Microbenchmark del costo por request de JwtAuthenticationFilter, con y sin el
+ * caché de tokens verificados, más la verificación de que la autenticación sale
+ * del claim "role" sin tocar la base de datos.
+ */
+public class JwtAuthenticationFilterBenchmarkTest {
+
+    private static final String SECRET = "benchmark-secret-benchmark-secret-32bytes";
+    private static final int WARMUP = 20_000;
+    private static final int REQUESTS = 100_000;
+
+    @AfterEach
+    public void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    public void testAuthoritiesComeFromRoleClaim() throws Exception {
+        System.out.println("\n=== TEST: authorities desde el claim role ===");
+        JwtService jwtService = new JwtService(SECRET, 15, 100);
+        JwtAuthenticationFilter filter = new JwtAuthenticationFilter(jwtService);
+        String token = token(jwtService, "admin@laptophub.test", "ADMIN");
+
+        filter.doFilter(request(token), new MockHttpServletResponse(), new MockFilterChain());
+
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        assertNotNull(authentication);
+        assertEquals("admin@laptophub.test", authentication.getName());
+        assertEquals(List.of("ROLE_ADMIN"),
+                authentication.getAuthorities().stream().map(GrantedAuthority::getAuthority).toList());
+        System.out.println("✅ TEST PASÓ: ROLE_ADMIN sin consultar usuarios\n");
+    }
+
+    @Test
+    public void testInvalidAndExpiredTokensAreNotAuthenticated() throws Exception {
+        System.out.println("\n=== TEST: tokens inválidos o expirados ===");
+        JwtService jwtService = new JwtService(SECRET, 15, 100);
+        JwtAuthenticationFilter filter = new JwtAuthenticationFilter(jwtService);
+
+        JwtService otherKey = new JwtService("otra-clave-otra-clave-otra-clave-32bytes", 15, 100);
+        filter.doFilter(request(token(otherKey, "user@laptophub.test", "USER")),
+                new MockHttpServletResponse(), new MockFilterChain());
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+
+        filter.doFilter(request("no-es-un-jwt"), new MockHttpServletResponse(), new MockFilterChain());
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+
+        // Expiración = emisión: ya está vencido al verificarlo
+        JwtService expiring = new JwtService(SECRET, 0, 100);
+        String expired = token(expiring, "user@laptophub.test", "USER");
+        Thread.sleep(1000);
+        filter.doFilter(request(expired), new MockHttpServletResponse(), new MockFilterChain());
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+
+        assertEquals(3L, jwtService.metrics().get("rejected"));
+        System.out.println("✅ TEST PASÓ: ningún token inválido autenticó\n");
+    }
+
+    @Test
+    public void testFilterOverheadPerRequest() throws Exception {
+        System.out.println("\n=== TEST: costo por request del filtro JWT ===");
+        JwtService uncached = new JwtService(SECRET, 15, 0);
+        JwtService cached = new JwtService(SECRET, 15, 10_000);
+        String token = token(cached, "user@laptophub.test", "USER");
+
+        long uncachedNanos = nanosPerRequest(new JwtAuthenticationFilter(uncached), token);
+        long cachedNanos = nanosPerRequest(new JwtAuthenticationFilter(cached), token);
+
+        System.out.println("Sin caché: " + uncachedNanos + " ns/request");
+        System.out.println("Con caché: " + cachedNanos + " ns/request");
+        System.out.println("Métricas del caché: " + cached.metrics());
+
+        assertEquals(1L, cached.metrics().get("misses"));
+        assertTrue(cachedNanos < uncachedNanos, "El caché de tokens verificados debería reducir el costo por request");
+        System.out.println("✅ TEST PASÓ: el token se verificó una sola vez\n");
+    }
+
+    private static long nanosPerRequest(JwtAuthenticationFilter filter, String token) throws Exception {
+        MockHttpServletRequest request = request(token);
+        for (int i = 0; i < WARMUP; i++) {
+            runOnce(filter, request);
+        }
+        long begin = System.nanoTime();
+        for (int i = 0; i < REQUESTS; i++) {
+            runOnce(filter, request);
+        }
+        return (System.nanoTime() - begin) / REQUESTS;
+    }
+
+    private static void runOnce(JwtAuthenticationFilter filter, MockHttpServletRequest request) throws Exception {
+        // OncePerRequestFilter marca el request como filtrado; se limpia para repetirlo
+        request.clearAttributes();
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+        assertNotNull(SecurityContextHolder.getContext().getAuthentication());
+        SecurityContextHolder.clearContext();
+    }
+
+    private static String token(JwtService jwtService, String email, String role) {
+        UserDetails user = User.withUsername(email).password("n/a").authorities(List.of()).build();
+        return jwtService.generateToken(user, Map.of("role", role));
+    }
+
+    private static MockHttpServletRequest request(String token) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/orders");
+        request.addHeader("Authorization", "Bearer " + token);
+        return request;
+    }
+}
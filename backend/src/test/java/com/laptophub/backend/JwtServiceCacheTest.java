@@ -0,0 +1,99 @@
+package com.laptophub.backend;
+
+import com.laptophub.backend.security.JwtService;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests del caché de tokens verificados de JwtService: con el caché lleno un token
+ * nuevo desaloja al menos usado y se sigue cacheando, y guardar no cuesta más
+ * cuanto más grande es el caché.
+ */
+public class JwtServiceCacheTest {
+
+    private static final String SECRET = "cache-test-secret-cache-test-secret-32bytes";
+    private static final int NEW_TOKENS = 2_000;
+
+    @Test
+    public void testNewTokenIsCachedWhenCacheIsFull() {
+        System.out.println("\n=== TEST: un token nuevo se cachea con el caché lleno ===");
+        int cacheSize = 160;
+        JwtService jwtService = new JwtService(SECRET, 15, cacheSize);
+        for (String token : tokens(jwtService, "lleno", cacheSize * 3)) {
+            assertNotNull(jwtService.verify(token));
+        }
+        assertTrue((int) jwtService.metrics().get("size") <= cacheSize);
+        assertTrue((long) jwtService.metrics().get("evicted") > 0);
+
+        String token = tokens(jwtService, "nuevo", 1).get(0);
+        long misses = (long) jwtService.metrics().get("misses");
+        long hits = (long) jwtService.metrics().get("hits");
+        jwtService.verify(token);
+        jwtService.verify(token);
+
+        assertEquals(misses + 1, jwtService.metrics().get("misses"));
+        assertEquals(hits + 1, jwtService.metrics().get("hits"));
+        assertTrue((int) jwtService.metrics().get("size") <= cacheSize);
+        System.out.println("✅ TEST PASÓ: el token nuevo desalojó al menos usado\n");
+    }
+
+    @Test
+    public void testStoreCostDoesNotGrowWithCacheSize() {
+        System.out.println("\n=== TEST: costo de guardar con cachés llenos de distinto tamaño ===");
+        JwtService small = new JwtService(SECRET, 15, 160);
+        JwtService large = new JwtService(SECRET, 15, 16_000);
+        fill(small, 160);
+        fill(large, 16_000);
+
+        // Calentamiento del parser y del JIT antes de medir
+        nanosPerNewToken(small, "calentamiento");
+        long smallNanos = nanosPerNewToken(small, "chico");
+        long largeNanos = nanosPerNewToken(large, "grande");
+
+        System.out.println("Caché de 160:    " + smallNanos + " ns por token nuevo");
+        System.out.println("Caché de 16000:  " + largeNanos + " ns por token nuevo");
+        assertTrue(largeNanos < smallNanos * 3,
+                "Guardar en el caché grande no debería costar proporcionalmente más: "
+                        + largeNanos + " ns vs " + smallNanos + " ns");
+        System.out.println("✅ TEST PASÓ: el costo no depende del tamaño del caché\n");
+    }
+
+    private static void fill(JwtService jwtService, int cacheSize) {
+        for (String token : tokens(jwtService, "relleno", cacheSize)) {
+            jwtService.verify(token);
+        }
+    }
+
+    /**
+     * Verifica NEW_TOKENS tokens que no están en el caché, generados antes de medir.
+     */
+    private static long nanosPerNewToken(JwtService jwtService, String prefix) {
+        List<String> tokens = tokens(jwtService, prefix, NEW_TOKENS);
+        long begin = System.nanoTime();
+        for (String token : tokens) {
+            assertNotNull(jwtService.verify(token));
+        }
+        return (System.nanoTime() - begin) / NEW_TOKENS;
+    }
+
+    private static List<String> tokens(JwtService jwtService, String prefix, int count) {
+        List<String> tokens = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            UserDetails user = User.withUsername(prefix + "-" + i + "@laptophub.test")
+                    .password("n/a")
+                    .authorities(List.of())
+                    .build();
+            tokens.add(jwtService.generateToken(user, Map.of("role", "USER")));
+        }
+        return tokens;
+    }
+}
@@ -0,0 +1,156 @@
+package com.laptophub.backend;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.laptophub.backend.model.Product;
+import com.laptophub.backend.repository.ProductRepository;
+import com.laptophub.backend.repository.UserRepository;
+import com.laptophub.backend.service.ImageDeletionWorker;
+import com.laptophub.backend.service.ProductService;
+import com.laptophub.backend.storage.ImageStorage;
+import com.laptophub.backend.storage.LocalImageStorage;
+import com.laptophub.backend.support.TestAuthHelper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.web.servlet.MockMvc;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Almacenamiento local de imágenes: la subida queda en disco, se sirve con ETag,
+ * caché de larga duración y rangos de bytes, y el worker de borrado elimina el archivo.
+ */
+@SpringBootTest(properties = {
+        "images.storage=local",
+        "images.local.root-dir=${java.io.tmpdir}/laptophub-images-test",
+        "images.deletion.poll-interval-ms=3600000"
+})
+@AutoConfigureMockMvc
+@SuppressWarnings("null")
+public class LocalImageStorageTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ImageStorage imageStorage;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ImageDeletionWorker imageDeletionWorker;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Test
+    public void testUploadServeRangesAndDelete() throws Exception {
+        System.out.println("\n=== TEST: almacenamiento local de imágenes ===");
+        assertTrue(imageStorage instanceof LocalImageStorage);
+        String adminToken = TestAuthHelper.createAdminAndLogin(userRepository, passwordEncoder, mockMvc, objectMapper,
+                TestAuthHelper.uniqueEmail("local.images.admin"), "admin123");
+        Product product = productRepository.save(Product.builder()
+                .nombre("Laptop imagen local")
+                .descripcion("Producto para el almacenamiento local")
+                .precio(new BigDecimal("899.99"))
+                .stock(2)
+                .marca("Acer")
+                .build());
+        byte[] photo = randomPng();
+
+        String response = mockMvc.perform(multipart("/api/products/" + product.getId() + "/images")
+                        .file(new MockMultipartFile("file", "foto.png", "image/png", photo))
+                        .param("orden", "1")
+                        .header("Authorization", "Bearer " + adminToken))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        String url = objectMapper.readTree(response).get("url").asText();
+        System.out.println("URL local: " + url);
+        assertTrue(url.startsWith("/api/images/laptophub/products/") && url.endsWith(".png"));
+
+        // Archivo completo, con ETag y caché de un año
+        MockHttpServletResponse full = mockMvc.perform(get(url))
+                .andExpect(status().isOk())
+                .andReturn().getResponse();
+        String etag = full.getHeader("ETag");
+        assertNotNull(etag);
+        assertArrayEquals(photo, full.getContentAsByteArray());
+        assertEquals("image/png", full.getContentType());
+        assertTrue(full.getHeader("Cache-Control").contains("max-age=31536000"));
+
+        // Revalidación
+        mockMvc.perform(get(url).header("If-None-Match", etag))
+                .andExpect(status().isNotModified());
+
+        // Rango de bytes
+        MockHttpServletResponse partial = mockMvc.perform(get(url).header("Range", "bytes=10-109"))
+                .andExpect(status().isPartialContent())
+                .andReturn().getResponse();
+        assertEquals("bytes 10-109/" + photo.length, partial.getHeader("Content-Range"));
+        assertArrayEquals(Arrays.copyOfRange(photo, 10, 110), partial.getContentAsByteArray());
+
+        mockMvc.perform(get(url).header("Range", "bytes=" + photo.length + "-"))
+                .andExpect(status().isRequestedRangeNotSatisfiable());
+        mockMvc.perform(get("/api/images/laptophub/products/no-existe.png"))
+                .andExpect(status().isNotFound());
+        LocalImageStorage local = (LocalImageStorage) imageStorage;
+        assertNull(local.resolve("../../etc/passwd"));
+        assertNull(imageStorage.keyOf("/api/images/../secret.png"));
+
+        // Borrado: el producto encola la imagen y el worker elimina el archivo
+        Path file = local.resolve(imageStorage.keyOf(url));
+        assertTrue(Files.exists(file));
+        productService.deleteProduct(product.getId());
+        imageDeletionWorker.runOnce();
+        assertFalse(Files.exists(file));
+        mockMvc.perform(get(url)).andExpect(status().isNotFound());
+        System.out.println("✅ TEST PASÓ: imagen servida con ETag, rangos y borrada del disco\n");
+    }
+
+    /**
+     * PNG con ruido aleatorio: contenido único por ejecución y de varios KB.
+     */
+    private byte[] randomPng() throws Exception {
+        BufferedImage image = new BufferedImage(64, 64, BufferedImage.TYPE_INT_RGB);
+        Random random = new Random();
+        for (int x = 0; x < image.getWidth(); x++) {
+            for (int y = 0; y < image.getHeight(); y++) {
+                image.setRGB(x, y, random.nextInt(0xFFFFFF));
+            }
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", out);
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,54 @@
+package com.laptophub.backend;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.laptophub.backend.model.User;
+import com.laptophub.backend.support.TestAuthHelper;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+/**
+ * Un login exitoso lee al usuario una sola vez: el provider valida la contraseña
+ * y entrega id, email y rol al controller en el mismo principal.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@SuppressWarnings("null")
+public class LoginQueryCountTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    public void testSuccessfulLoginReadsUserOnce() throws Exception {
+        System.out.println("\n=== TEST: un login exitoso consulta al usuario una vez ===");
+        String email = TestAuthHelper.uniqueEmail("login.queries");
+        TestAuthHelper.registerAndLogin(mockMvc, objectMapper, email, "password123", "Login", "Queries");
+
+        // Se cuentan cargas de User: los jobs programados no leen usuarios
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        String token = TestAuthHelper.login(mockMvc, objectMapper, email, "password123");
+
+        long userLoads = statistics.getEntityStatistics(User.class.getName()).getLoadCount();
+        System.out.println("Cargas de User: " + userLoads + ", statements: " + statistics.getPrepareStatementCount());
+        assertNotNull(token);
+        assertEquals(1, userLoads);
+        System.out.println("✅ TEST PASÓ: una sola lectura del usuario por login\n");
+    }
+}
@@ -9,6 +9,8 @@ import com.laptophub.backend.repository.CartItemRepository;
 import com.laptophub.backend.repository.CartRepository;
 import com.laptophub.backend.repository.OrderItemRepository;
 import com.laptophub.backend.repository.OrderRepository;
+import com.laptophub.backend.model.PaymentStatus;
+import com.laptophub.backend.repository.PaymentOutboxRepository;
 import com.laptophub.backend.repository.PaymentRepository;
 import com.laptophub.backend.repository.ProductImageRepository;
 import com.laptophub.backend.repository.ProductRepository;
@@ -43,7 +45,7 @@ import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.
 @SuppressWarnings("null")
 public class OrderControllerTest {
     /**
-     * TEST 11: Validar que el payment de la orden creada incluye clientSecret
+     * TEST 11: Validar que el payment de la orden creada obtiene su clientSecret (GET /api/orders/{orderId}/payment)
      */
     @Test
     @org.junit.jupiter.api.Order(11)
@@ -68,17 +70,55 @@ public class OrderControllerTest {
                 .andDo(print())
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.payment").exists())
+                .andExpect(jsonPath("$.payment.estado").value("PENDIENTE"))
                 .andReturn();
         String response = result.getResponse().getContentAsString();
         com.fasterxml.jackson.databind.JsonNode jsonNode = objectMapper.readTree(response);
-        com.fasterxml.jackson.databind.JsonNode paymentNode = jsonNode.get("payment");
-        String clientSecret = paymentNode != null && paymentNode.has("clientSecret") ? paymentNode.get("clientSecret").asText() : null;
+
+        // El PaymentIntent se crea en segundo plano: consultar el pago hasta obtener el clientSecret
+        String clientSecret = null;
+        long deadline = System.currentTimeMillis() + 20_000;
+        while (clientSecret == null && System.currentTimeMillis() < deadline) {
+            MvcResult paymentResult = mockMvc.perform(get("/api/orders/" + jsonNode.get("id").asText() + "/payment")
+                            .header("Authorization", "Bearer " + userToken))
+                    .andExpect(status().isOk())
+                    .andReturn();
+            com.fasterxml.jackson.databind.JsonNode paymentNode =
+                    objectMapper.readTree(paymentResult.getResponse().getContentAsString());
+            if (paymentNode.hasNonNull("clientSecret")) {
+                clientSecret = paymentNode.get("clientSecret").asText();
+            } else {
+                Thread.sleep(250);
+            }
+        }
         System.out.println("clientSecret devuelto en payment: " + clientSecret);
         org.junit.jupiter.api.Assertions.assertNotNull(clientSecret);
         org.junit.jupiter.api.Assertions.assertFalse(clientSecret.isEmpty());
+        secretOrderId = jsonNode.get("id").asText();
+        secretOrderClientSecret = clientSecret;
         System.out.println("✅ TEST 11 PASÓ: clientSecret devuelto correctamente en payment de orden\n");
     }
 
+    /**
+     * TEST 12: El detalle usa el clientSecret guardado y el refresh lo vuelve a leer de Stripe
+     */
+    @Test
+    @org.junit.jupiter.api.Order(12)
+    public void test12_ClientSecretStoredAndRefreshed() throws Exception {
+        System.out.println("\n=== TEST 12: clientSecret guardado y refresh explícito ===");
+        mockMvc.perform(get("/api/orders/" + secretOrderId)
+                        .header("Authorization", "Bearer " + userToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.payment.clientSecret").value(secretOrderClientSecret));
+
+        mockMvc.perform(post("/api/orders/" + secretOrderId + "/payment/refresh")
+                        .header("Authorization", "Bearer " + userToken))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.payment.clientSecret").value(secretOrderClientSecret));
+        System.out.println("✅ TEST 12 PASÓ: clientSecret servido desde la BD y refrescado bajo demanda\n");
+    }
+
     @Autowired
     private MockMvc mockMvc;
 
@@ -94,6 +134,9 @@ public class OrderControllerTest {
     @Autowired
     private PaymentRepository paymentRepository;
 
+    @Autowired
+    private PaymentOutboxRepository paymentOutboxRepository;
+
     @Autowired
     private CartRepository cartRepository;
 
@@ -115,6 +158,8 @@ public class OrderControllerTest {
     private static String userId;
     private static String productId;
     private static String orderId;
+    private static String secretOrderId;
+    private static String secretOrderClientSecret;
         private static String userToken;
         private static String adminToken;
     
@@ -393,6 +438,12 @@ public class OrderControllerTest {
                 .andDo(print())
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.estado").value("CANCELADO"));
+
+        // El pago queda fallido y fuera de la outbox: no se crea un PaymentIntent para la orden cancelada
+        Long paymentId = jsonNode.get("payment").get("id").asLong();
+        org.junit.jupiter.api.Assertions.assertEquals(PaymentStatus.FALLIDO,
+                paymentRepository.findById(paymentId).orElseThrow().getEstado());
+        org.junit.jupiter.api.Assertions.assertFalse(paymentOutboxRepository.existsByPaymentId(paymentId));
         
         System.out.println("✅ TEST 9 PASÓ: Orden cancelada correctamente\n");
     }
@@ -0,0 +1,217 @@
+package com.laptophub.backend;
+
+import com.laptophub.backend.exception.ConflictException;
+import com.laptophub.backend.model.Order;
+import com.laptophub.backend.model.OrderItem;
+import com.laptophub.backend.model.OrderStatus;
+import com.laptophub.backend.model.Payment;
+import com.laptophub.backend.model.PaymentStatus;
+import com.laptophub.backend.model.Product;
+import com.laptophub.backend.model.Role;
+import com.laptophub.backend.model.User;
+import com.laptophub.backend.repository.OrderItemRepository;
+import com.laptophub.backend.repository.OrderRepository;
+import com.laptophub.backend.repository.PaymentRepository;
+import com.laptophub.backend.repository.ProductRepository;
+import com.laptophub.backend.repository.UserRepository;
+import com.laptophub.backend.service.OrderExpiryJob;
+import com.laptophub.backend.service.OrderExpiryService;
+import com.laptophub.backend.service.PaymentService;
+import com.laptophub.backend.service.StripeService;
+import com.laptophub.backend.support.TestAuthHelper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * El job de expiración, ejecutado en paralelo como si fueran varios nodos,
+ * expira cada orden una sola vez y restaura el stock exactamente una vez.
+ */
+@SpringBootTest
+@SuppressWarnings("null")
+public class OrderExpiryJobTest {
+
+    private static final int ORDERS = 30;
+    private static final int RUNNERS = 4;
+    private static final int CANTIDAD = 2;
+
+    @Autowired
+    private OrderExpiryJob orderExpiryJob;
+
+    @Autowired
+    private OrderExpiryService orderExpiryService;
+
+    @Autowired
+    private PaymentService paymentService;
+
+    @MockitoBean
+    private StripeService stripeService;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private OrderItemRepository orderItemRepository;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    public void testConcurrentRunsExpireEachOrderOnce() throws Exception {
+        System.out.println("\n=== TEST: expiración concurrente sin doble restauración de stock ===");
+        User user = userRepository.save(User.builder()
+                .email(TestAuthHelper.uniqueEmail("expiry"))
+                .password("no-login")
+                .nombre("Expiry")
+                .apellido("Test")
+                .role(Role.USER)
+                .build());
+
+        // Stock ya descontado por los checkouts: 100 - 30 órdenes * 2 unidades en cada producto
+        int stockInicial = 100;
+        int stockReservado = stockInicial - ORDERS * CANTIDAD;
+        Product laptop = saveProduct("Laptop expiración", stockReservado);
+        Product mouse = saveProduct("Mouse expiración", stockReservado);
+
+        List<Long> orderIds = new ArrayList<>();
+        for (int i = 0; i < ORDERS; i++) {
+            Order order = orderRepository.save(Order.builder()
+                    .user(user)
+                    .total(new BigDecimal("100.00"))
+                    .estado(OrderStatus.PENDIENTE_PAGO)
+                    .direccionEnvio("Calle Expiración " + i)
+                    .expiresAt(LocalDateTime.now().minusMinutes(1))
+                    .build());
+            saveItem(order, laptop);
+            saveItem(order, mouse);
+            paymentRepository.save(Payment.builder()
+                    .order(order)
+                    .monto(order.getTotal())
+                    .estado(PaymentStatus.PENDIENTE)
+                    .build());
+            orderIds.add(order.getId());
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(RUNNERS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Integer>> runs = new ArrayList<>();
+        for (int i = 0; i < RUNNERS; i++) {
+            runs.add(executor.submit(() -> {
+                start.await();
+                return orderExpiryJob.runOnce();
+            }));
+        }
+        start.countDown();
+        int expired = 0;
+        for (Future<Integer> run : runs) {
+            expired += run.get();
+        }
+        executor.shutdown();
+
+        System.out.println("Órdenes expiradas entre los " + RUNNERS + " runners: " + expired);
+        assertTrue(expired >= ORDERS, "Todas las órdenes del test debían expirar");
+
+        for (Long orderId : orderIds) {
+            Order order = orderRepository.findById(orderId).orElseThrow();
+            assertEquals(OrderStatus.EXPIRADO, order.getEstado());
+            assertEquals(PaymentStatus.FALLIDO, order.getPayment().getEstado());
+        }
+        assertEquals(stockInicial, productRepository.findById(laptop.getId()).orElseThrow().getStock());
+        assertEquals(stockInicial, productRepository.findById(mouse.getId()).orElseThrow().getStock());
+
+        Map<String, Object> metrics = orderExpiryJob.metrics();
+        System.out.println("Métricas: " + metrics);
+        assertTrue((Long) metrics.get("expiredTotal") >= ORDERS);
+        assertEquals(0L, ((Number) metrics.get("lagSeconds")).longValue());
+        System.out.println("✅ TEST PASÓ: cada orden se expiró y restauró una sola vez\n");
+    }
+
+    @Test
+    public void testExpiringOrderCancelsItsPaymentIntent() throws Exception {
+        System.out.println("\n=== TEST: expirar una orden cancela su PaymentIntent ===");
+        User user = userRepository.save(User.builder()
+                .email(TestAuthHelper.uniqueEmail("expiry-intent"))
+                .password("no-login")
+                .nombre("Expiry")
+                .apellido("Intent")
+                .role(Role.USER)
+                .build());
+        Product laptop = saveProduct("Laptop expiración con intent", 8);
+
+        Order order = orderRepository.save(Order.builder()
+                .user(user)
+                .total(new BigDecimal("100.00"))
+                .estado(OrderStatus.PENDIENTE_PAGO)
+                .direccionEnvio("Calle Expiración Intent")
+                .expiresAt(LocalDateTime.now().minusMinutes(1))
+                .build());
+        saveItem(order, laptop);
+        String paymentIntentId = "pi_expirada_" + UUID.randomUUID();
+        Payment payment = paymentRepository.save(Payment.builder()
+                .order(order)
+                .monto(order.getTotal())
+                .estado(PaymentStatus.PENDIENTE)
+                .stripePaymentId(paymentIntentId)
+                .stripeClientSecret(paymentIntentId + "_secret")
+                .build());
+
+        assertEquals(1, orderExpiryService.expireOrders(List.of(order.getId()), LocalDateTime.now()));
+
+        // El PaymentIntent se cancela después del commit de la expiración
+        verify(stripeService).cancelPaymentIntent(paymentIntentId);
+        assertEquals(OrderStatus.EXPIRADO, orderRepository.findById(order.getId()).orElseThrow().getEstado());
+        assertEquals(8 + CANTIDAD, productRepository.findById(laptop.getId()).orElseThrow().getStock());
+
+        // Si el cliente llegó a pagar con el clientSecret guardado, el pago no se completa
+        when(stripeService.isPaymentSucceeded(paymentIntentId)).thenReturn(true);
+        paymentService.checkAndSyncPaymentStatus(payment.getId());
+        assertEquals(PaymentStatus.FALLIDO, paymentRepository.findById(payment.getId()).orElseThrow().getEstado());
+        assertThrows(ConflictException.class,
+                () -> paymentService.updatePaymentStatus(payment.getId(), PaymentStatus.COMPLETADO));
+        assertEquals(PaymentStatus.FALLIDO, paymentRepository.findById(payment.getId()).orElseThrow().getEstado());
+        System.out.println("✅ TEST PASÓ: PaymentIntent cancelado y el pago de una orden expirada no se completa\n");
+    }
+
+    private Product saveProduct(String nombre, int stock) {
+        return productRepository.save(Product.builder()
+                .nombre(nombre)
+                .descripcion("Producto para test de expiración")
+                .precio(new BigDecimal("50.00"))
+                .stock(stock)
+                .marca("Expiry")
+                .build());
+    }
+
+    private void saveItem(Order order, Product product) {
+        orderItemRepository.save(OrderItem.builder()
+                .order(order)
+                .product(product)
+                .cantidad(CANTIDAD)
+                .precioUnitario(product.getPrecio())
+                .build());
+    }
+}
@@ -0,0 +1,118 @@
+package com.laptophub.backend;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.laptophub.backend.exception.ServiceUnavailableException;
+import com.laptophub.backend.model.Role;
+import com.laptophub.backend.model.User;
+import com.laptophub.backend.repository.UserRepository;
+import com.laptophub.backend.security.BoundedHashingPasswordEncoder;
+import com.laptophub.backend.support.TestAuthHelper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Hashing de contraseñas fuera de los hilos del servidor: rechazo con 503 cuando
+ * el pool está saturado y rehash transparente al costo configurado en el login.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@SuppressWarnings("null")
+public class PasswordHashingTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private BoundedHashingPasswordEncoder passwordEncoder;
+
+    @Test
+    public void testLoginUpgradesWeakHash() throws Exception {
+        System.out.println("\n=== TEST: rehash transparente en el login ===");
+        String email = TestAuthHelper.uniqueEmail("rehash");
+        String password = "password123";
+        userRepository.save(User.builder()
+                .email(email)
+                .password(new BCryptPasswordEncoder(4).encode(password))
+                .nombre("Rehash")
+                .apellido("Test")
+                .role(Role.USER)
+                .build());
+
+        TestAuthHelper.login(mockMvc, objectMapper, email, password);
+
+        String stored = userRepository.findByEmail(email).orElseThrow().getPassword();
+        System.out.println("Hash guardado: " + stored.substring(0, 7) + "...");
+        assertFalse(passwordEncoder.upgradeEncoding(stored), "El hash debía quedar con el costo configurado");
+        assertTrue(passwordEncoder.matches(password, stored));
+
+        // El login siguiente usa el hash nuevo
+        TestAuthHelper.login(mockMvc, objectMapper, email, password);
+        System.out.println("Métricas: " + passwordEncoder.metrics());
+        System.out.println("✅ TEST PASÓ: el hash se actualizó al costo configurado\n");
+    }
+
+    @Test
+    public void testSaturatedPoolRejectsInsteadOfQueueing() throws Exception {
+        System.out.println("\n=== TEST: backpressure del pool de hashing ===");
+        // 1 hilo y 1 lugar en cola: de 8 hashes simultáneos, varios deben rechazarse
+        BoundedHashingPasswordEncoder encoder = new BoundedHashingPasswordEncoder(12, 1, 1, 30_000);
+        int callers = 8;
+
+        ExecutorService executor = Executors.newFixedThreadPool(callers);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger hashed = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < callers; i++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                try {
+                    encoder.encode("password123");
+                    hashed.incrementAndGet();
+                } catch (ServiceUnavailableException e) {
+                    rejected.incrementAndGet();
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        Map<String, Object> metrics = encoder.metrics();
+        System.out.println("Hasheados: " + hashed.get() + ", rechazados: " + rejected.get());
+        System.out.println("Métricas: " + metrics);
+        encoder.shutdown();
+
+        assertEquals(callers, hashed.get() + rejected.get());
+        assertTrue(hashed.get() >= 1);
+        assertTrue(rejected.get() >= 1, "Con el pool saturado se debía rechazar");
+        assertEquals((long) rejected.get(), metrics.get("rejected"));
+        System.out.println("✅ TEST PASÓ: el exceso se rechazó en lugar de encolarse\n");
+    }
+}
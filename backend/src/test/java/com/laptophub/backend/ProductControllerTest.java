@@ -358,4 +358,29 @@ public class ProductControllerTest {
                 System.out.println("   - 3 imágenes en product_images (orden 0-2)");
         System.out.println("   - Campo imagen_url debe estar NULL\n");
     }
+
+    /**
+     * TEST 9: Filtrar productos por especificaciones con facetas (GET /api/products/filter)
+     */
+    @Test
+    @Order(9)
+    public void test9_FilterProductsWithFacets() throws Exception {
+        System.out.println("\n=== TEST 9: Filtrar productos con facetas (GET /api/products/filter) ===");
+        
+        mockMvc.perform(get("/api/products/filter")
+                        .param("marca", "HP")
+                        .param("ram", "16")
+                        .param("gpu", "NVIDIA RTX 3060")
+                        .param("precioMax", "900")
+                        .param("page", "0")
+                        .param("size", "10"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.productos.content").isArray())
+                .andExpect(jsonPath("$.productos.content[0].marca").value("HP"))
+                .andExpect(jsonPath("$.facets.marca.HP").exists())
+                .andExpect(jsonPath("$.facets.ram").exists());
+        
+        System.out.println("✅ TEST 9 PASÓ: Filtro facetado devuelve productos y conteos\n");
+    }
 }
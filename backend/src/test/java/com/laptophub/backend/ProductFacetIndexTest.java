@@ -0,0 +1,75 @@
+package com.laptophub.backend;
+
+import com.laptophub.backend.exception.ValidationException;
+import com.laptophub.backend.model.Product;
+import com.laptophub.backend.search.ProductFacetIndex;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Tests del índice de facetas en memoria: orden, conteos y reutilización de ordinales.
+ * El índice se llena con upsert, sin base de datos.
+ */
+public class ProductFacetIndexTest {
+
+    private static final ProductFacetIndex.Filter NO_FILTER = new ProductFacetIndex.Filter(Map.of(), null, null);
+
+    @Test
+    public void testSortsByIdOrPriceAndRejectsOtherProperties() {
+        System.out.println("\n=== TEST: orden por id y por precio ===");
+        ProductFacetIndex index = new ProductFacetIndex(null);
+        index.upsert(product(3L, "Dell", "899.99"));
+        index.upsert(product(1L, "Lenovo", "1299.00"));
+        index.upsert(product(2L, "Dell", "899.99"));
+
+        assertEquals(List.of(1L, 2L, 3L), index.filter(NO_FILTER, Sort.unsorted(), 0, 10).productIds());
+        assertEquals(List.of(2L, 3L, 1L), index.filter(NO_FILTER, Sort.by("precio"), 0, 10).productIds());
+        assertEquals(List.of(1L, 3L, 2L),
+                index.filter(NO_FILTER, Sort.by(Sort.Direction.DESC, "precio"), 0, 10).productIds());
+        assertEquals(List.of(3L), index.filter(NO_FILTER, Sort.by("precio"), 1, 1).productIds());
+
+        assertThrows(ValidationException.class, () -> index.filter(NO_FILTER, Sort.by("nombre"), 0, 10));
+        assertThrows(ValidationException.class, () -> index.filter(NO_FILTER, Sort.by("precio", "id"), 0, 10));
+        System.out.println("✅ TEST PASÓ: id y precio ordenan, otras propiedades dan ValidationException\n");
+    }
+
+    @Test
+    public void testRemovedOrdinalsAreReusedAndCountsStayCorrect() {
+        System.out.println("\n=== TEST: reutilización de ordinales ===");
+        ProductFacetIndex index = new ProductFacetIndex(null);
+        for (long id = 1; id <= 100; id++) {
+            index.upsert(product(id, id % 2 == 0 ? "Dell" : "HP", "1000.00"));
+        }
+        for (long id = 1; id <= 100; id++) {
+            index.remove(id);
+        }
+        for (long id = 101; id <= 110; id++) {
+            index.upsert(product(id, "Asus", "500.00"));
+        }
+
+        ProductFacetIndex.FilterResult result = index.filter(
+                new ProductFacetIndex.Filter(Map.of(ProductFacetIndex.MARCA, Set.of("Asus")), null, null),
+                Sort.unsorted(), 0, 20);
+        assertEquals(10, result.total());
+        assertEquals(Long.valueOf(101), result.productIds().get(0));
+        assertEquals(Map.of("Asus", 10), result.facets().get(ProductFacetIndex.MARCA));
+        System.out.println("✅ TEST PASÓ: los productos nuevos ocupan los ordinales liberados\n");
+    }
+
+    private static Product product(Long id, String marca, String precio) {
+        return Product.builder()
+                .id(id)
+                .nombre("Laptop " + id)
+                .marca(marca)
+                .precio(new BigDecimal(precio))
+                .build();
+    }
+}
@@ -0,0 +1,136 @@
+package com.laptophub.backend;
+
+import com.cloudinary.Cloudinary;
+import com.cloudinary.Uploader;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.laptophub.backend.model.Product;
+import com.laptophub.backend.model.ProductImage;
+import com.laptophub.backend.repository.ProductImageRepository;
+import com.laptophub.backend.repository.ProductRepository;
+import com.laptophub.backend.repository.UserRepository;
+import com.laptophub.backend.support.TestAuthHelper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMultipartHttpServletRequestBuilder;
+
+import java.io.File;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Subida de galería en lote: los archivos se suben en paralelo, las filas se insertan
+ * juntas y un archivo que falla se informa sin afectar al resto.
+ * Cloudinary se reemplaza por un mock con 300 ms de latencia por subida.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@SuppressWarnings({"null", "unchecked"})
+public class ProductImageBatchUploadTest {
+
+    private static final long UPLOAD_LATENCY_MS = 300;
+
+    @MockitoBean
+    private Cloudinary cloudinary;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProductImageRepository productImageRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Test
+    public void testBatchUploadRunsInParallelAndReportsEachFile() throws Exception {
+        System.out.println("\n=== TEST: subida de galería en lote ===");
+        Uploader uploader = mock(Uploader.class);
+        when(uploader.upload(any(), anyMap())).thenAnswer(invocation -> {
+            Thread.sleep(UPLOAD_LATENCY_MS);
+            File file = invocation.getArgument(0);
+            if (file.length() == 7) {
+                throw new IOException("Cloudinary rechazó el archivo");
+            }
+            return Map.of("secure_url", "https://res.cloudinary.com/test/image/upload/" + UUID.randomUUID() + ".jpg");
+        });
+        when(cloudinary.uploader()).thenReturn(uploader);
+
+        String adminToken = TestAuthHelper.createAdminAndLogin(userRepository, passwordEncoder, mockMvc, objectMapper,
+                TestAuthHelper.uniqueEmail("image.batch.admin"), "admin123");
+        Product product = productRepository.save(Product.builder()
+                .nombre("Laptop galería en lote")
+                .descripcion("Producto para la subida en lote")
+                .precio(new BigDecimal("999.99"))
+                .stock(5)
+                .marca("Lenovo")
+                .build());
+
+        int files = 8;
+        MockMultipartHttpServletRequestBuilder request = multipart("/api/products/" + product.getId() + "/images/batch");
+        for (int i = 0; i < files; i++) {
+            // El archivo 3 pesa 7 bytes: el mock de Cloudinary lo rechaza
+            byte[] content = i == 3 ? "corrupt".getBytes() : ("imagen de prueba " + i).getBytes();
+            request.file(new MockMultipartFile("files", "foto-" + i + ".jpg", "image/jpeg", content));
+            request.param("ordenes", String.valueOf(i + 1));
+            request.param("descripciones", i == 0 ? "Vista frontal" : "");
+        }
+
+        long start = System.nanoTime();
+        String response = mockMvc.perform(request.header("Authorization", "Bearer " + adminToken))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        JsonNode body = objectMapper.readTree(response);
+        System.out.println("Lote de " + files + " archivos en " + elapsedMillis + " ms");
+        System.out.println("Respuesta: " + response);
+
+        assertEquals(files - 1, body.get("uploaded").asInt());
+        assertEquals(1, body.get("failed").asInt());
+        JsonNode failed = body.get("results").get(3);
+        assertFalse(failed.get("success").asBoolean());
+        assertNotNull(failed.get("error").asText());
+        assertTrue(body.get("results").get(0).get("image").get("id").asLong() > 0);
+        assertEquals("Vista frontal", body.get("results").get(0).get("image").get("descripcion").asText());
+
+        // En serie serían 8 x 300 ms; con 4 en paralelo son dos tandas
+        assertTrue(elapsedMillis < files * UPLOAD_LATENCY_MS,
+                "Las subidas no corrieron en paralelo: " + elapsedMillis + " ms");
+
+        List<ProductImage> saved = productImageRepository.findByProductIdOrderByOrdenAsc(product.getId());
+        assertEquals(files - 1, saved.size());
+        assertEquals(1, saved.get(0).getOrden());
+        assertTrue(saved.stream().noneMatch(image -> image.getOrden() == 4));
+        System.out.println("✅ TEST PASÓ: lote subido en paralelo con resultado por archivo\n");
+    }
+}
@@ -0,0 +1,186 @@
+package com.laptophub.backend;
+
+import com.laptophub.backend.dto.CursorPageDTO;
+import com.laptophub.backend.dto.ProductCreateDTO;
+import com.laptophub.backend.dto.ProductListDTO;
+import com.laptophub.backend.dto.ProductResponseDTO;
+import com.laptophub.backend.exception.ValidationException;
+import com.laptophub.backend.model.Product;
+import com.laptophub.backend.model.ProductImage;
+import com.laptophub.backend.repository.ProductImageRepository;
+import com.laptophub.backend.repository.ProductRepository;
+import com.laptophub.backend.service.ProductService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Verifica que los listados de catálogo ejecutan un número constante de
+ * sentencias SQL (contenido + count) sin importar el tamaño de página.
+ */
+@SpringBootTest
+@SuppressWarnings("null")
+public class ProductListQueryCountTest {
+
+    private static final int PRODUCT_COUNT = 30;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProductImageRepository productImageRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private String marca;
+    private String nombrePrefix;
+
+    @BeforeEach
+    public void setup() {
+        marca = "QueryCount-" + UUID.randomUUID();
+        nombrePrefix = "QC Laptop " + UUID.randomUUID();
+
+        for (int i = 0; i < PRODUCT_COUNT; i++) {
+            // Se crea vía ProductService para que también quede en el índice de búsqueda
+            ProductResponseDTO created = productService.createProduct(ProductCreateDTO.builder()
+                    .nombre(nombrePrefix + " #" + i)
+                    .descripcion("Producto para test de conteo de queries")
+                    .precio(new BigDecimal("999.99"))
+                    .stock(10)
+                    .marca(marca)
+                    .build());
+            Product product = productRepository.findById(created.getId()).orElseThrow();
+
+            productImageRepository.save(ProductImage.builder()
+                    .url("https://example.com/qc-" + i + "-secundaria.jpg")
+                    .orden(2)
+                    .product(product)
+                    .build());
+            productImageRepository.save(ProductImage.builder()
+                    .url("https://example.com/qc-" + i + "-principal.jpg")
+                    .orden(1)
+                    .product(product)
+                    .build());
+        }
+    }
+
+    @Test
+    public void testFindAllQueryCountIsConstant() {
+        System.out.println("\n=== TEST: findAll ejecuta queries constantes por página ===");
+        assertConstantQueryCount(pageable -> productService.findAll(pageable));
+        System.out.println("✅ TEST PASÓ: findAll no depende del tamaño de página\n");
+    }
+
+    @Test
+    public void testSearchByNameQueryCountIsConstant() {
+        System.out.println("\n=== TEST: searchByName ejecuta queries constantes por página ===");
+        assertConstantQueryCount(pageable -> productService.searchByName(nombrePrefix, pageable));
+        System.out.println("✅ TEST PASÓ: searchByName no depende del tamaño de página\n");
+    }
+
+    @Test
+    public void testFindByBrandQueryCountIsConstant() {
+        System.out.println("\n=== TEST: findByBrand ejecuta queries constantes por página ===");
+        Page<ProductListDTO> page = assertConstantQueryCount(pageable -> productService.findByBrand(marca, pageable));
+
+        ProductListDTO first = page.getContent().get(0);
+        assertNotNull(first.getImagenPrincipal());
+        assertEquals(1, first.getImagenPrincipal().getOrden());
+        assertTrue(first.getImagenPrincipal().getUrl().endsWith("-principal.jpg"));
+        System.out.println("✅ TEST PASÓ: findByBrand no depende del tamaño de página\n");
+    }
+
+    @Test
+    public void testKeysetPaginationWalksAllProductsWithoutCount() {
+        System.out.println("\n=== TEST: paginación por cursor recorre todo sin COUNT ===");
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        // Todos los productos del test tienen el mismo precio: el desempate por id debe evitar duplicados
+        PageRequest pageable = PageRequest.of(0, 7, Sort.by(Sort.Direction.DESC, "precio"));
+
+        Set<Long> seen = new HashSet<>();
+        String after = "";
+        int pages = 0;
+        CursorPageDTO<ProductListDTO> page;
+        do {
+            statistics.clear();
+            page = productService.findAllAfter(after, pageable);
+            assertTrue(statistics.getPrepareStatementCount() <= 2,
+                    "Se esperaban como máximo 2 sentencias por página (ids + contenido)");
+            for (ProductListDTO item : page.getContent()) {
+                assertTrue(seen.add(item.getId()), "Producto repetido entre páginas: " + item.getId());
+            }
+            after = page.getNext();
+            pages++;
+        } while (page.isHasNext());
+
+        long ours = seen.stream()
+                .filter(id -> productRepository.findById(id).map(p -> marca.equals(p.getMarca())).orElse(false))
+                .count();
+        System.out.println("Páginas recorridas: " + pages + ", productos: " + seen.size());
+        assertEquals(PRODUCT_COUNT, ours);
+        System.out.println("✅ TEST PASÓ: el cursor recorre el catálogo sin repetir ni contar\n");
+    }
+
+    @Test
+    public void testCursorWithoutSortKeepsCursorOrder() {
+        System.out.println("\n=== TEST: el cursor sin sort conserva su orden ===");
+        PageRequest sorted = PageRequest.of(0, 7, Sort.by(Sort.Direction.DESC, "precio"));
+        CursorPageDTO<ProductListDTO> first = productService.findAllAfter("", sorted);
+        assertTrue(first.isHasNext());
+
+        // El siguiente enlace puede llevar solo el cursor: se usa el orden que codifica
+        CursorPageDTO<ProductListDTO> withSort = productService.findAllAfter(first.getNext(), sorted);
+        CursorPageDTO<ProductListDTO> withoutSort = productService.findAllAfter(first.getNext(), PageRequest.of(0, 7));
+        assertEquals(withSort.getContent().stream().map(ProductListDTO::getId).toList(),
+                withoutSort.getContent().stream().map(ProductListDTO::getId).toList());
+        assertEquals(withSort.getNext(), withoutSort.getNext());
+
+        // Un sort explícito distinto del del cursor sí se rechaza
+        assertThrows(ValidationException.class, () ->
+                productService.findAllAfter(first.getNext(), PageRequest.of(0, 7, Sort.by("id"))));
+        System.out.println("✅ TEST PASÓ: solo se rechaza un sort que contradice al cursor\n");
+    }
+
+    private Page<ProductListDTO> assertConstantQueryCount(Function<PageRequest, Page<ProductListDTO>> query) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        statistics.clear();
+        Page<ProductListDTO> small = query.apply(PageRequest.of(0, 5));
+        long smallPageStatements = statistics.getPrepareStatementCount();
+
+        statistics.clear();
+        Page<ProductListDTO> large = query.apply(PageRequest.of(0, 20));
+        long largePageStatements = statistics.getPrepareStatementCount();
+
+        System.out.println("Sentencias con size=5: " + smallPageStatements);
+        System.out.println("Sentencias con size=20: " + largePageStatements);
+
+        assertEquals(5, small.getContent().size());
+        assertEquals(20, large.getContent().size());
+        assertEquals(smallPageStatements, largePageStatements);
+        assertTrue(largePageStatements <= 2, "Se esperaban como máximo 2 sentencias (contenido + count)");
+        return large;
+    }
+}
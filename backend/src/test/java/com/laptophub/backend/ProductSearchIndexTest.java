@@ -0,0 +1,75 @@
+package com.laptophub.backend;
+
+import com.laptophub.backend.model.Product;
+import com.laptophub.backend.search.ProductSearchIndex;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests del índice de búsqueda en memoria: tokenización, prefijo del último término
+ * y orden por BM25. El índice se llena con upsert, sin base de datos.
+ */
+public class ProductSearchIndexTest {
+
+    @Test
+    public void testTokenizeFoldsAccentsAndSplitsOnSeparators() {
+        System.out.println("\n=== TEST: tokenización sin acentos y por separadores ===");
+        assertEquals(List.of("pantalla", "tactil", "15", "6"), ProductSearchIndex.tokenize("Pantalla Táctil 15.6\""));
+        assertEquals(List.of("intel", "core", "i7", "13700h"), ProductSearchIndex.tokenize("Intel-Core/i7_13700H"));
+        assertEquals(List.of("rtx", "4060"), ProductSearchIndex.tokenize("  RTX,,4060  "));
+        assertEquals(List.of("nino", "cancion"), ProductSearchIndex.tokenize("NIÑO canción"));
+        assertTrue(ProductSearchIndex.tokenize("   ").isEmpty());
+        assertTrue(ProductSearchIndex.tokenize(null).isEmpty());
+        System.out.println("✅ TEST PASÓ: minúsculas, sin diacríticos y sin separadores\n");
+    }
+
+    @Test
+    public void testLastTermMatchesAsPrefix() {
+        System.out.println("\n=== TEST: el último término es prefijo ===");
+        ProductSearchIndex index = new ProductSearchIndex(null);
+        index.upsert(product(1L, "Lenovo Legion 5", "Lenovo", "Laptop gamer"));
+        index.upsert(product(2L, "Lenovo IdeaPad 3", "Lenovo", "Laptop de oficina"));
+        index.upsert(product(3L, "Dell Latitude 7440", "Dell", "Laptop empresarial"));
+
+        assertEquals(List.of(1L), index.search("lenovo leg", 0, 10).productIds());
+        assertEquals(2, index.search("len", 0, 10).total());
+        // Solo el último término es prefijo: "leg" completo no coincide con "legion"
+        assertEquals(0, index.search("leg lenovo", 0, 10).total());
+        System.out.println("✅ TEST PASÓ: prefijo solo en el último término y AND entre términos\n");
+    }
+
+    @Test
+    public void testResultsAreOrderedByBm25() {
+        System.out.println("\n=== TEST: orden por BM25 con pesos por campo ===");
+        ProductSearchIndex index = new ProductSearchIndex(null);
+        // "gamer" en el nombre pesa más que en la descripción
+        index.upsert(product(1L, "Asus TUF", "Asus", "Laptop gamer con pantalla de 144 Hz"));
+        index.upsert(product(2L, "Asus ROG Gamer", "Asus", "Laptop gamer con RTX"));
+        index.upsert(product(3L, "HP Pavilion", "HP", "Laptop para estudiantes"));
+
+        ProductSearchIndex.SearchResult result = index.search("gamer", 0, 10);
+        assertEquals(List.of(2L, 1L), result.productIds());
+        assertEquals(2, result.total());
+
+        // Paginación sobre el orden por relevancia
+        assertEquals(List.of(1L), index.search("gamer", 1, 10).productIds());
+
+        // Tras eliminar un producto deja de aparecer
+        index.remove(2L);
+        assertEquals(List.of(1L), index.search("gamer", 0, 10).productIds());
+        System.out.println("✅ TEST PASÓ: el nombre puntúa más que la descripción\n");
+    }
+
+    private static Product product(Long id, String nombre, String marca, String descripcion) {
+        return Product.builder()
+                .id(id)
+                .nombre(nombre)
+                .marca(marca)
+                .descripcion(descripcion)
+                .build();
+    }
+}
@@ -0,0 +1,94 @@
+package com.laptophub.backend;
+
+import com.laptophub.backend.dto.ProductListDTO;
+import com.laptophub.backend.model.OrderStatus;
+import com.laptophub.backend.model.Product;
+import com.laptophub.backend.model.Review;
+import com.laptophub.backend.model.Role;
+import com.laptophub.backend.model.User;
+import com.laptophub.backend.repository.OrderRepository;
+import com.laptophub.backend.repository.ProductRepository;
+import com.laptophub.backend.repository.ReviewRepository;
+import com.laptophub.backend.repository.UserRepository;
+import com.laptophub.backend.support.TestAuthHelper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Regresión: ningún método paginado de los repositorios puede hacer que Hibernate
+ * pagine en memoria (HHH90003004). Con fail_on_pagination_over_collection_fetch=true
+ * (application.properties de test) Hibernate lanza una excepción en lugar de solo
+ * registrar el warning, así que basta con ejecutar cada método que recibe Pageable.
+ */
+@SpringBootTest
+@SuppressWarnings("null")
+public class RepositoryPaginationTest {
+
+    private static final Pageable PAGE = PageRequest.of(0, 5);
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private ReviewRepository reviewRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    public void testNoRepositoryMethodPaginatesInMemory() {
+        System.out.println("\n=== TEST: ningún repositorio pagina en memoria ===");
+        String marca = "Paginacion-" + UUID.randomUUID();
+        Product product = productRepository.save(Product.builder()
+                .nombre("Laptop paginación")
+                .descripcion("Producto para el test de paginación")
+                .precio(new BigDecimal("999.99"))
+                .stock(10)
+                .marca(marca)
+                .build());
+        User user = userRepository.save(User.builder()
+                .email(TestAuthHelper.uniqueEmail("paginacion"))
+                .password("no-login")
+                .nombre("Paginación")
+                .apellido("Test")
+                .role(Role.USER)
+                .build());
+        reviewRepository.save(Review.builder()
+                .product(product)
+                .user(user)
+                .rating(5)
+                .comentario("Reseña para el test de paginación")
+                .build());
+
+        // ProductRepository
+        assertTrue(productRepository.findListItems(PAGE).getTotalElements() >= 1);
+        Page<ProductListDTO> byNombre = productRepository.findListItemsByNombre("paginación", PAGE);
+        assertTrue(byNombre.getContent().stream().anyMatch(item -> item.getId().equals(product.getId())));
+        Page<ProductListDTO> byMarca = productRepository.findListItemsByMarca(marca, PAGE);
+        assertEquals(1, byMarca.getTotalElements());
+
+        // OrderRepository
+        assertEquals(0, orderRepository.findIdsByUser(user, PAGE).getTotalElements());
+        orderRepository.findIdsByEstado(OrderStatus.PENDIENTE, PAGE);
+        orderRepository.findIds(PAGE);
+        orderRepository.findDeadlinesByEstado(OrderStatus.PENDIENTE_PAGO, 0L, PAGE);
+
+        // ReviewRepository
+        assertEquals(1, reviewRepository.findByProduct(product, PAGE).getTotalElements());
+
+        System.out.println("✅ TEST PASÓ: toda la paginación se resuelve en SQL\n");
+    }
+}
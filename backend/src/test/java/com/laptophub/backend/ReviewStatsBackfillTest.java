@@ -0,0 +1,94 @@
+package com.laptophub.backend;
+
+import com.laptophub.backend.model.Product;
+import com.laptophub.backend.model.Review;
+import com.laptophub.backend.model.Role;
+import com.laptophub.backend.model.User;
+import com.laptophub.backend.repository.ProductRepository;
+import com.laptophub.backend.repository.ReviewRepository;
+import com.laptophub.backend.repository.UserRepository;
+import com.laptophub.backend.service.ReviewStatsBackfill;
+import com.laptophub.backend.support.TestAuthHelper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * El backfill de arranque completa review_count y rating_sum de productos cuyas
+ * reseñas se guardaron sin pasar por ReviewService (como las anteriores a esas
+ * columnas), y ejecutarlo otra vez no cambia nada.
+ */
+@SpringBootTest
+@SuppressWarnings("null")
+public class ReviewStatsBackfillTest {
+
+    @Autowired
+    private ReviewStatsBackfill reviewStatsBackfill;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ReviewRepository reviewRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    public void testBackfillFillsMissingAggregatesAndIsIdempotent() {
+        System.out.println("\n=== TEST: backfill de agregados de reseñas ===");
+        Product reviewed = saveProduct("Laptop con reseñas viejas");
+        Product unreviewed = saveProduct("Laptop sin reseñas");
+        reviewRepository.save(review(reviewed, saveUser("backfill-a"), 5));
+        reviewRepository.save(review(reviewed, saveUser("backfill-b"), 4));
+        assertEquals(0, productRepository.findById(reviewed.getId()).orElseThrow().getReviewCount());
+
+        reviewStatsBackfill.backfill();
+        assertStats(reviewed, 2, 9L);
+        assertStats(unreviewed, 0, 0L);
+
+        reviewStatsBackfill.backfill();
+        assertStats(reviewed, 2, 9L);
+        assertStats(unreviewed, 0, 0L);
+        System.out.println("✅ TEST PASÓ: agregados completados y backfill idempotente\n");
+    }
+
+    private void assertStats(Product product, int reviewCount, long ratingSum) {
+        Product reloaded = productRepository.findById(product.getId()).orElseThrow();
+        assertEquals(reviewCount, reloaded.getReviewCount());
+        assertEquals(ratingSum, reloaded.getRatingSum());
+    }
+
+    private Product saveProduct(String nombre) {
+        return productRepository.save(Product.builder()
+                .nombre(nombre)
+                .descripcion("Producto para test de backfill")
+                .precio(new BigDecimal("899.99"))
+                .stock(5)
+                .marca("Backfill")
+                .build());
+    }
+
+    private User saveUser(String prefix) {
+        return userRepository.save(User.builder()
+                .email(TestAuthHelper.uniqueEmail(prefix))
+                .password("no-login")
+                .nombre("Backfill")
+                .apellido("Test")
+                .role(Role.USER)
+                .build());
+    }
+
+    private static Review review(Product product, User user, int rating) {
+        return Review.builder()
+                .product(product)
+                .user(user)
+                .rating(rating)
+                .comentario("Reseña anterior a los agregados")
+                .build();
+    }
+}
@@ -0,0 +1,205 @@
+package com.laptophub.backend;
+
+import com.laptophub.backend.exception.ValidationException;
+import com.laptophub.backend.model.Product;
+import com.laptophub.backend.repository.ProductRepository;
+import com.laptophub.backend.service.OrderService;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.PersistenceContext;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checkouts concurrentes sobre los mismos productos a través de la fase de stock
+ * del checkout (OrderService.reserveStock): la reserva con UPDATE condicionales
+ * nunca deja stock negativo ni vende de más, y rinde más que el camino anterior de
+ * lock + lectura + escritura por producto.
+ */
+@SpringBootTest
+@SuppressWarnings("null")
+public class StockReservationConcurrencyTest {
+
+    private static final int THREADS = 16;
+    private static final int ATTEMPTS_PER_THREAD = 25;
+    private static final int INITIAL_STOCK = 150;
+    private static final int ROUNDS = 3;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Test
+    public void testConcurrentReservationsNeverOversell() throws Exception {
+        System.out.println("\n=== TEST: reserva de stock del checkout sin sobreventa ===");
+        List<Long> ids = createProducts();
+
+        long elapsed = runConcurrently(() -> reserve(ids), ids);
+
+        System.out.println("Reserva del checkout: " + elapsed + " ms");
+        System.out.println("✅ TEST PASÓ: el stock nunca fue negativo\n");
+    }
+
+    @Test
+    public void testReservationOutperformsPerItemLocking() throws Exception {
+        System.out.println("\n=== TEST: reserva del checkout vs lock + lectura + escritura por producto ===");
+        int total = THREADS * ATTEMPTS_PER_THREAD;
+
+        // Rondas alternadas y el mejor tiempo de cada camino: la primera ronda
+        // también calienta el pool de conexiones y el JIT
+        long lockingElapsed = Long.MAX_VALUE;
+        long reserveElapsed = Long.MAX_VALUE;
+        for (int round = 0; round < ROUNDS; round++) {
+            List<Long> lockingIds = createProducts();
+            lockingElapsed = Math.min(lockingElapsed, runConcurrently(() -> lockPerItem(lockingIds), lockingIds));
+            List<Long> reserveIds = createProducts();
+            reserveElapsed = Math.min(reserveElapsed, runConcurrently(() -> reserve(reserveIds), reserveIds));
+        }
+
+        System.out.println("Lock por producto:    " + lockingElapsed + " ms (" + throughput(total, lockingElapsed) + " checkouts/s)");
+        System.out.println("Reserva del checkout: " + reserveElapsed + " ms (" + throughput(total, reserveElapsed) + " checkouts/s)");
+
+        assertTrue(reserveElapsed < lockingElapsed,
+                "La reserva del checkout no superó al lock por producto: "
+                        + reserveElapsed + " ms vs " + lockingElapsed + " ms");
+        System.out.println("✅ TEST PASÓ: la reserva del checkout rinde más que el lock por producto\n");
+    }
+
+    @Test
+    public void testReserveStockReportsFailedItems() {
+        System.out.println("\n=== TEST: reserveStock informa qué productos no alcanzan ===");
+        List<Long> ids = createProducts();
+
+        Map<Long, Integer> quantities = new LinkedHashMap<>();
+        quantities.put(ids.get(0), 1);
+        quantities.put(ids.get(1), INITIAL_STOCK + 1);
+        quantities.put(ids.get(2), INITIAL_STOCK);
+
+        List<Long> sinStock = transactionTemplate.execute(status -> {
+            List<Long> failed = productRepository.reserveStock(quantities);
+            status.setRollbackOnly();
+            return failed;
+        });
+
+        assertEquals(List.of(ids.get(1)), sinStock);
+        for (Long id : ids) {
+            assertEquals(INITIAL_STOCK, productRepository.findById(id).orElseThrow().getStock());
+        }
+        System.out.println("✅ TEST PASÓ: solo se reporta el producto sin stock\n");
+    }
+
+    /**
+     * Fase de stock del checkout tal como la ejecuta createOrderFromCart.
+     */
+    private void reserve(List<Long> ids) {
+        transactionTemplate.executeWithoutResult(status -> orderService.reserveStock(cart(ids)));
+    }
+
+    /**
+     * Camino anterior del checkout: por cada producto, SELECT ... FOR UPDATE,
+     * verificación del stock en Java y save.
+     */
+    private void lockPerItem(List<Long> ids) {
+        transactionTemplate.executeWithoutResult(status -> cart(ids).forEach((id, cantidad) -> {
+            Product product = entityManager.find(Product.class, id, LockModeType.PESSIMISTIC_WRITE);
+            if (product.getStock() < cantidad) {
+                throw new ValidationException("Stock insuficiente para producto " + id);
+            }
+            product.setStock(product.getStock() - cantidad);
+            productRepository.save(product);
+        }));
+    }
+
+    /**
+     * Lanza THREADS hilos que intentan ATTEMPTS_PER_THREAD checkouts cada uno y
+     * verifica que se vendieron exactamente INITIAL_STOCK unidades de cada producto.
+     */
+    private long runConcurrently(Runnable checkout, List<Long> ids) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger successes = new AtomicInteger();
+        AtomicInteger rejections = new AtomicInteger();
+
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < ATTEMPTS_PER_THREAD; i++) {
+                    try {
+                        checkout.run();
+                        successes.incrementAndGet();
+                    } catch (ValidationException e) {
+                        rejections.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+
+        long begin = System.nanoTime();
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        long elapsed = (System.nanoTime() - begin) / 1_000_000;
+        executor.shutdown();
+
+        System.out.println("Checkouts exitosos: " + successes.get() + ", rechazados: " + rejections.get());
+        assertEquals(INITIAL_STOCK, successes.get());
+        assertEquals(THREADS * ATTEMPTS_PER_THREAD - INITIAL_STOCK, rejections.get());
+        for (Long id : ids) {
+            assertEquals(0, productRepository.findById(id).orElseThrow().getStock());
+        }
+        return elapsed;
+    }
+
+    private List<Long> createProducts() {
+        String marca = "Stock-" + UUID.randomUUID();
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            ids.add(productRepository.save(Product.builder()
+                    .nombre("Laptop concurrencia " + i)
+                    .descripcion("Producto para test de sobreventa")
+                    .precio(new BigDecimal("799.99"))
+                    .stock(INITIAL_STOCK)
+                    .marca(marca)
+                    .build()).getId());
+        }
+        return ids;
+    }
+
+    private static Map<Long, Integer> cart(List<Long> ids) {
+        Map<Long, Integer> quantities = new LinkedHashMap<>();
+        ids.forEach(id -> quantities.put(id, 1));
+        return quantities;
+    }
+
+    private static long throughput(int operations, long elapsedMillis) {
+        return elapsedMillis == 0 ? operations : operations * 1000L / elapsedMillis;
+    }
+}
@@ -0,0 +1,67 @@
+package com.laptophub.backend;
+
+import com.laptophub.backend.dto.UserRegisterDTO;
+import com.laptophub.backend.dto.UserResponseDTO;
+import com.laptophub.backend.dto.UserUpdateDTO;
+import com.laptophub.backend.model.User;
+import com.laptophub.backend.service.UserService;
+import com.laptophub.backend.support.TestAuthHelper;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Caché de usuarios: las lecturas repetidas por id o email no vuelven a la base
+ * y updateUser invalida el snapshot de ambos índices.
+ */
+@SpringBootTest
+@SuppressWarnings("null")
+public class UserCacheTest {
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    public void testRepeatedReadsHitCacheAndUpdateInvalidates() {
+        System.out.println("\n=== TEST: caché de usuarios por id y email ===");
+        String email = TestAuthHelper.uniqueEmail("user.cache");
+        UUID id = userService.registerUser(UserRegisterDTO.builder()
+                .email(email)
+                .password("password123")
+                .nombre("Cache")
+                .apellido("Original")
+                .build()).getId();
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        userService.findByIdDTO(id);
+        statistics.clear();
+
+        for (int i = 0; i < 10; i++) {
+            userService.findByIdDTO(id);
+            userService.findByEmailDTO(email);
+            userService.findSnapshot(id);
+        }
+        long loads = statistics.getEntityStatistics(User.class.getName()).getLoadCount();
+        System.out.println("Cargas de User en 30 lecturas: " + loads);
+        assertEquals(0, loads);
+
+        userService.updateUser(id, UserUpdateDTO.builder().apellido("Actualizado").build());
+
+        UserResponseDTO byId = userService.findByIdDTO(id);
+        UserResponseDTO byEmail = userService.findByEmailDTO(email);
+        assertEquals("Actualizado", byId.getApellido());
+        assertEquals("Actualizado", byEmail.getApellido());
+        assertEquals(id, byEmail.getId());
+        System.out.println("✅ TEST PASÓ: lecturas desde el caché e invalidación al actualizar\n");
+    }
+}
@@ -32,7 +32,7 @@ import { CartService } from '../services/cart.service';
                 </div>
                 <div *ngIf="getItems().length > 0">
                   <div *ngFor="let item of getItems()" class="flex items-center gap-3 px-4 py-2 border-b last:border-b-0">
-                    <img *ngIf="item.product?.imagenUrl" [src]="item.product.imagenUrl" alt="img" class="w-12 h-12 object-contain rounded" />
+                    <img *ngIf="item.product?.imagenPrincipal?.url" [src]="item.product.imagenPrincipal.variantes?.thumb ?? item.product.imagenPrincipal.url" alt="img" class="w-12 h-12 object-contain rounded" />
                     <div class="flex-1">
                       <div class="font-semibold text-slate-900 text-sm">{{ item.product?.nombre }}</div>
                       <div class="text-xs text-slate-600">Cantidad: {{ item.cantidad }}</div>
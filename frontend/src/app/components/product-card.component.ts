@@ -10,7 +10,7 @@ import { Product } from '../models/product.model';
   template: `
     <a [routerLink]="['/product', product.id]" class="border rounded-lg p-4 shadow-sm cursor-pointer hover:shadow-md transition block bg-white">
       <ng-container *ngIf="product.imagenPrincipal?.url; else noImage">
-        <img [src]="product.imagenPrincipal?.url" alt="{{ product.nombre }}" class="w-full h-40 object-contain mb-3" />
+        <img [src]="product.imagenPrincipal?.variantes?.card ?? product.imagenPrincipal?.url" alt="{{ product.nombre }}" class="w-full h-40 object-contain mb-3" />
       </ng-container>
       <ng-template #noImage>
         <div class="w-full h-40 flex items-center justify-center bg-slate-100 mb-3">
@@ -1,8 +1,16 @@
+// URLs de la imagen por tamaño: thumb (200px), card (600px) y zoom (1600px)
+export interface ImageVariants {
+  thumb: string;
+  card: string;
+  zoom: string;
+}
+
 export interface ProductImage {
   id: number;
   url: string;
   orden: number;
   descripcion?: string;
+  variantes?: ImageVariants;
 }
 
 export interface Product {
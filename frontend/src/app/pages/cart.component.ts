@@ -24,7 +24,7 @@ import { FormsModule } from '@angular/forms';
             <div *ngIf="!loading && items.length === 0" class="text-center text-slate-500 py-12">Tu carrito está vacío.</div>
             <div *ngIf="items.length > 0" class="space-y-4">
               <div *ngFor="let item of items" class="flex items-center gap-4 p-4 border rounded">
-                <img *ngIf="item.product?.imagenUrl" [src]="item.product.imagenUrl" class="w-20 h-20 object-contain" />
+                <img *ngIf="item.product?.imagenPrincipal?.url" [src]="item.product.imagenPrincipal.variantes?.thumb ?? item.product.imagenPrincipal.url" class="w-20 h-20 object-contain" />
                 <div class="flex-1">
                   <div class="font-semibold">{{ item.product?.nombre }}</div>
                   <div class="text-sm text-slate-600">Valor unitario: {{ item.product?.precio | currency:'USD':'symbol':'1.2-2' }}</div>
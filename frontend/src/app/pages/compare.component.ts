@@ -192,7 +192,7 @@ export class CompareComponent {
     if (laptop && laptop.imagenes && laptop.imagenes.length > 0) {
       const img = laptop.imagenes[0];
       if (typeof img === 'string') return img;
-      if (img && typeof img === 'object' && img.url) return img.url;
+      if (img && typeof img === 'object' && img.url) return img.variantes?.card ?? img.url;
     }
     return null;
   }
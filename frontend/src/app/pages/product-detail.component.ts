@@ -43,7 +43,7 @@ import { of, Observable } from 'rxjs';
                   <div class="relative flex flex-col items-center">
                     <div class="w-full max-w-4xl flex flex-col items-center">
                       <img
-                        [src]="imagenesOrdenadas[currentImageIndex].url"
+                        [src]="imagenesOrdenadas[currentImageIndex].variantes?.zoom ?? imagenesOrdenadas[currentImageIndex].url"
                         alt="Imagen del producto"
                         class="rounded border border-gray-200 shadow-sm object-contain"
                         style="max-width: 1000px; max-height: 700px; min-height: 400px; background: #f8fafc;"
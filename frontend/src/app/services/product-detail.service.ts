@@ -1,6 +1,7 @@
 import { Injectable } from '@angular/core';
 import { HttpClient } from '@angular/common/http';
 import { Observable } from 'rxjs';
+import { ProductImage } from '../models/product.model';
 
 export interface ProductDetail {
   id: number;
@@ -15,7 +16,7 @@ export interface ProductDetail {
   pantalla: string;
   gpu: string;
   peso: number | string;
-  imagenes: { id: number; url: string; orden: number; descripcion: string }[];
+  imagenes: ProductImage[];
   resenas: { id: number; productId: number; userId: string; userNombre: string; rating: number; comentario: string; createdAt: string }[];
   promedioRating: number;
   createdAt?: string;